@@ -0,0 +1,44 @@
+package com.jakir.fastscroller;
+
+import android.content.Context;
+
+import androidx.recyclerview.widget.LinearSmoothScroller;
+
+/**
+ * Smooth scroller for the last stretch of a long jump: lands the target at the start edge, with every step
+ * capped ({@link #MAX_SCROLL_MS} while searching for the target, {@link #MAX_DECELERATION_MS} for the final
+ * approach), however far it has to go.
+ * Works with every layout manager that provides scroll vectors (Linear, Grid, StaggeredGrid).
+ */
+class BoundedSmoothScroller extends LinearSmoothScroller {
+
+    static final int MAX_SCROLL_MS = 150;
+    static final int MAX_DECELERATION_MS = 250;
+
+    BoundedSmoothScroller(Context context, int targetPosition) {
+        super(context);
+        setTargetPosition(targetPosition);
+    }
+
+    @Override
+    protected int getVerticalSnapPreference() {
+        return SNAP_TO_START;
+    }
+
+    @Override
+    protected int getHorizontalSnapPreference() {
+        return SNAP_TO_START;
+    }
+
+    // time for the interim "keep going" steps while the target is not laid out yet
+    @Override
+    protected int calculateTimeForScrolling(int dx) {
+        return Math.min(MAX_SCROLL_MS, super.calculateTimeForScrolling(dx));
+    }
+
+    // time for the final, decelerating step once the target view is found
+    @Override
+    protected int calculateTimeForDeceleration(int dx) {
+        return Math.min(MAX_DECELERATION_MS, super.calculateTimeForDeceleration(dx));
+    }
+}
@@ -0,0 +1,264 @@
+package com.jakir.fastscroller;
+
+import androidx.recyclerview.widget.ConcatAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+
+/**
+ * Cached sub-adapter boundaries of a ConcatAdapter and the thumb travel given to each of them.
+ * <p>
+ * - One observer per sub-adapter keeps the item counts current; counts only mark the table dirty, it is
+ * rebuilt (O(segments), no adapter calls except the weigher) the next time it is used.
+ * - ConcatAdapter level events only flag a structure check: the adapter list is compared with the cached one
+ * (size and identities) and read again if a sub-adapter was added, removed or replaced.
+ * - Lookups are binary searches over primitive arrays; nothing is allocated and no adapter is asked while
+ * scrolling or dragging.
+ * <p>
+ * Positions map to a travel coordinate (segment travel start + share of the segment's travel); the thumb ratio is
+ * that coordinate relative to the one of the last position that can be first visible, and the part of a position
+ * scrolled out counts as a fraction of its share, so the thumb follows sub-item scrolling both ways. Travel and ratios are kept
+ * in double and positions go through long, like PositionMapper: a float ratio skips positions above ~16M items.
+ */
+class ConcatSegments {
+
+    private final ConcatAdapter concat;
+    private SegmentWeigher weigher = SegmentWeigher.ITEM_COUNT;
+
+    // all sub-adapters, in order, with their observed counts
+    private RecyclerView.Adapter<?>[] adapters = new RecyclerView.Adapter<?>[0];
+    private SegmentObserver[] observers = new SegmentObserver[0];
+    private int[] counts = new int[0];
+
+    // table over the non-empty segments
+    private int segments = 0;
+    private int[] starts = new int[0];        // first adapter position
+    private int[] lengths = new int[0];       // item count
+    private double[] travelStarts = new double[0]; // 0..1, travelStarts[segments] == 1
+    private boolean tableDirty = true;
+    private boolean checkStructure = false;
+    private double fraction = 0d;             // second result of positionForRatio()
+
+    ConcatSegments(ConcatAdapter concat) {
+        this.concat = concat;
+        readAdapters(concat.getAdapters());
+    }
+
+    ConcatAdapter getAdapter() {
+        return concat;
+    }
+
+    void setWeigher(SegmentWeigher weigher) {
+        this.weigher = weigher != null ? weigher : SegmentWeigher.ITEM_COUNT;
+        tableDirty = true;
+    }
+
+    /** Any ConcatAdapter level change: a sub-adapter may have been added or removed. */
+    void onConcatChanged() {
+        checkStructure = true;
+    }
+
+    /** Brings the table up to date; call before lookups. */
+    void ensure() {
+        if (checkStructure) {
+            checkStructure = false;
+            List<? extends RecyclerView.Adapter<? extends RecyclerView.ViewHolder>> list = concat.getAdapters();
+            if (!isCached(list)) readAdapters(list);
+        }
+        if (tableDirty) buildTable();
+    }
+
+    int segmentCount() {
+        return segments;
+    }
+
+    int segmentStart(int segment) {
+        return starts[segment];
+    }
+
+    /** First adapter position of {@code adapter}, RecyclerView.NO_POSITION if it is not a sub-adapter or empty. */
+    int startOf(RecyclerView.Adapter<?> adapter) {
+        int position = 0;
+        for (int i = 0; i < adapters.length; i++) {
+            if (adapters[i] == adapter) return counts[i] > 0 ? position : RecyclerView.NO_POSITION;
+            position += counts[i];
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    void release() {
+        for (int i = 0; i < adapters.length; i++) adapters[i].unregisterAdapterDataObserver(observers[i]);
+        adapters = new RecyclerView.Adapter<?>[0];
+        observers = new SegmentObserver[0];
+    }
+
+    // -------------------- Lookups (hot path) --------------------
+
+    /** Thumb ratio 0..1 for the first visible position; {@code lastFirst} is the last position that can be first. */
+    double ratioForPosition(int position, int lastFirst) {
+        return ratioForPosition(position, 0d, lastFirst);
+    }
+
+    /** Same, with the first visible position scrolled out by {@code scrolled} (0..1) of its length. */
+    double ratioForPosition(int position, double scrolled, int lastFirst) {
+        double end = travelAt(lastFirst, 0d);
+        if (end <= 0d) return 0d;
+        return Math.min(1d, travelAt(position, scrolled) / end);
+    }
+
+    /**
+     * First visible position for a thumb ratio 0..1 (inverse of {@link #ratioForPosition}); how far (0..1) that
+     * position is scrolled out is left in {@link #fraction()}.
+     */
+    int positionForRatio(double ratio, int lastFirst) {
+        fraction = 0d;
+        if (segments == 0) return 0;
+        if (ratio >= 1d) return lastFirst;
+        double travel = ratio * travelAt(lastFirst, 0d);
+        int s = segmentAtTravel(travel);
+        double share = travelStarts[s + 1] - travelStarts[s];
+        if (share <= 0d) return Math.min(starts[s], lastFirst);
+        double exact = Math.max(0d, (travel - travelStarts[s]) / share * lengths[s]);
+        long offset = (long) exact;
+        if (offset >= lengths[s] || starts[s] + offset >= lastFirst) {
+            return (int) Math.min((long) starts[s] + Math.min(offset, lengths[s] - 1L), lastFirst);
+        }
+        fraction = exact - offset;
+        return (int) (starts[s] + offset);
+    }
+
+    /** Fraction (0..1) of its length the position of the last {@link #positionForRatio} is scrolled out. */
+    double fraction() {
+        return fraction;
+    }
+
+    /** Thumb ratio at which {@code segment} starts, relative to the same end as {@link #ratioForPosition}. */
+    double segmentStartRatio(int segment, int lastFirst) {
+        return ratioForPosition(starts[segment], lastFirst);
+    }
+
+    /** Segment containing {@code position}. */
+    int segmentOf(int position) {
+        int lo = 0;
+        int hi = segments - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (starts[mid] <= position) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private double travelAt(int position, double scrolled) {
+        if (segments == 0 || position < 0 || (position == 0 && scrolled <= 0d)) return 0d;
+        int s = segmentOf(position);
+        double within = Math.min(1d, (position - starts[s] + scrolled) / lengths[s]);
+        return travelStarts[s] + (travelStarts[s + 1] - travelStarts[s]) * within;
+    }
+
+    // last segment whose travel starts at or before `travel` and that has travel of its own
+    private int segmentAtTravel(double travel) {
+        int lo = 0;
+        int hi = segments - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (travelStarts[mid] <= travel) lo = mid;
+            else hi = mid - 1;
+        }
+        while (lo > 0 && travelStarts[lo + 1] == travelStarts[lo]) lo--; // zero-weight segment: previous one
+        return lo;
+    }
+
+    // -------------------- Table --------------------
+
+    // same sub-adapters, same order
+    private boolean isCached(List<? extends RecyclerView.Adapter<? extends RecyclerView.ViewHolder>> list) {
+        if (list.size() != adapters.length) return false;
+        for (int i = 0; i < adapters.length; i++) {
+            if (list.get(i) != adapters[i]) return false;
+        }
+        return true;
+    }
+
+    private void readAdapters(List<? extends RecyclerView.Adapter<? extends RecyclerView.ViewHolder>> list) {
+        release();
+        int n = list.size();
+        adapters = new RecyclerView.Adapter<?>[n];
+        observers = new SegmentObserver[n];
+        counts = new int[n];
+        for (int i = 0; i < n; i++) {
+            adapters[i] = list.get(i);
+            observers[i] = new SegmentObserver(i);
+            adapters[i].registerAdapterDataObserver(observers[i]);
+            counts[i] = adapters[i].getItemCount();
+        }
+        tableDirty = true;
+    }
+
+    private void buildTable() {
+        tableDirty = false;
+        int n = counts.length;
+        if (starts.length < n + 1) {
+            starts = new int[n + 1];
+            lengths = new int[n + 1];
+            travelStarts = new double[n + 1];
+        }
+
+        segments = 0;
+        int position = 0;
+        double totalWeight = 0d;
+        for (int i = 0; i < n; i++) {
+            if (counts[i] <= 0) continue;
+            double weight = Math.max(0d, weigher.getWeight(segments, adapters[i], counts[i]));
+            starts[segments] = position;
+            lengths[segments] = counts[i];
+            travelStarts[segments] = weight; // weight for now, turned into a prefix sum below
+            totalWeight += weight;
+            position += counts[i];
+            segments++;
+        }
+        if (totalWeight <= 0d) {
+            // nothing weighted: fall back to item counts
+            for (int s = 0; s < segments; s++) {
+                travelStarts[s] = lengths[s];
+                totalWeight += lengths[s];
+            }
+        }
+
+        double sum = 0d;
+        for (int s = 0; s < segments; s++) {
+            double weight = travelStarts[s];
+            travelStarts[s] = totalWeight > 0d ? sum / totalWeight : 0d;
+            sum += weight;
+        }
+        travelStarts[segments] = 1d;
+    }
+
+    private class SegmentObserver extends RecyclerView.AdapterDataObserver {
+        private final int index;
+
+        SegmentObserver(int index) {
+            this.index = index;
+        }
+
+        private void setCount(int count) {
+            counts[index] = count;
+            tableDirty = true;
+        }
+
+        @Override
+        public void onChanged() {
+            setCount(adapters[index].getItemCount());
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            setCount(counts[index] + itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            setCount(Math.max(0, counts[index] - itemCount));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.jakir.fastscroller;
+
+/**
+ * Data-window hook for paged / lazily loaded adapters.
+ * <p>
+ * While the thumb is dragged the list jumps over positions that were never loaded. Instead of letting the
+ * pager load every page it passes, the scroller reports the projected landing range once the finger slows
+ * down (and again on release), so the app can issue one range load for it. Ranges reported earlier in the
+ * same drag that are no longer the landing zone are handed back to {@link #onDataWindowCancelled}.
+ * <p>
+ * Ranges are adapter positions, start inclusive, end exclusive. Both methods run on the main thread.
+ * <p>
+ * Usage:
+ * FastScroller.attach(recyclerView).setDataWindowListener(new DataWindowListener() {
+ * public void onDataWindowRequested(int start, int end) { repository.loadRange(start, end); }
+ * public void onDataWindowCancelled(int start, int end) { repository.cancelRange(start, end); }
+ * });
+ */
+public interface DataWindowListener {
+
+    /** Load [start, end): the drag is settling there. */
+    void onDataWindowRequested(int start, int end);
+
+    /** A range requested earlier in this drag was skipped; its load can be cancelled. */
+    default void onDataWindowCancelled(int start, int end) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.jakir.fastscroller;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Fills the RecycledViewPool with holders for the range a thumb drag is predicted to land on.
+ * <p>
+ * RecyclerView's own prefetch (GapWorker) only looks one scroll step ahead, which a fast-scroll jump never
+ * hits: every jump lands on cold positions and, since the old screen is only recycled after the new one is
+ * laid out, a whole screen gets inflated in one frame. Here holders are created while the main thread is
+ * idle, bounded per idle slot, so the jump finds them in the pool and only has to bind.
+ * (Binding ahead of time is not possible: holders taken from the pool are always rebound.)
+ * <p>
+ * Each idle slot gets a quarter of a frame interval (4 ms at 60 Hz, 2 ms at 120 Hz), so a slot that starts just
+ * before a vsync cannot push that frame over its budget. Pool capacities raised for the drag are put back with
+ * {@link #restorePool()} once the list has settled; RecycledViewPool has no getter for them, so a type is
+ * assumed to be at RecyclerView's default until raised here.
+ */
+class DragPrefetcher implements MessageQueue.IdleHandler {
+
+    private static final int IDLE_BUDGET_DIVISOR = 4;         // idle slot budget: frame interval / 4
+    private static final int MAX_VIEW_TYPES = 16;
+    private static final int DEFAULT_POOL_SIZE = 5;           // RecycledViewPool default per view type
+
+    private final RecyclerView recyclerView;
+
+    // landing range, updated on every move event
+    private int landingStart = RecyclerView.NO_POSITION;
+    private int landingCount = 0;
+
+    // view types seen in the landing range (reused, no allocation per idle slot)
+    private final int[] types = new int[MAX_VIEW_TYPES];
+    private final int[] needed = new int[MAX_VIEW_TYPES];
+    // pool capacities raised during the current drag, restored by restorePool()
+    private final int[] raisedTypes = new int[MAX_VIEW_TYPES];
+    private final int[] raisedMax = new int[MAX_VIEW_TYPES];
+    private int raisedCount = 0;
+
+    private boolean active = false;
+    private long idleBudgetNanos = 16_666_667L / IDLE_BUDGET_DIVISOR;
+    private boolean registered = false;
+    private int createdCount = 0;
+
+    DragPrefetcher(RecyclerView rv) {
+        this.recyclerView = rv;
+    }
+
+    void start(long frameIntervalNanos) {
+        active = true;
+        idleBudgetNanos = frameIntervalNanos / IDLE_BUDGET_DIVISOR;
+        landingStart = RecyclerView.NO_POSITION;
+        if (!registered) {
+            registered = true;
+            Looper.getMainLooper().getQueue().addIdleHandler(this);
+        }
+    }
+
+    void stop() {
+        active = false;
+        if (registered) {
+            registered = false;
+            Looper.getMainLooper().getQueue().removeIdleHandler(this);
+        }
+    }
+
+    /** Puts the capacities raised for the drag back; holders beyond them are dropped by the pool. */
+    void restorePool() {
+        RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        for (int i = 0; i < raisedCount; i++) pool.setMaxRecycledViews(raisedTypes[i], DEFAULT_POOL_SIZE);
+        raisedCount = 0;
+    }
+
+    /** The drag is heading for [start, start + count). */
+    void setLandingRange(int start, int count) {
+        landingStart = start;
+        landingCount = count;
+    }
+
+    /** Holders created ahead of time so far (for tests / metrics). */
+    int getCreatedCount() {
+        return createdCount;
+    }
+
+    @Override
+    public boolean queueIdle() {
+        if (!active) {
+            registered = false;
+            return false;
+        }
+        fillPool(System.nanoTime() + idleBudgetNanos);
+        return true; // stay registered for the rest of the drag
+    }
+
+    /** Creates missing holders for the landing range until {@code deadlineNanos}. */
+    void fillPool(long deadlineNanos) {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (adapter == null || landingStart == RecyclerView.NO_POSITION) return;
+
+        int end = Math.min(adapter.getItemCount(), landingStart + landingCount);
+        int typeCount = 0;
+        for (int p = Math.max(0, landingStart); p < end; p++) {
+            int type = adapter.getItemViewType(p);
+            int idx = indexOf(types, typeCount, type);
+            if (idx < 0) {
+                if (typeCount == MAX_VIEW_TYPES) continue;
+                idx = typeCount++;
+                types[idx] = type;
+                needed[idx] = 0;
+            }
+            needed[idx]++;
+        }
+
+        RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        for (int i = 0; i < typeCount; i++) {
+            int type = types[i];
+            int want = needed[i];
+            ensureCapacity(pool, type, want);
+            while (pool.getRecycledViewCount(type) < want) {
+                if (System.nanoTime() >= deadlineNanos) return;
+                pool.putRecycledView(adapter.createViewHolder(recyclerView, type));
+                createdCount++;
+            }
+        }
+    }
+
+    // the default of 5 per type is less than a screen, so the extra holders would just be dropped
+    private void ensureCapacity(RecyclerView.RecycledViewPool pool, int type, int want) {
+        int idx = indexOf(raisedTypes, raisedCount, type);
+        int current = idx < 0 ? DEFAULT_POOL_SIZE : raisedMax[idx];
+        if (want <= current) return;
+        if (idx < 0) {
+            if (raisedCount == MAX_VIEW_TYPES) return;
+            idx = raisedCount++;
+            raisedTypes[idx] = type;
+        }
+        raisedMax[idx] = want;
+        pool.setMaxRecycledViews(type, want);
+    }
+
+    private static int indexOf(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+}
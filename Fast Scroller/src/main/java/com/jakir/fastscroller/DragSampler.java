@@ -0,0 +1,83 @@
+package com.jakir.fastscroller;
+
+import android.view.MotionEvent;
+
+/**
+ * Fixed-size ring buffer of finger samples (time + raw position along the drag axis).
+ * Fed with every sample of a MotionEvent, historical ones included; never allocates after construction.
+ */
+class DragSampler {
+
+    private static final int CAPACITY = 32;
+
+    private final boolean horizontal;  // sample x instead of y
+    private final long[] times = new long[CAPACITY];
+    private final float[] positions = new float[CAPACITY];
+    private int head = -1; // index of the newest sample
+    private int size = 0;
+
+    DragSampler(boolean horizontal) {
+        this.horizontal = horizontal;
+    }
+
+    void reset() {
+        head = -1;
+        size = 0;
+    }
+
+    void add(long timeMs, float rawPosition) {
+        head = (head + 1) % CAPACITY;
+        times[head] = timeMs;
+        positions[head] = rawPosition;
+        if (size < CAPACITY) size++;
+    }
+
+    /**
+     * Adds the batched historical samples of a move event followed by its current sample.
+     * MotionEvent only exposes historical coordinates relative to the view, so they are shifted by the
+     * same view -> screen offset as the current sample.
+     */
+    void addMotionEvent(MotionEvent event) {
+        float rawOffset = raw(event) - (horizontal ? event.getX() : event.getY());
+        for (int h = 0, n = event.getHistorySize(); h < n; h++) {
+            float historical = horizontal ? event.getHistoricalX(h) : event.getHistoricalY(h);
+            add(event.getHistoricalEventTime(h), historical + rawOffset);
+        }
+        add(event.getEventTime(), raw(event));
+    }
+
+    /** Raw (screen) coordinate of the event along the drag axis. */
+    float raw(MotionEvent event) {
+        return horizontal ? event.getRawX() : event.getRawY();
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    float latestPosition() {
+        return positions[head];
+    }
+
+    long latestTime() {
+        return times[head];
+    }
+
+    /**
+     * Finger velocity (px / s) over the samples of the last {@code windowMs}, measured up to {@code nowMs}.
+     * 0 when the finger has not moved within the window (resting finger sends no move events).
+     */
+    float velocity(long nowMs, long windowMs) {
+        if (size < 2 || nowMs - times[head] > windowMs) return 0f;
+
+        int oldest = head;
+        for (int i = 1; i < size; i++) {
+            int idx = (head - i + CAPACITY) % CAPACITY;
+            if (nowMs - times[idx] > windowMs) break;
+            oldest = idx;
+        }
+        long dt = times[head] - times[oldest];
+        if (dt <= 0) return 0f;
+        return (positions[head] - positions[oldest]) * 1000f / dt;
+    }
+}
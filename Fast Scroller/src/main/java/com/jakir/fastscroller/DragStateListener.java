@@ -0,0 +1,26 @@
+package com.jakir.fastscroller;
+
+/**
+ * Thumb drag state, for adapters that bind cheap placeholders while the list is flying by.
+ * <p>
+ * IDLE -> DRAGGING on touch down, DRAGGING -> SETTLING on release, SETTLING -> IDLE once the list has been laid
+ * out at its final position (after the settle rebind, see {@link FastScroller#setRebindOnSettle}).
+ * Runs on the main thread.
+ * <p>
+ * Usage:
+ * scroller.setRebindOnSettle(true).setDragStateListener((state, itemsPerSecond) -> imageLoader.setPaused(state == STATE_DRAGGING));
+ * // in onBindViewHolder: if (scroller.isDragging()) bindPlaceholder(holder); else bindFull(holder);
+ */
+public interface DragStateListener {
+
+    int STATE_IDLE = 0;
+    int STATE_DRAGGING = 1;
+    int STATE_SETTLING = 2;
+
+    /**
+     * @param itemsPerSecond list speed caused by the drag at the time of the change (towards the end is positive),
+     *                       0 unless {@code state} is {@link #STATE_DRAGGING}; poll
+     *                       {@link FastScroller#getDragVelocity()} for the current value
+     */
+    void onDragStateChanged(int state, float itemsPerSecond);
+}
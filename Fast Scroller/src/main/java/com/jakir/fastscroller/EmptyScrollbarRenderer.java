@@ -0,0 +1,55 @@
+package com.jakir.fastscroller;
+
+/**
+ * Stand-in renderer of a lazily attached {@link FastScroller} until its real renderer is built: draws nothing,
+ * adds nothing to the view hierarchy. The scroller re-applies its state to the real renderer when it swaps it in.
+ */
+final class EmptyScrollbarRenderer implements ScrollbarRenderer {
+
+    static final EmptyScrollbarRenderer INSTANCE = new EmptyScrollbarRenderer();
+
+    private EmptyScrollbarRenderer() {
+    }
+
+    @Override
+    public void setBarThickness(int thicknessPx) {
+    }
+
+    @Override
+    public void setThumbLayoutLength(int lengthPx) {
+    }
+
+    @Override
+    public void setThumb(float start, float length) {
+    }
+
+    @Override
+    public float getThumbStart() {
+        return 0f;
+    }
+
+    @Override
+    public float getThumbLength() {
+        return 0f;
+    }
+
+    @Override
+    public void setReveal(float fraction) {
+    }
+
+    @Override
+    public void setMarkers(MarkerLayer markers) {
+    }
+
+    @Override
+    public void setActive(boolean active) {
+    }
+
+    @Override
+    public void setMetrics(MetricsRecorder metrics) {
+    }
+
+    @Override
+    public void remove() {
+    }
+}
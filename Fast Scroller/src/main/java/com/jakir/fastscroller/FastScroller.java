@@ -2,32 +2,42 @@ package com.jakir.fastscroller;
 
 import static android.view.ViewGroup.LayoutParams.MATCH_PARENT;
 
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
+import android.animation.ValueAnimator;
 import android.content.Context;
-import android.graphics.drawable.GradientDrawable;
-import android.os.Handler;
+import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.util.TypedValue;
+import android.view.Display;
 import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
-import android.widget.LinearLayout;
 import android.widget.RelativeLayout;
-import android.widget.Toast;
 
 import androidx.annotation.NonNull;
-import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.annotation.Nullable;
 import androidx.core.graphics.ColorUtils;
-import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
+import com.jakir.fastscroller.core.FeedEstimate;
+import com.jakir.fastscroller.core.ItemHeightIndex;
+import com.jakir.fastscroller.core.PositionMapper;
+import com.jakir.fastscroller.core.ScrollGeometry;
+import com.jakir.fastscroller.core.ThumbSpring;
+import com.jakir.fastscroller.core.TraceWriter;
+
 /**
  * FastScroller
  * <p>
- * - Attach to any RecyclerView (must use LinearLayoutManager)
+ * - Attach to any RecyclerView (LinearLayoutManager, GridLayoutManager or StaggeredGridLayoutManager)
  * - Works with common parent layouts (FrameLayout, LinearLayout, RelativeLayout, ConstraintLayout).
  * - Optional parameters (pass null to use defaults / theme values):
  * allWidthDp, marginFromEndDp, normalColor, activeColor, trackColor, swipeRefreshLayout
@@ -60,6 +70,38 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
  * FastScroller.attach(recyclerView, null, null, Color.rgb(255,0,0), null, null);
  * FastScroller.attach(recyclerView, 10, null, null, null, 0x00000000);
  * FastScroller.attach(recyclerView, null, null, null, null, null);
+ * <p>
+ * Horizontal lists (LinearLayoutManager / StaggeredGridLayoutManager with HORIZONTAL orientation) get the bar
+ * along the bottom edge automatically; marginFromEndDp is then the margin from the bottom.
+ * <p>
+ * Paged / lazily loaded adapters (one range load for the drag's landing zone instead of one per page passed):
+ * FastScroller.attach(recyclerView).setDataWindowListener(listener);
+ * <p>
+ * Runtime metrics (onScrolled time, layout requests, animator starts, drag jank, drag-to-settle latency):
+ * FastScroller scroller = FastScroller.attach(recyclerView).setMetricsEnabled(true);
+ * ScrollMetrics metrics = scroller.getMetrics();
+ * <p>
+ * ConcatAdapter (header + several sources + footer): thumb travel per sub-adapter, snapping to their starts:
+ * FastScroller.attach(recyclerView).setConcatSegmentsEnabled(true).setSegmentWeigher(SegmentWeigher.EQUAL).setSnapToSegmentStarts(true);
+ * <p>
+ * One FastScroller per RecyclerView: attach() detaches the previous one (scroll listener, timers, views), so it
+ * can be called on every data reload. Tie it to a screen to stop timers in onStop and detach in onDestroy:
+ * FastScroller.attach(recyclerView).bindToLifecycle(getViewLifecycleOwner());
+ * <p>
+ * Trace recording (replay offline with com.jakir.fastscroller.core.TraceReplayer):
+ * scroller.startTraceRecording(); ... byte[] trace = scroller.stopTraceRecording();
+ * <p>
+ * Overlay mode (track & thumb drawn over the RecyclerView, no extra views, no layout pass while scrolling):
+ * FastScroller.attach(recyclerView).setOverlayMode(true);
+ * <p>
+ * Endless feeds (estimated total, next page requested ahead of the user):
+ * FastScroller.attach(recyclerView).setInfiniteFeed(itemCount -> loadNextPage());
+ * <p>
+ * Track markers (search hits, unread items, ...):
+ * scroller.setMarkers(hitPositions); scroller.addMarkers(position); scroller.removeMarkers(position);
+ * <p>
+ * Lazy attach (nothing built or added to the layout until the list can scroll; off the first frame's path):
+ * FastScroller.attachLazily(recyclerView).setFabEnabled(false);
  */
 
 /**
@@ -67,18 +109,20 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
  **************************************************************************************************************************************************************/
 public class FastScroller {
 
-    private static final String TAG_TRACK = "fs_track";
-    private static final String TAG_THUMB = "fs_thumb";
-    private static final String TAG_TOUCH = "fs_touch";
-    private static final String TAG_FAB = "fs_fab"; // <-- এই লাইনটি যোগ করুন
-    // smoothing
-    private final float smoothFactor = 0.25f; // position smoothing
-    private final float heightSmoothFactor = 0.20f; // height smoothing
+    static final String TAG_TRACK = "fs_track";
+    static final String TAG_THUMB = "fs_thumb";
+    static final String TAG_TOUCH = "fs_touch";
+    static final String TAG_FAB = "fs_fab";
+    static final String TAG_POPUP = "fs_popup";
+    /** Payload of the settle rebind, see {@link #setRebindOnSettle}. */
+    public static final Object PAYLOAD_DRAG_SETTLED = "FastScroller.dragSettled";
     // recycler + layout
     private final RecyclerView recyclerView;
-    private final LinearLayoutManager layoutManager;
-    // handler
-    private final Handler hideHandler = new Handler();
+    private final RecyclerView.LayoutManager layoutManager;
+    private final RowGeometry rows;  // thumb math is done in rows (grids: several items per row)
+    private final boolean horizontal; // from the layout manager's orientation: bar along the bottom, x drags
+    // shared frame callback + hide timer wheel for all scrollers
+    private final FrameScheduler scheduler = FrameScheduler.get();
     // animation defaults
     private final long animDuration = 200L;
     private final long hideDelay = 2000L;
@@ -92,67 +136,169 @@ public class FastScroller {
     private int normalColor;
     private int activeColor;
     private int trackColor;
-    // views
-    private View track;
-    private View thumb;
-    private View touchArea;
-    private GradientDrawable thumbDrawable;
+    private final SwipeRefreshLayout swipeRefreshLayout;
+    // track + thumb (views or overlay); EmptyScrollbarRenderer until built by a lazy attach
+    private ScrollbarRenderer renderer = EmptyScrollbarRenderer.INSTANCE;
+    private boolean viewsBuilt = false;
+    private Integer userNormalColor;    // attach() overrides, resolved against the theme in buildViews()
+    private Integer userActiveColor;
+    private Integer userTrackColor;
+    private final MessageQueue.IdleHandler idleBuild = this::onIdleBuild;
+    private boolean idleBuildPosted = false;
+    private boolean overlayMode = false;
+    private final View.OnTouchListener dragTouchListener = (v, event) -> onDragTouch(event);
     // state
-    private float touchDownY;
-    private float thumbDownY;
+    private float touchDownPos;
+    private float thumbDownPos;
     private boolean isVisible = false;
-    private Runnable hideRunnable;
-    private float lastY = 0f;
-    private float lastHeight = 0f;
+    // show/hide machinery, allocated once and reused (nothing is allocated per scroll event)
+    private final FrameScheduler.FrameClient revealFrame = this::onRevealFrame;
+    private boolean revealRunning = false;
+    private long revealStartNanos = 0L;  // 0 -> starts on the next frame
+    private float revealFrom = 0f;
+    private float revealTo = 0f;
+    private float reveal = 0f;
+    private final FrameScheduler.Timer hideTimer = new FrameScheduler.Timer(this::onHideTimeout);
+    // frame-coalesced drag: finger samples are recorded per event, the list is scrolled at most once per vsync
+    private static final int MAX_SKIPPED_DRAG_FRAMES = 3;
+    private final DragSampler dragSampler;
+    private final FrameScheduler.FrameClient dragFrame = this::onDragFrame;
+    private boolean dragging = false;
+    private boolean dragFramePosted = false;
+    private boolean dragScrollPending = false;
+    private int dragTargetPos = 0;     // latest target from the finger, applied on the next frame
+    private int dragTargetOffset = 0;
+    private int mappedOffset = 0;      // second result of positionForThumb()
+    private final PositionMapper mapper = new PositionMapper();
+    private int firstRowLength = 0;    // first visible row, refreshed by measureFirstRow(): length (px)
+    private int firstRowScrolled = 0;  // and how far it is scrolled out (px)
+    private int lastDragTargetPos = RecyclerView.NO_POSITION;
+    private int lastDragTargetOffset = 0;
+    private long lastDragFrameNanos = 0L;
+    private long frameIntervalNanos = 16_666_667L;
+    private int dragFramesToSkip = 0;
+    // optional pixel-accurate geometry for variable-height items (null -> index based)
+    private ItemHeightIndex heightIndex;
+    private int indexFirstPos;   // topmost laid-out child, refreshed by recordVisibleHeights()
+    private int indexFirstTop;
+    // optional section popup while dragging
+    private SectionIndex sectionIndex;
+    private SectionPopup sectionPopup;
+    private int popupSection = -1;
+    private static final int POPUP_PREWARM_SECTIONS = 3; // labels built ahead on each side of the current one
+    // optional marker ticks on the track (null -> none)
+    private static final int MARKER_TICK_DP = 2;
+    private static final int DEFAULT_MARKER_COLOR = 0xFFFFA000;
+    private MarkerLayer markers;
+    private int markerColor = DEFAULT_MARKER_COLOR;
+    // drag state for adapters (placeholders while dragging, one full bind once settled)
+    private DragStateListener dragStateListener;
+    private int dragState = DragStateListener.STATE_IDLE;
+    private boolean rebindOnSettle = false;
+    private final FrameScheduler.FrameClient settleFrame = this::onSettleFrame;
+    private boolean settleFramePosted = false;
+    // optional infinite feed (null -> the item count is the total)
+    private FeedEstimate feed;
+    private NearEndListener nearEndListener;
+    private int nearEndFiredAt = -1;   // item count the listener was last called for
+    // optional ConcatAdapter segments (null -> one flat position range)
+    private static final int SEGMENT_SNAP_DP = 16;
+    private boolean concatSegmentsEnabled = false;
+    private SegmentWeigher segmentWeigher;
+    private boolean snapToSegmentStarts = false;
+    private ConcatSegments segments;
+    private int snappedPosition = RecyclerView.NO_POSITION;  // segment start the dragged thumb snapped to
+    // long-distance scroll: jump to one screen before the target, then a bounded smooth scroll
+    private static final int JUMP_SCREENS = 1;
+    private int pendingSmoothTarget = RecyclerView.NO_POSITION;  // smooth part, started once the jump is laid out
+    private final View.OnLayoutChangeListener jumpLayoutListener = (v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) -> onJumpLaidOut();
+    // optional holder prefetch for where the drag is heading
+    private static final long PREFETCH_LOOKAHEAD_MS = 120L;
+    private DragPrefetcher dragPrefetcher;
+    // optional data-window hook for paged adapters: one range request once the drag slows down
+    private static final long VELOCITY_WINDOW_MS = 100L;
+    private static final int SLOW_DRAG_DP_PER_SECOND = 400;
+    private DataWindowListener dataWindowListener;
+    private final FrameScheduler.Timer fingerRestTimer = new FrameScheduler.Timer(this::checkDataWindow);
+    private int requestedWindowStart = RecyclerView.NO_POSITION;  // window requested during the current drag
+    private int requestedWindowEnd = RecyclerView.NO_POSITION;
+    // optional runtime metrics (null -> off, nothing recorded)
+    private MetricsRecorder metrics;
+    // optional input trace (null -> off)
+    private TraceWriter trace;
+    // lifecycle
+    private boolean detached = false;
+    private LifecycleOwner lifecycleOwner;
+    private final DefaultLifecycleObserver lifecycleObserver = new DefaultLifecycleObserver() {
+        @Override
+        public void onStop(@NonNull LifecycleOwner owner) {
+            stopTimers();
+        }
+
+        @Override
+        public void onDestroy(@NonNull LifecycleOwner owner) {
+            detach();
+        }
+    };
+    // adapter observed on behalf of the height / section indexes
+    private RecyclerView.Adapter<?> observedAdapter;
+    private final RecyclerView.AdapterDataObserver adapterObserver = new AdapterChangeObserver();
+    // scroll listener (package-private for tests)
+    RecyclerView.OnScrollListener scrollListener;
+    // thumb motion: scroll events move the spring targets, frames move the thumb (transform only)
+    private final ThumbSpring posSpring = new ThumbSpring(ThumbSpring.POSITION_OMEGA);
+    private final ThumbSpring lengthSpring = new ThumbSpring(ThumbSpring.LENGTH_OMEGA);
+    private final FrameScheduler.FrameClient thumbFrame = this::onThumbFrame;
+    private boolean thumbFrameRunning = false;
+    private long lastThumbFrameNanos = 0L;  // 0 -> first frame of a motion
     private boolean firstCall = true;
     // -------------------- Back to Top FAB --------------------
     private View fabTop; // FloatingActionButton or simple View
+    private boolean fabEnabled = true;
     private boolean fabVisible = false;
+    private final Runnable fabHiddenAction = () -> {
+        fabTop.setVisibility(View.GONE);
+        if (metrics != null) metrics.onLayoutRequest();
+    };
     private final int fabMarginDp = 12; // margin from end & bottom
     private final int fabPaddingDp = 12;
     private final int fabSizeDp = 63;
 
 
     // -------------------- Public attach helpers --------------------
-    private FastScroller(RecyclerView rv, Integer pAllWidthDp, Integer pMarginFromEndDp, Integer pNormalColor, Integer pActiveColor, Integer pTrackColor, androidx.swiperefreshlayout.widget.SwipeRefreshLayout swipeRefreshLayout) {
+    private FastScroller(RecyclerView rv, Integer pAllWidthDp, Integer pMarginFromEndDp, Integer pNormalColor, Integer pActiveColor, Integer pTrackColor, androidx.swiperefreshlayout.widget.SwipeRefreshLayout swipeRefreshLayout, boolean lazy) {
         this.recyclerView = rv;
+        this.swipeRefreshLayout = swipeRefreshLayout;
 
-        if (!(rv.getLayoutManager() instanceof LinearLayoutManager)) {
-            throw new IllegalStateException("FastScroller: RecyclerView must use LinearLayoutManager");
-        }
-        layoutManager = (LinearLayoutManager) rv.getLayoutManager();
+        layoutManager = rv.getLayoutManager();
+        rows = RowGeometry.create(layoutManager);
+        horizontal = rows.isHorizontal();
+        dragSampler = new DragSampler(horizontal);
 
         // apply optional overrides
         if (pAllWidthDp != null) this.allWidthDp = pAllWidthDp;
         if (pMarginFromEndDp != null) this.marginFromEndDp = pMarginFromEndDp;
 
-        // initialize colors (nullable user-provided allowed)
-        initColors(rv.getContext(), pNormalColor, pActiveColor, pTrackColor);
-
-        // create views
+        userNormalColor = pNormalColor;
+        userActiveColor = pActiveColor;
+        userTrackColor = pTrackColor;
 
-        createTrack(rv.getContext());
-        createThumb(rv.getContext());
-        createTouchArea(rv.getContext());
-        createFab(rv.getContext());
-
-        track.setTag(TAG_TRACK);
-        thumb.setTag(TAG_THUMB);
-        touchArea.setTag(TAG_TOUCH);
+        // colors + views now, or once the list turns out to be scrollable (lazy)
+        if (!lazy) buildViews();
 
         // listeners
         setupScrollListener(rv.getContext());
 
-        setupTouchAreaDrag(swipeRefreshLayout);
-
         // start hidden
         hideThumbImmediately();
+
+        rv.setTag(R.id.fastscroller_instance, this);
     }
 
     /**
      * Attach with optional parameters. Pass null to use default/theme.
      *
-     * @param recyclerView       target RecyclerView (must have LinearLayoutManager)
+     * @param recyclerView       target RecyclerView (Linear, Grid or StaggeredGrid layout manager)
      * @param allWidthDp         width (dp) for track & thumb visual (nullable)
      * @param marginFromEndDp    margin-end (dp) from parent edge (nullable)
      * @param normalColor        color int for thumb normal state (nullable -> theme)
@@ -161,37 +307,282 @@ public class FastScroller {
      * @param swipeRefreshLayout enable/disable swipeRefreshLayout by dragging thumb
      */
     // -------------------- Constructor --------------------
-    public static void attach(RecyclerView recyclerView, Integer allWidthDp, Integer marginFromEndDp, Integer normalColor, Integer activeColor, Integer trackColor, androidx.swiperefreshlayout.widget.SwipeRefreshLayout swipeRefreshLayout) {
-        removeExistingFastScroller(recyclerView);
-        new FastScroller(recyclerView, allWidthDp, marginFromEndDp, normalColor, activeColor, trackColor, swipeRefreshLayout);
+    public static FastScroller attach(RecyclerView recyclerView, Integer allWidthDp, Integer marginFromEndDp, Integer normalColor, Integer activeColor, Integer trackColor, androidx.swiperefreshlayout.widget.SwipeRefreshLayout swipeRefreshLayout) {
+        detachExisting(recyclerView);
+        return new FastScroller(recyclerView, allWidthDp, marginFromEndDp, normalColor, activeColor, trackColor, swipeRefreshLayout, false);
+    }
+
+    public static FastScroller attach(RecyclerView recyclerView, Integer allWidthDp, Integer marginFromEndDp, Integer normalColor, Integer activeColor, Integer trackColor) {
+        detachExisting(recyclerView);
+        return new FastScroller(recyclerView, allWidthDp, marginFromEndDp, normalColor, activeColor, trackColor, null, false);
+    }
+
+    public static FastScroller attach(RecyclerView recyclerView, androidx.swiperefreshlayout.widget.SwipeRefreshLayout swipeRefreshLayout) {
+        return attach(recyclerView, null, null, null, null, null, swipeRefreshLayout);
+    }
+
+    public static FastScroller attach(RecyclerView recyclerView) {
+        return attach(recyclerView, null, null, null, null, null, null);
+    }
+
+    /**
+     * Like {@link #attach(RecyclerView, Integer, Integer, Integer, Integer, Integer, SwipeRefreshLayout)}, but only
+     * registers the scroll listener: theme colors, track / thumb views (or the overlay decoration) and the FAB are
+     * built on the first scroll once the list can scroll, or on the first idle after a layout that made it
+     * scrollable. Lists that never outgrow the screen never build anything.
+     */
+    public static FastScroller attachLazily(RecyclerView recyclerView, Integer allWidthDp, Integer marginFromEndDp, Integer normalColor, Integer activeColor, Integer trackColor, androidx.swiperefreshlayout.widget.SwipeRefreshLayout swipeRefreshLayout) {
+        detachExisting(recyclerView);
+        return new FastScroller(recyclerView, allWidthDp, marginFromEndDp, normalColor, activeColor, trackColor, swipeRefreshLayout, true);
+    }
+
+    public static FastScroller attachLazily(RecyclerView recyclerView) {
+        return attachLazily(recyclerView, null, null, null, null, null, null);
+    }
+
+    // -------------------- Lazy build --------------------
+
+    /** False until the views of a lazy attach have been built (always true after a plain attach()). */
+    public boolean isBuilt() {
+        return viewsBuilt;
+    }
+
+    /** Resolves colors, creates the renderer and the FAB, then hands the renderer the state kept so far. */
+    private void buildViews() {
+        if (viewsBuilt || detached) return;
+        viewsBuilt = true;
+        cancelIdleBuild();
+        Context context = recyclerView.getContext();
+        initColors(context, userNormalColor, userActiveColor, userTrackColor);
+        renderer = createRenderer();
+        applyRendererState();
+        if (fabEnabled) createFab(context);
+    }
+
+    /**
+     * Lazy attach, scroll listener: true when the event can be ignored (nothing built and nothing to show).
+     * A layout pass (dx == dy == 0) defers the build to the next idle so the first frame stays untouched.
+     */
+    private boolean skipUnbuilt(int dx, int dy) {
+        if (viewsBuilt) return false;
+        // not scrollable: nothing to show, only an endless feed still wants to hear about short first pages
+        if (rows.rowCount() == 0 || rows.visibleRowCount() >= rows.rowCount()) return nearEndListener == null;
+        if (dx == 0 && dy == 0) {
+            if (!idleBuildPosted) {
+                idleBuildPosted = true;
+                Looper.myQueue().addIdleHandler(idleBuild);
+            }
+            return true;
+        }
+        buildViews();
+        return false;
+    }
+
+    private boolean onIdleBuild() {
+        idleBuildPosted = false;
+        if (detached || viewsBuilt) return false;
+        buildViews();
+        handleScrolled(recyclerView, recyclerView.getContext());
+        return false; // one-shot
+    }
+
+    private void cancelIdleBuild() {
+        if (!idleBuildPosted) return;
+        idleBuildPosted = false;
+        Looper.myQueue().removeIdleHandler(idleBuild);
+    }
+
+    /**
+     * Back-to-top FAB shown once the list is scrolled far enough (default on). Off removes it; a lazy attach then
+     * never builds it at all.
+     *
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setFabEnabled(boolean enabled) {
+        if (fabEnabled == enabled || detached) return this;
+        fabEnabled = enabled;
+        if (!enabled) {
+            removeFab();
+        } else if (viewsBuilt) {
+            createFab(recyclerView.getContext());
+        }
+        return this;
+    }
+
+    // -------------------- Rendering mode --------------------
+
+    /**
+     * Overlay mode draws track & thumb in one ItemDecoration over the RecyclerView instead of adding
+     * three views to its parent. Scrolling then only redraws the RecyclerView and never requests a layout.
+     *
+     * @param enabled true -> overlay, false -> classic views (default)
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setOverlayMode(boolean enabled) {
+        if (overlayMode == enabled || detached) return this;
+        overlayMode = enabled;
+        if (!viewsBuilt) return this; // picked up by buildViews()
+
+        renderer.remove();
+        renderer = createRenderer();
+        applyRendererState();
+        return this;
+    }
+
+    /** Replays metrics, markers, thumb and reveal onto a freshly created renderer. */
+    private void applyRendererState() {
+        renderer.setMetrics(metrics);
+        renderer.setMarkers(markers);
+        if (lengthSpring.getTarget() > 0) {
+            renderer.setThumbLayoutLength((int) lengthSpring.getTarget());
+            renderer.setThumb(posSpring.getValue(), lengthSpring.getValue());
+        }
+        renderer.setReveal(reveal);
+    }
+
+    public boolean isOverlayMode() {
+        return overlayMode;
     }
 
-    public static void attach(RecyclerView recyclerView, Integer allWidthDp, Integer marginFromEndDp, Integer normalColor, Integer activeColor, Integer trackColor) {
-        removeExistingFastScroller(recyclerView);
-        new FastScroller(recyclerView, allWidthDp, marginFromEndDp, normalColor, activeColor, trackColor, null);
+    private ScrollbarRenderer createRenderer() {
+        if (overlayMode) {
+            return new OverlayScrollbarRenderer(recyclerView, allWidthDp, marginFromEndDp, minimumThumbHeightDp, touchAreaWidthDp, extraTouchAreaHeight, normalColor, activeColor, trackColor, horizontal, dragTouchListener);
+        }
+        return new ViewScrollbarRenderer(recyclerView, allWidthDp, marginFromEndDp, minimumThumbHeightDp, touchAreaWidthDp, extraTouchAreaHeight, normalColor, activeColor, trackColor, horizontal, dragTouchListener);
     }
 
-    public static void attach(RecyclerView recyclerView, androidx.swiperefreshlayout.widget.SwipeRefreshLayout swipeRefreshLayout) {
-        attach(recyclerView, null, null, null, null, null, swipeRefreshLayout);
+    /** The FastScroller currently attached to {@code recyclerView}, null if none. */
+    public static FastScroller from(RecyclerView recyclerView) {
+        Object tag = recyclerView.getTag(R.id.fastscroller_instance);
+        return tag instanceof FastScroller ? (FastScroller) tag : null;
     }
 
-    public static void attach(RecyclerView recyclerView) {
-        attach(recyclerView, null, null, null, null, null, null);
+    // -------------------- Detach / lifecycle --------------------
+
+    /**
+     * Removes everything attach() added: views (or the overlay decoration), the scroll listener, the adapter
+     * observer, pending hide / drag callbacks and running animations. Safe to call more than once.
+     * A detached instance is not reused; call attach() again for a new one.
+     */
+    public void detach() {
+        if (detached) return;
+        stopTimers();
+        detached = true;
+
+        recyclerView.removeOnScrollListener(scrollListener);
+        cancelIdleBuild();
+        if (observedAdapter != null) {
+            observedAdapter.unregisterAdapterDataObserver(adapterObserver);
+            observedAdapter = null;
+        }
+        if (lifecycleOwner != null) {
+            lifecycleOwner.getLifecycle().removeObserver(lifecycleObserver);
+            lifecycleOwner = null;
+        }
+
+        if (sectionIndex != null) sectionIndex.release();
+        sectionIndex = null;
+        if (sectionPopup != null) sectionPopup.remove();
+        sectionPopup = null;
+        if (segments != null) segments.release();
+        segments = null;
+        if (markers != null) markers.release();
+        markers = null;
+        if (dragPrefetcher != null) dragPrefetcher.restorePool();
+        dragPrefetcher = null;
+        dataWindowListener = null;
+        feed = null;
+        nearEndListener = null;
+        dragStateListener = null;
+        if (metrics != null) metrics.release();
+        trace = null;
+
+        cancelPendingJump();
+        renderer.remove();
+        removeFab();
+
+        if (from(recyclerView) == this) recyclerView.setTag(R.id.fastscroller_instance, null);
+    }
+
+    public boolean isAttached() {
+        return !detached;
+    }
+
+    /**
+     * Stops timers and animations when {@code owner} stops (the bar shows again on the next scroll) and
+     * detaches when it is destroyed. For fragments pass getViewLifecycleOwner().
+     *
+     * @return this, for chaining after attach()
+     */
+    public FastScroller bindToLifecycle(LifecycleOwner owner) {
+        if (detached) return this;
+        if (lifecycleOwner != null) lifecycleOwner.getLifecycle().removeObserver(lifecycleObserver);
+        lifecycleOwner = owner;
+        if (owner == null) return this;
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+            detach();
+            return this;
+        }
+        owner.getLifecycle().addObserver(lifecycleObserver);
+        return this;
+    }
+
+    /** Ends a drag in progress and cancels every pending callback / animation; the bar is hidden. */
+    private void stopTimers() {
+        if (detached) return;
+        if (dragging) {
+            endDrag();
+            hideSectionPopup();
+            renderer.setActive(false);
+            if (swipeRefreshLayout != null) swipeRefreshLayout.setEnabled(true);
+        }
+        cancelSettle();
+        scheduler.cancel(hideTimer);
+        hideThumbImmediately();
+        settleThumb();
+        if (fabTop != null) fabTop.animate().cancel();
+        if (metrics != null) metrics.release();
+    }
+
+    private static void detachExisting(RecyclerView rv) {
+        FastScroller existing = from(rv);
+        if (existing != null) existing.detach();
+        // views / decorations left behind without a registered instance
+        removeExistingFastScroller(rv);
     }
 
     // -------------------- remove Existing Fast Scroller--------------------
     private static void removeExistingFastScroller(RecyclerView rv) {
+        // overlay mode leaves no views behind, only its decoration
+        for (int i = rv.getItemDecorationCount() - 1; i >= 0; i--) {
+            RecyclerView.ItemDecoration decoration = rv.getItemDecorationAt(i);
+            if (decoration instanceof OverlayScrollbarRenderer) {
+                ((OverlayScrollbarRenderer) decoration).remove();
+            }
+        }
+
         ViewGroup parent = (ViewGroup) rv.getParent();
         if (parent == null) return;
 
         for (int i = parent.getChildCount() - 1; i >= 0; i--) {
             View child = parent.getChildAt(i);
             Object tag = child.getTag();
-            if (TAG_TRACK.equals(tag) || TAG_THUMB.equals(tag) || TAG_TOUCH.equals(tag) || TAG_FAB.equals(tag)) {                parent.removeView(child);
+            if (TAG_TRACK.equals(tag) || TAG_THUMB.equals(tag) || TAG_TOUCH.equals(tag) || TAG_FAB.equals(tag) || TAG_POPUP.equals(tag)) {
+                parent.removeView(child);
             }
         }
     }
 
+    private void removeFab() {
+        if (fabTop == null) return;
+        fabTop.animate().cancel();
+        fabTop.setOnClickListener(null);
+        ViewGroup parent = (ViewGroup) fabTop.getParent();
+        if (parent != null) parent.removeView(fabTop);
+        fabTop = null;
+        fabVisible = false;
+    }
+
     // -------------------- Create FAB --------------------
     private void createFab(Context context) {
         ViewGroup container = (ViewGroup) recyclerView.getParent();
@@ -213,7 +604,7 @@ public class FastScroller {
         fabTop = cardView;
         fabTop.setVisibility(View.GONE);
         fabTop.setClickable(true);
-        fabTop.setTag(TAG_FAB); // <-- এই লাইনটি যোগ করুন
+        fabTop.setTag(TAG_FAB);
          fabTop.setFocusable(true);
         int size = dpToPx(context, fabSizeDp);
         int margin = getNavigationBarHeight(context);
@@ -233,7 +624,7 @@ public class FastScroller {
 
         container.addView(fabTop);
 
-        fabTop.setOnClickListener(v -> recyclerView.smoothScrollToPosition(0));
+        fabTop.setOnClickListener(v -> smoothJumpTo(0));
     }
 
     // -------------------- Setup color --------------------
@@ -285,244 +676,1040 @@ public class FastScroller {
         }
     }
 
-    // -------------------- View creation --------------------
-    private void createTrack(Context context) {
-        ViewGroup container = (ViewGroup) recyclerView.getParent();
-        track = new View(context);
-        track.setBackgroundColor(trackColor);
+    // -------------------- Helpers --------------------
+    static int dpToPx(Context ctx, int dp) {
+        return (int) (dp * ctx.getResources().getDisplayMetrics().density);
+    }
 
-        ViewGroup.LayoutParams lp = generateLayoutParams(container, allWidthDp, MATCH_PARENT, marginFromEndDp);
-        track.setLayoutParams(lp);
+    // -------------------- Scroll listener --------------------
+    private void setupScrollListener(Context context) {
+        scrollListener = new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                super.onScrolled(rv, dx, dy);
+                if (trace != null) recordScrolled(rv, dx, dy);
+                if (skipUnbuilt(dx, dy)) return;
+                long start = metrics != null ? System.nanoTime() : 0L;
+                handleScrolled(rv, context);
+                if (metrics != null) metrics.onScrolled(start);
+            }
+        };
+        recyclerView.addOnScrollListener(scrollListener);
+    }
 
-        container.addView(track);
-        fixLinearLayoutPosition(track);
+    private void handleScrolled(RecyclerView rv, Context context) {
+        syncObservedAdapter();
+        if (nearEndListener != null && !dragging) checkNearEnd(rows.firstPositionOfRow(Math.max(0, rows.firstVisibleRow())), 0f);
+        int visible = rows.visibleRowCount();
+        int total = rows.rowCount();
+        if (total == 0) return;
+
+        // ---------------- WIDTH LOGIC ----------------
+        if (visible < total) {
+            showThumb();
+
+            int baseWidth = dpToPx(context, allWidthDp);
+            int halfWidth = dpToPx(context, allWidthDp / 2);
+
+            // half width until visible x 4 is reached, full width after
+            int targetWidth = ScrollGeometry.barThickness(visible, total, halfWidth, baseWidth);
+
+            // thumb & track width (no-op when unchanged)
+            renderer.setBarThickness(targetWidth);
+        } else {
+            // no scrolling possible → hide
+            hideThumbImmediately();
+            return;
+        }
+
+        // ---------------- LENGTH + POSITION LOGIC (along the scroll axis) ----------------
+        int containerLength = containerLength();
+        int minThumbLengthPx = dpToPx(rv.getContext(), minimumThumbHeightDp);
+        if (markers != null) syncMarkerGeometry();
+        int first = rows.firstVisibleRow();
+        if (first == RecyclerView.NO_POSITION) return;
+
+        int targetLengthPx;
+        float targetPos;
+        ConcatSegments segmentTable = activeSegments();
+        if (segmentTable != null) {
+            // segment based: each sub-adapter gets its share of the travel, scrolling within an item moves the thumb
+            targetLengthPx = ScrollGeometry.thumbLength(visible, total, containerLength, minThumbLengthPx);
+            measureFirstRow(first);
+            double scrolled = firstRowLength > 0 ? (double) firstRowScrolled / firstRowLength : 0d;
+            double scrollRatio = segmentTable.ratioForPosition(first, scrolled, Math.max(0, total - visible));
+            targetPos = (float) (scrollRatio * (containerLength - targetLengthPx));
+        } else if (heightIndex != null && rows.isOneItemPerRow() && recordVisibleHeights()) {
+            // pixel based: real content length & offset from the height index
+            long contentLength = indexedContentLength();
+            targetLengthPx = ScrollGeometry.thumbLength(contentLength, containerLength, minThumbLengthPx);
+            float scrollRatio = ScrollGeometry.scrollRatio(indexedScrollOffset(), contentLength, containerLength);
+            targetPos = ScrollGeometry.thumbStart(scrollRatio, containerLength, targetLengthPx);
+        } else {
+            // row based: assumes all rows have the same size (infinite feeds: estimated, not loaded, rows);
+            // exact for any count, and scrolling within a row moves the thumb too
+            int geometryRows = feedRows(total);
+            targetLengthPx = ScrollGeometry.thumbLength(visible, geometryRows, containerLength, minThumbLengthPx);
+            measureFirstRow(first);
+            targetPos = (float) PositionMapper.rowThumbStart(first, firstRowScrolled, firstRowLength, geometryRows, visible,
+                    containerLength, containerLength - targetLengthPx);
+        }
+
+        // the only layout change: when the size the thumb settles at changes
+        renderer.setThumbLayoutLength(targetLengthPx);
+        lengthSpring.setTarget(targetLengthPx);
+        // while dragging, the finger owns the thumb position
+        if (!dragging) posSpring.setTarget(targetPos);
+
+        if (reveal == 0f) {
+            // nothing on screen yet (first show, or fully hidden): appear in place instead of gliding in
+            settleThumb();
+        } else {
+            postThumbFrame();
+        }
+
+        // Show FAB only if firstVisible > visibleCount
+        if (first > visible) {
+            showFab();
+        } else {
+            hideFab();
+        }
     }
 
-    private void createThumb(Context context) {
-        ViewGroup container = (ViewGroup) recyclerView.getParent();
+    // -------------------- Touch/drag on thumb --------------------
+    private boolean onDragTouch(MotionEvent event) {
+        if (trace != null) trace.touch(event.getEventTime(), event.getActionMasked(), dragSampler.raw(event));
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                touchDownPos = dragSampler.raw(event);
+                thumbDownPos = renderer.getThumbStart();
+                posSpring.snapTo(thumbDownPos);
+                startDrag();
+                dragSampler.add(event.getEventTime(), touchDownPos);
+                showThumb();
+                renderer.setActive(true);
+                computeDragTarget(thumbDownPos);
+                updateSectionPopup(thumbDownPos);
+                if (swipeRefreshLayout != null) swipeRefreshLayout.setEnabled(false);
+                return true;
+
+            case MotionEvent.ACTION_MOVE: {
+                dragSampler.addMotionEvent(event);
+
+                float delta = dragSampler.latestPosition() - touchDownPos;
+                float newPos = thumbDownPos + delta;
+
+                int containerLength = containerLength();
+                float thumbLength = renderer.getThumbLength();
+
+                if (newPos < 0) newPos = 0;
+                if (newPos > containerLength - thumbLength) newPos = containerLength - thumbLength;
+                if (snapToSegmentStarts) newPos = snapToSegmentStart(newPos, containerLength - thumbLength);
+
+                // thumb & touchArea follow the finger right away (transform / redraw only)
+                posSpring.snapTo(newPos);
+                renderer.setThumb(newPos, thumbLength);
+
+                // the list catches up on the next frame, with whatever the latest target is by then
+                computeDragTarget(newPos);
+                updateSectionPopup(newPos);
+                if (dragPrefetcher != null) predictDragLanding(newPos, containerLength - thumbLength);
+                if (nearEndListener != null) checkNearEnd(dragTargetPos, dragItemsPerSecond(containerLength - thumbLength));
+                if (dataWindowListener != null) armFingerRestTimer();
+                dragScrollPending = true;
+                postDragFrame();
+                return true;
+            }
+
+            case MotionEvent.ACTION_UP:
+                if (swipeRefreshLayout != null) swipeRefreshLayout.setEnabled(true);
+            case MotionEvent.ACTION_CANCEL:
+                endDrag();
+                hideSectionPopup();
+                renderer.setActive(false);
+                scheduleHide();
+                return true;
+        }
+        return false;
+    }
 
-        thumb = new View(context);
-        thumbDrawable = new GradientDrawable();
-        thumbDrawable.setColor(normalColor);
-        thumbDrawable.setCornerRadius(dpToPx(context, 50));
-        thumb.setBackground(thumbDrawable);
+    // -------------------- Frame-coalesced drag --------------------
+    private void startDrag() {
+        dragging = true;
+        cancelSettle();
+        cancelPendingJump();
+        snappedPosition = RecyclerView.NO_POSITION;
+        dragSampler.reset();
+        dragScrollPending = false;
+        lastDragTargetPos = RecyclerView.NO_POSITION;
+        lastDragTargetOffset = 0;
+        lastDragFrameNanos = 0L;
+        dragFramesToSkip = 0;
+
+        Display display = recyclerView.getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 60f;
+        if (refreshRate < 1f) refreshRate = 60f;
+        frameIntervalNanos = (long) (1_000_000_000L / refreshRate);
+        if (metrics != null) metrics.onDragStart(frameIntervalNanos);
+
+        requestedWindowStart = requestedWindowEnd = RecyclerView.NO_POSITION;
+        if (dataWindowListener != null) armFingerRestTimer();
+        if (dragPrefetcher != null) dragPrefetcher.start(frameIntervalNanos);
+        setDragState(DragStateListener.STATE_DRAGGING);
+    }
 
-        ViewGroup.LayoutParams lp = generateLayoutParams(container, allWidthDp, minimumThumbHeightDp, marginFromEndDp);
-        thumb.setLayoutParams(lp);
+    private void endDrag() {
+        if (!dragging) return;
+        dragging = false;
 
-        container.addView(thumb);
-        fixLinearLayoutPosition(thumb);
+        if (dragFramePosted) {
+            scheduler.removeFrame(dragFrame);
+            dragFramePosted = false;
+        }
+        // land exactly where the finger was released
+        if (dragScrollPending) applyDragScroll();
+        if (metrics != null) metrics.onDragEnd();
+
+        scheduler.cancel(fingerRestTimer);
+        if (dataWindowListener != null) requestDataWindow(dragTargetPos);
+        if (dragPrefetcher != null) dragPrefetcher.stop();
+
+        setDragState(DragStateListener.STATE_SETTLING);
+        settleFramePosted = true;
+        scheduler.postFrame(settleFrame);
     }
 
-    private void createTouchArea(Context context) {
-        ViewGroup container = (ViewGroup) recyclerView.getParent();
+    private void postDragFrame() {
+        if (dragFramePosted) return;
+        dragFramePosted = true;
+        scheduler.postFrame(dragFrame);
+    }
+
+    private void onDragFrame(long frameTimeNanos) {
+        dragFramePosted = false;
+        if (!dragging) return;
+        if (!dragScrollPending) {
+            // the frame after a scroll without new input: the finger rests, a gap from here on is no jank
+            lastDragFrameNanos = 0L;
+            return;
+        }
+
+        // a gap of more than ~1.5 frames since the last applied scroll means its layout/bind blew the budget:
+        // give the next frames to rendering and jump straight to the newest target afterwards
+        if (lastDragFrameNanos != 0L) {
+            long elapsed = frameTimeNanos - lastDragFrameNanos;
+            if (elapsed > frameIntervalNanos + frameIntervalNanos / 2) {
+                int missed = (int) (elapsed / frameIntervalNanos) - 1;
+                dragFramesToSkip = Math.min(missed, MAX_SKIPPED_DRAG_FRAMES);
+            }
+        }
+        lastDragFrameNanos = frameTimeNanos;
+        if (dataWindowListener != null) checkDataWindow();
+
+        if (dragFramesToSkip > 0) {
+            dragFramesToSkip--;
+            postDragFrame();
+            return;
+        }
+
+        applyDragScroll();
+        // one more frame, so the gap measured next is that of the scroll's layout and not of a paused finger
+        postDragFrame();
+    }
+
+    /** Maps a thumb start (top / left) to the item (+ intra-item offset) the list should show. */
+    private void computeDragTarget(float thumbStart) {
+        if (snappedPosition != RecyclerView.NO_POSITION) {
+            dragTargetPos = snappedPosition;
+            dragTargetOffset = 0;
+            return;
+        }
+        dragTargetPos = positionForThumb(thumbStart);
+        dragTargetOffset = mappedOffset;
+    }
+
+    /** Item for a thumb start; the intra-item offset is left in {@link #mappedOffset} (no allocation). */
+    private int positionForThumb(float thumbStart) {
+        int containerLength = containerLength();
+        float thumbLength = renderer.getThumbLength();
+
+        float travel = containerLength - thumbLength;
+
+        ConcatSegments segmentTable = activeSegments();
+        if (segmentTable != null) {
+            // the travel left inside the item becomes an offset into it, in first-row lengths like the row path
+            double ratio = travel > 0f ? Math.min(1d, Math.max(0d, thumbStart / (double) travel)) : 0d;
+            int pos = segmentTable.positionForRatio(ratio, Math.max(0, rows.rowCount() - rows.visibleRowCount()));
+            mappedOffset = (int) (segmentTable.fraction() * firstRowLength);
+            return pos;
+        }
+
+        if (heightIndex != null && rows.isOneItemPerRow() && heightIndex.size() > 0) {
+            // pixel based: land on the exact item + intra-item offset
+            long targetOffset = PositionMapper.offsetForThumb(thumbStart, travel, indexedContentLength(), containerLength);
+            int pos = heightIndex.positionAt(targetOffset);
+            mappedOffset = (int) (targetOffset - heightIndex.offsetOf(pos));
+            return pos;
+        }
 
-        touchArea = new View(context);
-        touchArea.setBackgroundColor(0x00000000); // invisible by default
-
-        // initial height same as minimum thumb height
-        ViewGroup.LayoutParams lp = generateLayoutParams(container, touchAreaWidthDp, minimumThumbHeightDp, 0);
-        touchArea.setLayoutParams(lp);
-
-        container.addView(touchArea);
-        fixLinearLayoutPosition(touchArea);
-    }
-
-    // -------------------- Layout params helper (multi-parent safe) --------------------
-
-    private ViewGroup.LayoutParams generateLayoutParams(View parent, int widthDp, int heightDp, int marginFromEndDp) {
-        int widthPx = (widthDp == MATCH_PARENT) ? MATCH_PARENT : dpToPx(parent.getContext(), widthDp);
-        int heightPx = (heightDp == MATCH_PARENT) ? MATCH_PARENT : dpToPx(parent.getContext(), heightDp);
-        int endMarginPx = dpToPx(parent.getContext(), marginFromEndDp);
-
-        if (parent instanceof FrameLayout) {
-            FrameLayout.LayoutParams fl = new FrameLayout.LayoutParams(widthPx, heightPx);
-            fl.gravity = Gravity.END;
-            fl.setMarginEnd(endMarginPx);
-            return fl;
-        } else if (parent instanceof RelativeLayout) {
-            RelativeLayout.LayoutParams rl = new RelativeLayout.LayoutParams(widthPx, heightPx);
-            rl.addRule(RelativeLayout.ALIGN_PARENT_END);
-            rl.setMarginEnd(endMarginPx);
-            return rl;
-        } else if (parent instanceof ConstraintLayout) {
-            ConstraintLayout.LayoutParams cl = new ConstraintLayout.LayoutParams(widthPx, heightPx);
-            cl.endToEnd = ConstraintLayout.LayoutParams.PARENT_ID;
-            cl.topToTop = ConstraintLayout.LayoutParams.PARENT_ID;
-            cl.bottomToBottom = ConstraintLayout.LayoutParams.PARENT_ID;
-            cl.setMarginEnd(endMarginPx);
-            return cl;
-        } else if (parent instanceof LinearLayout) {
-            LinearLayout.LayoutParams ll = new LinearLayout.LayoutParams(widthPx, heightPx);
-            // gravity on child in LinearLayout is relative to parent's orientation.
-            // We set margin end; final X-position will be corrected via translation for reliable right-alignment.
-            ll.setMarginEnd(endMarginPx);
-            return ll;
+        // row based: exact row + offset into it, so the content follows the finger; through the pixel range once
+        // a row length is known, so the end of the track is the end of the list
+        int visible = rows.visibleRowCount();
+        mapper.mapRows(thumbStart, travel, feedRows(rows.rowCount()), visible, firstRowLength, containerLength);
+        int targetRow = (int) mapper.row();
+        mappedOffset = mapper.offset();
+        // infinite feeds: the thumb may point past what is loaded, the list stops at its last screen
+        int lastLoadedRow = Math.max(0, rows.rowCount() - visible);
+        if (feed != null && targetRow >= lastLoadedRow) {
+            targetRow = lastLoadedRow;
+            mappedOffset = 0;
+        }
+        return rows.firstPositionOfRow(targetRow);
+    }
+
+    /** Length of the first visible row and how far it is scrolled out, into firstRowLength / firstRowScrolled. */
+    private void measureFirstRow(int firstRow) {
+        View child = layoutManager.findViewByPosition(rows.firstPositionOfRow(firstRow));
+        if (child == null) {
+            firstRowLength = 0;
+            firstRowScrolled = 0;
+            return;
+        }
+        if (horizontal) {
+            firstRowLength = layoutManager.getDecoratedMeasuredWidth(child);
+            firstRowScrolled = layoutManager.getPaddingLeft() - layoutManager.getDecoratedLeft(child);
+        } else {
+            firstRowLength = layoutManager.getDecoratedMeasuredHeight(child);
+            firstRowScrolled = layoutManager.getPaddingTop() - layoutManager.getDecoratedTop(child);
+        }
+    }
+
+    private void applyDragScroll() {
+        dragScrollPending = false;
+
+        // same target as last frame -> nothing to lay out
+        if (dragTargetPos == lastDragTargetPos && dragTargetOffset == lastDragTargetOffset) return;
+        lastDragTargetPos = dragTargetPos;
+        lastDragTargetOffset = dragTargetOffset;
+
+        rows.scrollToPositionWithOffset(dragTargetPos, -dragTargetOffset);
+        if (metrics != null) metrics.onLayoutRequest();
+    }
+
+    // -------------------- Drag state --------------------
+
+    /**
+     * Reports IDLE / DRAGGING / SETTLING of thumb drags, see {@link DragStateListener}.
+     *
+     * @param listener null to remove
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setDragStateListener(DragStateListener listener) {
+        dragStateListener = listener;
+        return this;
+    }
+
+    /**
+     * When a drag ends, re-notifies the visible items once the list is laid out at its final position
+     * (notifyItemRangeChanged with {@link #PAYLOAD_DRAG_SETTLED}), so an adapter that bound placeholders while
+     * {@link #isDragging()} does its full bind once, for what is on screen only. Off by default.
+     *
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setRebindOnSettle(boolean enabled) {
+        rebindOnSettle = enabled;
+        return this;
+    }
+
+    /** True while the thumb is held; a field read, cheap enough for onBindViewHolder. */
+    public boolean isDragging() {
+        return dragging;
+    }
+
+    /** One of the {@link DragStateListener} states. */
+    public int getDragState() {
+        return dragState;
+    }
+
+    /** List speed caused by the current drag in items per second (towards the end is positive), 0 when not dragging. */
+    public float getDragVelocity() {
+        if (!dragging) return 0f;
+        return dragItemsPerSecond(containerLength() - renderer.getThumbLength());
+    }
+
+    private void setDragState(int state) {
+        if (dragState == state) return;
+        dragState = state;
+        // the landing screen is laid out: the pool goes back to its own size
+        if (state == DragStateListener.STATE_IDLE && dragPrefetcher != null) dragPrefetcher.restorePool();
+        if (dragStateListener != null) dragStateListener.onDragStateChanged(state, getDragVelocity());
+    }
+
+    // the release scroll is laid out on the next traversal; wait for it, then rebind what is on screen
+    private void onSettleFrame(long frameTimeNanos) {
+        settleFramePosted = false;
+        if (detached || dragState != DragStateListener.STATE_SETTLING) return;
+        if (recyclerView.isLayoutRequested()) {
+            settleFramePosted = true;
+            scheduler.postFrame(settleFrame);
+            return;
+        }
+        if (rebindOnSettle) rebindVisibleItems();
+        setDragState(DragStateListener.STATE_IDLE);
+    }
+
+    private void cancelSettle() {
+        if (settleFramePosted) {
+            settleFramePosted = false;
+            scheduler.removeFrame(settleFrame);
+        }
+        if (dragState == DragStateListener.STATE_SETTLING) setDragState(DragStateListener.STATE_IDLE);
+    }
+
+    private void rebindVisibleItems() {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (adapter == null) return;
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            int position = recyclerView.getChildAdapterPosition(recyclerView.getChildAt(i));
+            if (position == RecyclerView.NO_POSITION) continue;
+            first = Math.min(first, position);
+            last = Math.max(last, position);
+        }
+        if (last >= first) adapter.notifyItemRangeChanged(first, last - first + 1, PAYLOAD_DRAG_SETTLED);
+    }
+
+    // -------------------- Variable item heights --------------------
+
+    /**
+     * Enables a height index for lists whose rows have different heights (e.g. 48dp .. 600dp).
+     * Heights are recorded as rows are laid out (unmeasured rows use the running average) and kept in
+     * prefix sums that follow adapter range events, so thumb size, thumb position and drag target
+     * reflect real pixel offsets with O(log n) lookups, even for a million rows.
+     * <p>
+     * Costs one int per item. Leave it off for fixed-height rows, the index-based math is exact there.
+     * Only used with LinearLayoutManager; grids keep row-based geometry. Lists with more than
+     * {@link ItemHeightIndex#MAX_ITEMS} items are not indexed either: they keep row-based geometry until the
+     * count drops back within the limit.
+     *
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setHeightIndexEnabled(boolean enabled) {
+        if (enabled == (heightIndex != null)) return this;
+
+        if (enabled) {
+            heightIndex = new ItemHeightIndex(dpToPx(recyclerView.getContext(), 48));
+            heightIndex.reset(layoutManager.getItemCount());
         } else {
-            ViewGroup.MarginLayoutParams mlp = new ViewGroup.MarginLayoutParams(widthPx, heightPx);
-            mlp.setMarginEnd(endMarginPx);
-            return mlp;
+            heightIndex = null;
+        }
+        syncObservedAdapter();
+        return this;
+    }
+
+    /**
+     * Feeds the heights (widths for horizontal lists) of the laid-out rows into the index (no-op for unchanged
+     * rows) and remembers the topmost / leftmost row. Only walks the attached children, never the whole list.
+     *
+     * @return false if nothing is laid out yet
+     */
+    private boolean recordVisibleHeights() {
+        int itemCount = layoutManager.getItemCount();
+        if (heightIndex.isOverCapacity()) {
+            // too many items to index: row geometry until the count is back within the limit
+            if (itemCount > ItemHeightIndex.MAX_ITEMS) return false;
+            heightIndex.reset(itemCount);
+        } else if (heightIndex.size() != itemCount) {
+            // adapter changed without notifying (or notified before we registered): start over
+            heightIndex.reset(itemCount);
         }
+
+        int childCount = layoutManager.getChildCount();
+        if (childCount == 0 || heightIndex.size() == 0) return false;
+
+        int topPos = RecyclerView.NO_POSITION;
+        int topEdge = Integer.MAX_VALUE;
+        for (int i = 0; i < childCount; i++) {
+            View child = layoutManager.getChildAt(i);
+            if (child == null) continue;
+            int pos = layoutManager.getPosition(child);
+            if (pos == RecyclerView.NO_POSITION) continue;
+
+            RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+            int top;
+            int bottom;
+            if (horizontal) {
+                top = layoutManager.getDecoratedLeft(child) - lp.leftMargin;
+                bottom = layoutManager.getDecoratedRight(child) + lp.rightMargin;
+            } else {
+                top = layoutManager.getDecoratedTop(child) - lp.topMargin;
+                bottom = layoutManager.getDecoratedBottom(child) + lp.bottomMargin;
+            }
+            heightIndex.setMeasured(pos, bottom - top);
+
+            if (top < topEdge) {
+                topEdge = top;
+                topPos = pos;
+            }
+        }
+        if (topPos == RecyclerView.NO_POSITION) return false;
+
+        indexFirstPos = topPos;
+        indexFirstTop = topEdge;
+        return true;
+    }
+
+    private long indexedContentLength() {
+        if (horizontal) return heightIndex.totalHeight() + recyclerView.getPaddingLeft() + recyclerView.getPaddingRight();
+        return heightIndex.totalHeight() + recyclerView.getPaddingTop() + recyclerView.getPaddingBottom();
+    }
+
+    // pixels scrolled past the start of the content (content shown at the top / left padding edge)
+    private long indexedScrollOffset() {
+        int startPadding = horizontal ? recyclerView.getPaddingLeft() : recyclerView.getPaddingTop();
+        return heightIndex.offsetOf(indexFirstPos) + startPadding - indexFirstTop;
+    }
+
+    /** RecyclerView size along the scroll axis. */
+    private int containerLength() {
+        return horizontal ? recyclerView.getWidth() : recyclerView.getHeight();
     }
 
+    // -------------------- Sections / popup --------------------
+
     /**
-     * LinearLayout children cannot be simply right-aligned with gravity unless the LinearLayout is horizontal/uses gravity.
-     * To guarantee right-edge placement in any LinearLayout parent, we translate the child to the parent's end.
+     * Shows a popup label (letter, date, ...) next to the thumb while dragging.
+     * Sections are computed in the background and cached; dragging only does a binary search.
+     *
+     * @param provider section ids & labels, null to remove the popup
+     * @return this, for chaining after attach()
      */
-    private void fixLinearLayoutPosition(final View child) {
-        ViewGroup parent = (ViewGroup) recyclerView.getParent();
-        if (!(parent instanceof LinearLayout)) return;
-
-        // Post to ensure parent width is available after layout
-        parent.post(() -> {
-            int parentWidth = parent.getWidth();
-            if (parentWidth == 0) return;
-
-            int endMarginPx = dpToPx(parent.getContext(), marginFromEndDp);
-            int childWidth = child.getLayoutParams().width;
-            if (childWidth == MATCH_PARENT) {
-                // nothing to do
-                return;
+    public FastScroller setSectionProvider(SectionProvider provider) {
+        if (sectionIndex != null) sectionIndex.release();
+        sectionIndex = null;
+        popupSection = -1;
+        if (sectionPopup != null) sectionPopup.clearLabels();
+
+        if (provider != null) {
+            sectionIndex = new SectionIndex(provider, null);
+            sectionIndex.rebuild(layoutManager.getItemCount());
+        } else if (sectionPopup != null) {
+            sectionPopup.remove();
+            sectionPopup = null;
+        }
+        syncObservedAdapter();
+        return this;
+    }
+
+    private void updateSectionPopup(float thumbStart) {
+        if (sectionIndex == null) return;
+
+        int section = sectionIndex.sectionAt(dragTargetPos);
+        if (section < 0) return;
+
+        if (sectionPopup == null) {
+            sectionPopup = new SectionPopup(recyclerView, marginFromEndDp + allWidthDp, normalColor, horizontal);
+            sectionPopup.setMetrics(metrics);
+        }
+        if (section != popupSection) {
+            popupSection = section;
+            SectionProvider provider = sectionIndex.getProvider();
+            sectionPopup.setSection(sectionIndex.sectionId(section), provider);
+            // the next labels a fast drag will hit are built in the background meanwhile
+            int last = sectionIndex.count() - 1;
+            for (int d = 1; d <= POPUP_PREWARM_SECTIONS; d++) {
+                if (section + d <= last) sectionPopup.prewarm(sectionIndex.sectionId(section + d), provider);
+                if (section - d >= 0) sectionPopup.prewarm(sectionIndex.sectionId(section - d), provider);
             }
+        }
+        sectionPopup.show(thumbStart + renderer.getThumbLength() / 2f, containerLength());
+    }
 
-            float targetX = parentWidth - endMarginPx - childWidth;
-            if (targetX < 0) targetX = 0;
-            child.setTranslationX(targetX);
-        });
+    private void hideSectionPopup() {
+        if (sectionPopup != null) sectionPopup.hide();
     }
 
-    // -------------------- Helpers --------------------
-    private int dpToPx(Context ctx, int dp) {
-        return (int) (dp * ctx.getResources().getDisplayMetrics().density);
+    // -------------------- Track markers --------------------
+
+    /**
+     * Marks adapter positions on the track (search hits, unread items, errors), like the ticks of an IDE scrollbar.
+     * Markers are binned into track pixels on a background thread and drawn from a cached bitmap; a change only
+     * recomputes the bins it touches. Positions are not shifted by adapter inserts / removals: set them again.
+     *
+     * @param positions adapter positions, any order; null or empty removes all markers
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setMarkers(int[] positions) {
+        if (detached) return this;
+        if (positions == null || positions.length == 0) return clearMarkers();
+        ensureMarkers().set(positions, positions.length);
+        return this;
     }
 
-    // -------------------- Scroll listener --------------------
-    private void setupScrollListener(Context context) {
-        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
-            @Override
-            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
-                super.onScrolled(rv, dx, dy);
+    /** Adds markers; positions already marked are ignored. @return this, for chaining after attach() */
+    public FastScroller addMarkers(int... positions) {
+        if (!detached && positions.length > 0) ensureMarkers().add(positions, positions.length);
+        return this;
+    }
 
-                showThumb();
+    /** Removes markers; positions that are not marked are ignored. @return this, for chaining after attach() */
+    public FastScroller removeMarkers(int... positions) {
+        if (markers != null && positions.length > 0) markers.remove(positions, positions.length);
+        return this;
+    }
+
+    /** @return this, for chaining after attach() */
+    public FastScroller clearMarkers() {
+        if (markers != null) markers.clear();
+        return this;
+    }
+
+    /** @return this, for chaining after attach() */
+    public FastScroller setMarkerColor(int color) {
+        markerColor = color;
+        if (markers != null) markers.setColor(color);
+        return this;
+    }
+
+    private MarkerLayer ensureMarkers() {
+        if (markers == null) {
+            markers = new MarkerLayer(markerColor, dpToPx(recyclerView.getContext(), MARKER_TICK_DP), horizontal);
+            syncMarkerGeometry();
+            renderer.setMarkers(markers);
+        }
+        return markers;
+    }
+
+    // cheap when nothing changed; runs on every scroll event
+    private void syncMarkerGeometry() {
+        int length = containerLength();
+        if (markers != null && length > 0) markers.setGeometry(length, layoutManager.getItemCount());
+    }
+
+    // -------------------- ConcatAdapter segments --------------------
+
+    /**
+     * Treats the sub-adapters of a ConcatAdapter as segments: thumb travel is split between them by the
+     * {@link SegmentWeigher} (item count by default) and {@link #setSnapToSegmentStarts} lets the thumb lock
+     * onto their starts. Sub-adapter boundaries are cached and updated from their change notifications, so
+     * scrolling and dragging only do binary searches. No effect on other adapters or on grids.
+     *
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setConcatSegmentsEnabled(boolean enabled) {
+        concatSegmentsEnabled = enabled;
+        syncObservedAdapter();
+        return this;
+    }
+
+    /**
+     * @param weigher share of the thumb travel per sub-adapter, null -> {@link SegmentWeigher#ITEM_COUNT}
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setSegmentWeigher(SegmentWeigher weigher) {
+        segmentWeigher = weigher;
+        if (segments != null) segments.setWeigher(weigher);
+        return this;
+    }
+
+    /**
+     * While dragging, the thumb locks onto a sub-adapter's start when it comes within 16dp of it, and the list
+     * lands exactly on that sub-adapter's first item.
+     *
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setSnapToSegmentStarts(boolean snap) {
+        snapToSegmentStarts = snap;
+        return this;
+    }
 
-                int visible = layoutManager.getChildCount();
-                int total = layoutManager.getItemCount();
-                if (total == 0) return;
-
-                // ---------------- WIDTH LOGIC ----------------
-                if (visible < total) {
-
-                    int baseWidth = dpToPx(context, allWidthDp);
-                    int halfWidth = dpToPx(context, allWidthDp / 2);
-
-                    int targetWidth;
-                    if (visible * 4 > total) {
-                        targetWidth = halfWidth;   // half width until visible x 4 is reached
-                    } else {
-                        targetWidth = baseWidth;   // full width
-                    }
-
-                    // thumb width
-                    ViewGroup.LayoutParams tLp = thumb.getLayoutParams();
-                    tLp.width = targetWidth;
-                    thumb.setLayoutParams(tLp);
-
-                    // track width
-                    ViewGroup.LayoutParams trLp = track.getLayoutParams();
-                    trLp.width = targetWidth;
-                    track.setLayoutParams(trLp);
-                } else {
-                    // no scrolling possible → hide
-                    track.setAlpha(0f);
-                    thumb.setAlpha(0f);
-                    touchArea.setAlpha(0f);
-                    return;
-                }
-
-                // ---------------- HEIGHT + POSITION LOGIC (unchanged) ----------------
-                int containerHeight = rv.getHeight();
-                int targetHeightPx = Math.max(dpToPx(rv.getContext(), minimumThumbHeightDp), (int) ((float) visible / total * containerHeight));
-
-                int first = layoutManager.findFirstVisibleItemPosition();
-                float scrollRatio = (float) first / (total - visible);
-                float targetY = scrollRatio * (containerHeight - targetHeightPx);
-
-                lastY += (targetY - lastY) * smoothFactor;
-                lastHeight += (targetHeightPx - lastHeight) * heightSmoothFactor;
-
-                // apply
-                ViewGroup.LayoutParams lpThumb = thumb.getLayoutParams();
-                lpThumb.height = (int) lastHeight;
-                thumb.setLayoutParams(lpThumb);
-                thumb.setY(lastY);
-
-                // touchArea
-                ViewGroup.LayoutParams lpTouch = touchArea.getLayoutParams();
-                lpTouch.height = (int) lastHeight + (int) extraTouchAreaHeight;
-                touchArea.setLayoutParams(lpTouch);
-                touchArea.setY(lastY - (extraTouchAreaHeight / 2));
-
-                int firstVisible = layoutManager.findFirstVisibleItemPosition();
-                int visibleCount = layoutManager.getChildCount();
-
-                // Show FAB only if firstVisible > visibleCount
-                if (firstVisible > visibleCount) {
-                    showFab();
-                } else {
-                    hideFab();
-                }
+    /**
+     * Scrolls to the first item of {@code subAdapter} (one of the ConcatAdapter's adapters).
+     *
+     * @return false if segments are off or the sub-adapter is not part of the list / empty
+     */
+    public boolean scrollToSegment(RecyclerView.Adapter<?> subAdapter) {
+        ConcatSegments segmentTable = activeSegments();
+        int start = segmentTable != null ? segmentTable.startOf(subAdapter) : RecyclerView.NO_POSITION;
+        if (start == RecyclerView.NO_POSITION) return false;
+        rows.scrollToPositionWithOffset(start, 0);
+        return true;
+    }
+
+    /** Segment table ready for lookups, null when the flat mapping applies. */
+    private ConcatSegments activeSegments() {
+        if (segments == null || !rows.isOneItemPerRow()) return null;
+        segments.ensure();
+        return segments;
+    }
+
+    // locks the thumb onto the start of the current or next segment when it is close enough
+    private float snapToSegmentStart(float thumbStart, float travelPx) {
+        snappedPosition = RecyclerView.NO_POSITION;
+        ConcatSegments segmentTable = activeSegments();
+        if (segmentTable == null || segmentTable.segmentCount() < 2 || travelPx <= 0f) return thumbStart;
+
+        int lastFirst = Math.max(0, rows.rowCount() - rows.visibleRowCount());
+        int current = segmentTable.segmentOf(segmentTable.positionForRatio(thumbStart / (double) travelPx, lastFirst));
+        float snapPx = dpToPx(recyclerView.getContext(), SEGMENT_SNAP_DP);
+        for (int s = Math.max(1, current); s <= current + 1 && s < segmentTable.segmentCount(); s++) {
+            float start = (float) (segmentTable.segmentStartRatio(s, lastFirst) * travelPx);
+            if (Math.abs(start - thumbStart) <= snapPx) {
+                snappedPosition = segmentTable.segmentStart(s);
+                return start;
             }
+        }
+        return thumbStart;
+    }
+
+    // -------------------- Long-distance scroll --------------------
 
-        });
-    }
-
-    // -------------------- Touch/drag on touchArea --------------------
-    private void setupTouchAreaDrag(SwipeRefreshLayout swipeRefreshLayout) {
-        touchArea.setOnTouchListener((v, event) -> {
-            switch (event.getActionMasked()) {
-                case MotionEvent.ACTION_DOWN:
-                    touchDownY = event.getRawY();
-                    thumbDownY = thumb.getY();
-                    showThumb();
-                    if (thumbDrawable != null) thumbDrawable.setColor(activeColor);
-                    if (swipeRefreshLayout != null) swipeRefreshLayout.setEnabled(false);
-                    return true;
-
-                case MotionEvent.ACTION_MOVE: {
-                    float dy = event.getRawY() - touchDownY;
-                    float newY = thumbDownY + dy;
-
-                    int containerHeight = recyclerView.getHeight();
-                    int thumbHeight = thumb.getHeight();
-
-                    if (newY < 0) newY = 0;
-                    if (newY > containerHeight - thumbHeight) newY = containerHeight - thumbHeight;
-
-
-                    // compute target position and scroll recycler
-                    int total = layoutManager.getItemCount();
-                    int visible = layoutManager.getChildCount();
-                    float scrollRatio = newY / (containerHeight - thumbHeight);
-                    int targetPos = (int) (scrollRatio * (total - visible));
-                    if (targetPos < 0) targetPos = 0;
-
-                    layoutManager.scrollToPositionWithOffset(targetPos, 0);
-
-                    // update thumb & touchArea
-                    thumb.setY(newY);
-                    touchArea.setY(newY - (extraTouchAreaHeight / 2));
-                    return true;
-                }
-
-                case MotionEvent.ACTION_UP:
-                    if (swipeRefreshLayout != null) swipeRefreshLayout.setEnabled(true);
-                case MotionEvent.ACTION_CANCEL:
-                    if (thumbDrawable != null) thumbDrawable.setColor(normalColor);
-                    scheduleHide();
-                    return true;
+    /**
+     * Scrolls to {@code position} in bounded time. smoothScrollToPosition animates through (and binds) every item
+     * in between; this jumps to one screen before the target and smooth-scrolls only that last screen, with a
+     * capped duration. Time and work are the same for 10 or 10 million items of distance. Used by the
+     * back-to-top button.
+     */
+    public void smoothJumpTo(int position) {
+        int count = rows.itemCount();
+        if (count == 0) return;
+        position = Math.max(0, Math.min(position, count - 1));
+        cancelPendingJump();
+        recyclerView.stopScroll();
+
+        int firstRow = rows.firstVisibleRow();
+        int screen = Math.max(1, rows.visibleRowCount()) * JUMP_SCREENS;
+        int targetRow = rows.rowOf(position);
+        if (firstRow == RecyclerView.NO_POSITION || Math.abs(targetRow - firstRow) <= screen) {
+            startBoundedSmoothScroll(position);
+            return;
+        }
+
+        // land one screen short of the target, on the side we come from
+        int startRow = targetRow > firstRow ? targetRow - screen : targetRow + screen;
+        rows.scrollToPositionWithOffset(rows.firstPositionOfRow(startRow), 0);
+        if (metrics != null) metrics.onLayoutRequest();
+        // the smooth scroller needs the new children to find its target: start it after that layout
+        pendingSmoothTarget = position;
+        recyclerView.addOnLayoutChangeListener(jumpLayoutListener);
+    }
+
+    private void onJumpLaidOut() {
+        int target = pendingSmoothTarget;
+        cancelPendingJump();
+        if (target != RecyclerView.NO_POSITION && target < rows.itemCount()) startBoundedSmoothScroll(target);
+    }
+
+    private void cancelPendingJump() {
+        if (pendingSmoothTarget == RecyclerView.NO_POSITION) return;
+        pendingSmoothTarget = RecyclerView.NO_POSITION;
+        recyclerView.removeOnLayoutChangeListener(jumpLayoutListener);
+    }
+
+    private void startBoundedSmoothScroll(int position) {
+        layoutManager.startSmoothScroll(new BoundedSmoothScroller(recyclerView.getContext(), position));
+    }
+
+    // -------------------- Drag prefetch --------------------
+
+    /**
+     * Prepares ViewHolders for where a thumb drag is heading. The landing position is extrapolated from the
+     * finger velocity; holders for the view types found there are created into the RecycledViewPool while
+     * the main thread is idle (a few ms per idle slot). The jump then takes holders from the pool instead of
+     * inflating a whole screen inside one frame.
+     * <p>
+     * Raises the pool capacity of those view types to the size of a screen. Off by default because it calls
+     * the adapter's onCreateViewHolder ahead of time.
+     *
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setDragPrefetchEnabled(boolean enabled) {
+        if (enabled == (dragPrefetcher != null)) return this;
+        if (enabled) {
+            dragPrefetcher = new DragPrefetcher(recyclerView);
+            if (dragging) dragPrefetcher.start(frameIntervalNanos);
+        } else {
+            dragPrefetcher.stop();
+            dragPrefetcher.restorePool();
+            dragPrefetcher = null;
+        }
+        return this;
+    }
+
+    private void predictDragLanding(float thumbStart, float maxThumbStart) {
+        float velocity = dragSampler.velocity(dragSampler.latestTime(), VELOCITY_WINDOW_MS);
+        float predicted = thumbStart + velocity * PREFETCH_LOOKAHEAD_MS / 1000f;
+        if (predicted < 0) predicted = 0;
+        if (predicted > maxThumbStart) predicted = maxThumbStart;
+        // +1: a partially scrolled first item shows one more item at the end
+        dragPrefetcher.setLandingRange(positionForThumb(predicted), layoutManager.getChildCount() + 1);
+    }
+
+    // -------------------- Infinite feed --------------------
+
+    /**
+     * Endless feeds whose item count grows as pages are appended. The thumb is laid out for an estimated total
+     * (see {@link #setEstimatedItemCount}) that never shrinks while the feed grows, so appends move it a little
+     * instead of making it jump back up, and dragging past the loaded end holds the list on its last screen.
+     * {@code listener} is asked for the next page ahead of time, earlier for faster drags.
+     * Uses row based geometry (not the height index or segments).
+     *
+     * @param listener null to turn the mode off
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setInfiniteFeed(NearEndListener listener) {
+        nearEndListener = listener;
+        if (listener == null) {
+            feed = null;
+        } else if (feed == null) {
+            feed = new FeedEstimate();
+            feed.onItemCount(SystemClock.uptimeMillis(), layoutManager.getItemCount());
+        }
+        nearEndFiredAt = -1;
+        syncObservedAdapter();
+        return this;
+    }
+
+    /**
+     * Known or guessed final item count of an infinite feed; 0 (default) extrapolates one from the page sizes
+     * loaded so far. Has no effect unless {@link #setInfiniteFeed} is on.
+     *
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setEstimatedItemCount(long total) {
+        if (feed != null) feed.setExplicitTotal(total);
+        return this;
+    }
+
+    /** Rows the thumb is laid out for: {@code loadedRows}, or the estimate of an infinite feed. */
+    private int feedRows(int loadedRows) {
+        if (feed == null) return loadedRows;
+        int items = layoutManager.getItemCount();
+        if (items == 0) return loadedRows;
+        long rowsEstimate = feed.estimatedTotal() * loadedRows / items;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(loadedRows, rowsEstimate));
+    }
+
+    // thumb velocity of the drag converted to items per second (towards the end is positive)
+    private float dragItemsPerSecond(float maxThumbStart) {
+        if (maxThumbStart <= 0) return 0f;
+        float thumbVelocity = dragSampler.velocity(dragSampler.latestTime(), VELOCITY_WINDOW_MS);
+        int rowCount = rows.rowCount();
+        float itemsPerRow = rowCount > 0 ? (float) layoutManager.getItemCount() / rowCount : 1f;
+        int travelRows = Math.max(0, feedRows(rowCount) - rows.visibleRowCount());
+        return thumbVelocity / maxThumbStart * travelRows * itemsPerRow;
+    }
+
+    private void checkNearEnd(int position, float itemsPerSecond) {
+        int count = layoutManager.getItemCount();
+        if (count == nearEndFiredAt || position < 0) return;
+        int visibleItems = Math.max(1, layoutManager.getChildCount());
+        if (!feed.isNearEnd(position, itemsPerSecond, visibleItems)) return;
+        nearEndFiredAt = count;
+        feed.onNearEndRequested(SystemClock.uptimeMillis());
+        nearEndListener.onNearEnd(count);
+    }
+
+    private void onFeedCountChanged() {
+        if (feed != null && observedAdapter != null) feed.onItemCount(SystemClock.uptimeMillis(), observedAdapter.getItemCount());
+    }
+
+    // -------------------- Data window (paged adapters) --------------------
+
+    /**
+     * Reports the projected landing range of a thumb drag, see {@link DataWindowListener}.
+     *
+     * @param listener null to remove
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setDataWindowListener(DataWindowListener listener) {
+        dataWindowListener = listener;
+        if (listener != null && dragging) armFingerRestTimer();
+        return this;
+    }
+
+    // a finger that stops moving sends no more events: the timer checks once the velocity window has emptied.
+    // Pushed out on every move, which is a field write as long as it only moves later
+    private void armFingerRestTimer() {
+        scheduler.schedule(fingerRestTimer, SystemClock.uptimeMillis() + VELOCITY_WINDOW_MS);
+    }
+
+    // on drag frames and when the finger rests: a slow or resting finger means the drag is settling on the current target
+    private void checkDataWindow() {
+        if (!dragging || dataWindowListener == null) return;
+
+        float velocity = dragSampler.velocity(SystemClock.uptimeMillis(), VELOCITY_WINDOW_MS);
+        float slow = SLOW_DRAG_DP_PER_SECOND * recyclerView.getResources().getDisplayMetrics().density;
+        if (Math.abs(velocity) < slow) requestDataWindow(dragTargetPos);
+    }
+
+    /** Requests the landing screen around {@code position} plus one screen either side, unless already covered. */
+    private void requestDataWindow(int position) {
+        int total = layoutManager.getItemCount();
+        if (total == 0) return;
+
+        int visibleItems = Math.max(1, layoutManager.getChildCount());
+        int start = Math.max(0, position - visibleItems);
+        int end = (int) Math.min(total, (long) position + 2L * visibleItems);
+
+        // the landing screen is still inside what was asked for
+        int landingEnd = Math.min(total, position + visibleItems);
+        if (requestedWindowStart != RecyclerView.NO_POSITION && position >= requestedWindowStart && landingEnd <= requestedWindowEnd) {
+            return;
+        }
+
+        if (requestedWindowStart != RecyclerView.NO_POSITION) {
+            dataWindowListener.onDataWindowCancelled(requestedWindowStart, requestedWindowEnd);
+        }
+        requestedWindowStart = start;
+        requestedWindowEnd = end;
+        dataWindowListener.onDataWindowRequested(start, end);
+    }
+
+    // -------------------- Metrics --------------------
+
+    /**
+     * Records what the scroller costs at runtime, see {@link ScrollMetrics}. Disabled by default; while
+     * disabled nothing is recorded and nothing is allocated (the hot paths only check for null).
+     *
+     * @return this, for chaining after attach()
+     */
+    public FastScroller setMetricsEnabled(boolean enabled) {
+        if (enabled == (metrics != null)) return this;
+        if (enabled) {
+            metrics = new MetricsRecorder(recyclerView);
+        } else {
+            metrics.release();
+            metrics = null;
+        }
+        renderer.setMetrics(metrics);
+        if (sectionPopup != null) sectionPopup.setMetrics(metrics);
+        return this;
+    }
+
+    /** Counters since metrics were enabled or last reset, null while disabled. */
+    public ScrollMetrics getMetrics() {
+        return metrics != null ? metrics.snapshot() : null;
+    }
+
+    public void resetMetrics() {
+        if (metrics != null) metrics.reset();
+    }
+
+    // -------------------- Trace recording --------------------
+
+    /**
+     * Starts recording scroll and thumb drag input into a compact binary trace (a few bytes per event),
+     * replacing any trace in progress. Replay it on a plain JVM with
+     * {@link com.jakir.fastscroller.core.TraceReplayer} to compare thumb math or drag coalescing changes
+     * against a real session.
+     *
+     * @return this, for chaining after attach()
+     */
+    public FastScroller startTraceRecording() {
+        trace = new TraceWriter();
+        return this;
+    }
+
+    /** Stops recording and returns the trace, null if no recording was running. */
+    public byte[] stopTraceRecording() {
+        if (trace == null) return null;
+        byte[] result = trace.toByteArray();
+        trace = null;
+        return result;
+    }
+
+    // inputs only (what handleScrolled reads), so replay does not depend on this class's output
+    private void recordScrolled(RecyclerView rv, int dx, int dy) {
+        trace.container(containerLength(), dpToPx(rv.getContext(), minimumThumbHeightDp));
+        int first = rows.firstVisibleRow();
+        if (first != RecyclerView.NO_POSITION) measureFirstRow(first);
+        trace.scrolled(SystemClock.uptimeMillis(), dx, dy, first, rows.visibleRowCount(),
+                rows.rowCount(), rows.itemCount(), firstRowLength, firstRowScrolled);
+    }
+
+    // -------------------- Adapter observer --------------------
+
+    /** (Re)registers the shared observer on the current adapter when an index needs it. */
+    private void syncObservedAdapter() {
+        boolean needed = heightIndex != null || sectionIndex != null || rows.needsAdapterEvents() || concatSegmentsEnabled
+                || feed != null;
+        RecyclerView.Adapter<?> adapter = needed ? recyclerView.getAdapter() : null;
+        if (adapter != observedAdapter) {
+            if (observedAdapter != null) observedAdapter.unregisterAdapterDataObserver(adapterObserver);
+            observedAdapter = adapter;
+            if (adapter != null) {
+                adapter.registerAdapterDataObserver(adapterObserver);
+                adapterObserver.onChanged();
             }
-            return false;
-        });
+        }
+        syncSegments();
+    }
+
+    /** Binds the segment table to the observed adapter when it is a ConcatAdapter and segments are on. */
+    private void syncSegments() {
+        ConcatAdapter concat = concatSegmentsEnabled && observedAdapter instanceof ConcatAdapter ? (ConcatAdapter) observedAdapter : null;
+        if (segments != null && segments.getAdapter() == concat) return;
+
+        if (segments != null) segments.release();
+        segments = concat != null ? new ConcatSegments(concat) : null;
+        if (segments != null) segments.setWeigher(segmentWeigher);
+    }
+
+    private class AdapterChangeObserver extends RecyclerView.AdapterDataObserver {
+        @Override
+        public void onChanged() {
+            int count = observedAdapter != null ? observedAdapter.getItemCount() : 0;
+            rows.invalidate();
+            if (segments != null) segments.onConcatChanged();
+            if (heightIndex != null) heightIndex.reset(count);
+            if (sectionIndex != null) sectionIndex.rebuild(count);
+            if (sectionPopup != null) sectionPopup.clearLabels();
+            popupSection = -1;
+            onFeedCountChanged();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            rows.invalidate();
+            if (sectionIndex != null) sectionIndex.onItemRangeChanged(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            // our own settle rebind (rebindVisibleItems): same items, nothing to invalidate or rescan
+            if (payload == PAYLOAD_DRAG_SETTLED) return;
+            onItemRangeChanged(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            rows.invalidate();
+            if (segments != null) segments.onConcatChanged();
+            if (heightIndex != null) heightIndex.insert(positionStart, itemCount);
+            if (sectionIndex != null) sectionIndex.onItemRangeInserted(positionStart, itemCount);
+            onFeedCountChanged();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            rows.invalidate();
+            if (segments != null) segments.onConcatChanged();
+            if (heightIndex != null) heightIndex.remove(positionStart, itemCount);
+            if (sectionIndex != null) sectionIndex.onItemRangeRemoved(positionStart, itemCount);
+            onFeedCountChanged();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            rows.invalidate();
+            // RecyclerView only dispatches single-item moves
+            for (int i = 0; i < itemCount; i++) {
+                if (heightIndex != null) heightIndex.move(fromPosition + i, toPosition + i);
+                if (sectionIndex != null) sectionIndex.onItemMoved(fromPosition + i, toPosition + i);
+            }
+        }
     }
 
     // -------------------- Show / Hide --------------------
@@ -530,14 +1717,8 @@ public class FastScroller {
         isVisible = false;
 
         // move out to end and hide alpha
-        thumb.setTranslationX(thumb.getWidth());
-        thumb.setAlpha(0f);
-
-        track.setTranslationX(track.getWidth());
-        track.setAlpha(0f);
-
-        touchArea.setTranslationX(touchArea.getWidth());
-        touchArea.setAlpha(0f);
+        cancelReveal();
+        applyReveal(0f);
     }
 
     private void showThumb() {
@@ -550,49 +1731,105 @@ public class FastScroller {
 
         if (!isVisible) {
             isVisible = true;
+            animateReveal(1f);
+        }
 
-            AnimatorSet set = new AnimatorSet();
-
-            ObjectAnimator animXTrack = ObjectAnimator.ofFloat(track, "translationX", track.getWidth(), 0f);
-            ObjectAnimator animAlphaTrack = ObjectAnimator.ofFloat(track, "alpha", 0f, 1f);
+        scheduleHide();
+    }
 
-            ObjectAnimator animXThumb = ObjectAnimator.ofFloat(thumb, "translationX", thumb.getWidth(), 0f);
-            ObjectAnimator animAlphaThumb = ObjectAnimator.ofFloat(thumb, "alpha", 0f, 1f);
+    /**
+     * Pushes the hide deadline forward. While the timer is armed this only moves its deadline: the shared
+     * timer wheel re-files it when its original slot comes up, so scroll events post nothing.
+     */
+    private void scheduleHide() {
+        scheduler.schedule(hideTimer, SystemClock.uptimeMillis() + hideDelay);
+    }
 
-            ObjectAnimator animXTouch = ObjectAnimator.ofFloat(touchArea, "translationX", touchArea.getWidth(), 0f);
-            ObjectAnimator animAlphaTouch = ObjectAnimator.ofFloat(touchArea, "alpha", 0f, 1f);
+    private void onHideTimeout() {
+        if (dragging) {
+            scheduleHide();
+            return;
+        }
+        animateReveal(0f);
+        isVisible = false;
+    }
 
-            set.playTogether(animXTrack, animAlphaTrack, animXThumb, animAlphaThumb, animXTouch, animAlphaTouch);
-            set.setDuration(animDuration);
-            set.start();
+    // animate from the current reveal fraction, so a hide interrupted by a show reverses smoothly
+    private void animateReveal(float to) {
+        revealFrom = reveal;
+        revealTo = to;
+        revealStartNanos = 0L;
+        if (!revealRunning) {
+            revealRunning = true;
+            scheduler.postFrame(revealFrame);
         }
+        if (metrics != null) metrics.onAnimatorStart();
+    }
 
-        scheduleHide();
+    private void cancelReveal() {
+        if (!revealRunning) return;
+        revealRunning = false;
+        scheduler.removeFrame(revealFrame);
     }
 
-    private void scheduleHide() {
-        if (hideRunnable != null) hideHandler.removeCallbacks(hideRunnable);
+    // same timing as the ValueAnimator it replaces: accelerate / decelerate, scaled by the system animator scale
+    private void onRevealFrame(long frameTimeNanos) {
+        if (!revealRunning) return;
+        if (revealStartNanos == 0L) revealStartNanos = frameTimeNanos;
+        float scale = Build.VERSION.SDK_INT >= 26 ? ValueAnimator.getDurationScale() : 1f;
+        long durationNanos = (long) (animDuration * scale * 1_000_000L);
 
-        hideRunnable = () -> {
-            AnimatorSet set = new AnimatorSet();
+        float t = durationNanos <= 0 ? 1f : Math.min(1f, (float) (frameTimeNanos - revealStartNanos) / durationNanos);
+        float eased = (float) (Math.cos((t + 1) * Math.PI) / 2.0) + 0.5f;
+        applyReveal(revealFrom + (revealTo - revealFrom) * eased);
 
-            ObjectAnimator animXTrack = ObjectAnimator.ofFloat(track, "translationX", 0f, track.getWidth());
-            ObjectAnimator animAlphaTrack = ObjectAnimator.ofFloat(track, "alpha", 1f, 0f);
+        if (t < 1f) scheduler.postFrame(revealFrame);
+        else revealRunning = false;
+    }
 
-            ObjectAnimator animXThumb = ObjectAnimator.ofFloat(thumb, "translationX", 0f, thumb.getWidth());
-            ObjectAnimator animAlphaThumb = ObjectAnimator.ofFloat(thumb, "alpha", 1f, 0f);
+    private void applyReveal(float fraction) {
+        reveal = fraction;
+        renderer.setReveal(fraction);
+    }
 
-            ObjectAnimator animXTouch = ObjectAnimator.ofFloat(touchArea, "translationX", 0f, touchArea.getWidth());
-            ObjectAnimator animAlphaTouch = ObjectAnimator.ofFloat(touchArea, "alpha", 1f, 0f);
+    // -------------------- Thumb motion --------------------
+    private void postThumbFrame() {
+        if (thumbFrameRunning) return;
+        thumbFrameRunning = true;
+        lastThumbFrameNanos = 0L;
+        scheduler.postFrame(thumbFrame);
+    }
 
-            set.playTogether(animXTrack, animAlphaTrack, animXThumb, animAlphaThumb, animXTouch, animAlphaTouch);
-            set.setDuration(animDuration);
-            set.start();
+    // steps both springs by the real frame time, so the motion is the same at any refresh rate
+    private void onThumbFrame(long frameTimeNanos) {
+        if (!thumbFrameRunning) return;
+        float dt = lastThumbFrameNanos == 0L ? frameIntervalSeconds() : (frameTimeNanos - lastThumbFrameNanos) / 1e9f;
+        lastThumbFrameNanos = frameTimeNanos;
 
-            isVisible = false;
-        };
+        boolean moving = posSpring.step(dt);
+        moving |= lengthSpring.step(dt);
+        renderer.setThumb(posSpring.getValue(), lengthSpring.getValue());
 
-        hideHandler.postDelayed(hideRunnable, hideDelay);
+        // settled -> stop asking for frames until the next scroll event moves a target
+        if (moving) scheduler.postFrame(thumbFrame);
+        else thumbFrameRunning = false;
+    }
+
+    // jumps the thumb to its targets and stops the frame loop
+    private void settleThumb() {
+        if (thumbFrameRunning) {
+            thumbFrameRunning = false;
+            scheduler.removeFrame(thumbFrame);
+        }
+        posSpring.snapTo(posSpring.getTarget());
+        lengthSpring.snapTo(lengthSpring.getTarget());
+        if (lengthSpring.getValue() > 0) renderer.setThumb(posSpring.getValue(), lengthSpring.getValue());
+    }
+
+    private float frameIntervalSeconds() {
+        Display display = recyclerView.getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 60f;
+        return refreshRate < 1f ? 1f / 60f : 1f / refreshRate;
     }
 
     // -------------------- Show / Hide FAB --------------------
@@ -605,6 +1842,10 @@ public class FastScroller {
             fabTop.setScaleY(0f);
 
             fabTop.animate().alpha(1f).scaleX(1f).scaleY(1f).setDuration(fabAnimDuration).start();
+            if (metrics != null) {
+                metrics.onLayoutRequest(); // GONE -> VISIBLE
+                metrics.onAnimatorStart();
+            }
 
             fabVisible = true;
         }
@@ -614,7 +1855,8 @@ public class FastScroller {
         if (fabVisible && fabTop != null) {
             fabTop.setPivotX(fabTop.getWidth() / 2f);
             fabTop.setPivotY(fabTop.getHeight() / 2f);
-            fabTop.animate().alpha(0f).scaleX(0f).scaleY(0f).setDuration(fabAnimDuration).withEndAction(() -> fabTop.setVisibility(View.GONE)).start();
+            fabTop.animate().alpha(0f).scaleX(0f).scaleY(0f).setDuration(fabAnimDuration).withEndAction(fabHiddenAction).start();
+            if (metrics != null) metrics.onAnimatorStart();
 
             fabVisible = false;
         }
@@ -0,0 +1,206 @@
+package com.jakir.fastscroller;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * Process-wide clock for every attached FastScroller (main thread only).
+ * <p>
+ * - Frame work (reveal animation, frame-coalesced drag, metrics) is posted as one-shot {@link FrameClient}s and
+ * run from a single Choreographer callback, which is only registered while some client is waiting.
+ * - Auto-hide deadlines live in a timer wheel ({@link #WHEEL_SLOTS} slots of {@link #TICK_MS} ms) driven by one
+ * message on the main looper, posted for the earliest occupied slot and only while a timer is pending.
+ * Pushing a deadline further out (every scroll event) is a field write: the timer stays in its slot and is
+ * re-filed when that slot comes up.
+ * <p>
+ * Nothing is allocated after the client / timer lists have grown to the number of attached scrollers.
+ */
+final class FrameScheduler {
+
+    /** Called once on the next frame after {@link #postFrame}; post again from here to keep running. */
+    interface FrameClient {
+        void doFrame(long frameTimeNanos);
+    }
+
+    /** A restartable deadline; one per scroller, reused for its whole life. */
+    static final class Timer {
+        private final Runnable action;
+        private long deadline;      // uptimeMillis
+        private int slot = -1;      // wheel slot, -1 -> not scheduled, FIRING -> due in the current tick
+        private Timer prev;
+        private Timer next;
+
+        Timer(Runnable action) {
+            this.action = action;
+        }
+
+        boolean isScheduled() {
+            return slot >= 0;
+        }
+    }
+
+    static final long TICK_MS = 50L;
+    static final int WHEEL_SLOTS = 64;  // 3.2 s horizon, later deadlines take another turn
+    private static final int FIRING = -2;
+
+    private static FrameScheduler instance;
+
+    private final Choreographer.FrameCallback frameCallback = this::onFrame;
+    private ArrayList<FrameClient> pending = new ArrayList<>();
+    private ArrayList<FrameClient> running = new ArrayList<>();
+    private boolean framePosted = false;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable tickRunnable = this::onTick;
+    private final Timer[] wheel = new Timer[WHEEL_SLOTS];
+    private int timerCount = 0;
+    private long processedTick;        // every tick <= this has been fired
+    private long postedTick = -1L;     // tick the looper message is posted for, -1 if none
+    private final ArrayList<Timer> due = new ArrayList<>();
+
+    static FrameScheduler get() {
+        if (instance == null) instance = new FrameScheduler();
+        return instance;
+    }
+
+    // tests only: Robolectric clears the main looper between tests, taking posted callbacks with it
+    static void reset() {
+        instance = null;
+    }
+
+    private FrameScheduler() {
+        processedTick = SystemClock.uptimeMillis() / TICK_MS;
+    }
+
+    // -------------------- Frames --------------------
+    void postFrame(FrameClient client) {
+        if (pending.contains(client)) return;
+        pending.add(client);
+        if (!framePosted) {
+            framePosted = true;
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    void removeFrame(FrameClient client) {
+        pending.remove(client);
+        // also skip it if this frame is being dispatched right now
+        int i = running.indexOf(client);
+        if (i >= 0) running.set(i, null);
+        if (pending.isEmpty() && framePosted) {
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+            framePosted = false;
+        }
+    }
+
+    private void onFrame(long frameTimeNanos) {
+        framePosted = false;
+        // swap so clients can post themselves again for the next frame
+        ArrayList<FrameClient> clients = pending;
+        pending = running;
+        running = clients;
+        for (int i = 0; i < clients.size(); i++) {
+            FrameClient client = clients.get(i);
+            if (client != null) client.doFrame(frameTimeNanos);
+        }
+        clients.clear();
+    }
+
+    // -------------------- Timer wheel --------------------
+
+    /** (Re)arms {@code timer} to run at {@code deadlineMs} (uptimeMillis). */
+    void schedule(Timer timer, long deadlineMs) {
+        long oldDeadline = timer.deadline;
+        timer.deadline = deadlineMs;
+        // later than before: leave it where it is, it is re-filed when its slot fires
+        if (timer.isScheduled() && deadlineMs >= oldDeadline) return;
+        if (timer.isScheduled()) unlink(timer);
+        // wheel was idle: start counting from now instead of from the last tick that ran
+        if (timerCount == 0 && postedTick < 0) processedTick = SystemClock.uptimeMillis() / TICK_MS;
+        file(timer);
+        postTick();
+    }
+
+    void cancel(Timer timer) {
+        if (timer.slot == FIRING) timer.slot = -1; // cancelled by an earlier action of the same tick
+        if (!timer.isScheduled()) return;
+        unlink(timer);
+        if (timerCount == 0 && postedTick >= 0) {
+            handler.removeCallbacks(tickRunnable);
+            postedTick = -1L;
+        }
+    }
+
+    private void file(Timer timer) {
+        long tick = Math.max(processedTick + 1, (timer.deadline + TICK_MS - 1) / TICK_MS);
+        int slot = (int) (tick % WHEEL_SLOTS);
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = wheel[slot];
+        if (timer.next != null) timer.next.prev = timer;
+        wheel[slot] = timer;
+        timerCount++;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) timer.prev.next = timer.next;
+        else wheel[timer.slot] = timer.next;
+        if (timer.next != null) timer.next.prev = timer.prev;
+        timer.prev = timer.next = null;
+        timer.slot = -1;
+        timerCount--;
+    }
+
+    private void onTick() {
+        postedTick = -1L;
+        long now = SystemClock.uptimeMillis();
+        long nowTick = now / TICK_MS;
+        // a late message may have to catch up on several slots, but never more than one turn
+        long from = Math.max(processedTick + 1, nowTick - WHEEL_SLOTS + 1);
+        processedTick = nowTick;
+        // collect first, run afterwards: actions may re-arm or cancel any timer
+        for (long tick = from; tick <= nowTick; tick++) {
+            Timer timer = wheel[(int) (tick % WHEEL_SLOTS)];
+            while (timer != null) {
+                Timer next = timer.next;
+                unlink(timer);
+                if (timer.deadline <= now) {
+                    timer.slot = FIRING;
+                    due.add(timer);
+                } else {
+                    file(timer); // pushed forward meanwhile, or due in a later turn
+                }
+                timer = next;
+            }
+        }
+        for (int i = 0; i < due.size(); i++) {
+            Timer timer = due.get(i);
+            if (timer.slot != FIRING) continue;
+            timer.slot = -1;
+            timer.action.run();
+        }
+        due.clear();
+        postTick();
+    }
+
+    // posts the looper message for the earliest occupied slot (if not already posted for an earlier one)
+    private void postTick() {
+        if (timerCount == 0) return;
+        long next = -1L;
+        for (int i = 1; i <= WHEEL_SLOTS; i++) {
+            long tick = processedTick + i;
+            if (wheel[(int) (tick % WHEEL_SLOTS)] != null) {
+                next = tick;
+                break;
+            }
+        }
+        if (next < 0 || (postedTick >= 0 && postedTick <= next)) return;
+        if (postedTick >= 0) handler.removeCallbacks(tickRunnable);
+        postedTick = next;
+        handler.postAtTime(tickRunnable, next * TICK_MS);
+    }
+}
@@ -0,0 +1,143 @@
+package com.jakir.fastscroller;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bounded LRU of prebuilt popup labels (StaticLayout) keyed by section id.
+ * <p>
+ * - A hit is a scan of {@link #CAPACITY} ints: no allocation, no call into the provider, no text measuring.
+ * - A miss builds the layout right away on the main thread (one StaticLayout, still no view layout pass).
+ * - {@link #prewarm} builds layouts for sections the thumb is heading to on a background thread. The label text
+ * itself is fetched on the main thread (that is the {@link SectionProvider} contract); only measuring and line
+ * breaking run in the background, with their own paint.
+ * <p>
+ * Main-thread only, except for the background build.
+ */
+class LabelCache {
+
+    static final int CAPACITY = 64;             // enough for an alphabet, a year of months or a window of dates
+    private static final int MAX_PENDING = 16;  // background builds in flight
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "FastScroller-labels");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private final TextPaint paint;       // main thread
+    private final TextPaint warmPaint;   // background thread
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final int[] ids = new int[CAPACITY];
+    private final StaticLayout[] layouts = new StaticLayout[CAPACITY];
+    private final long[] lastUsed = new long[CAPACITY];
+    private int size = 0;
+    private long clock = 0;
+
+    private final int[] pendingIds = new int[MAX_PENDING];
+    private int pendingCount = 0;
+    private int generation = 0;         // bumped by clear(): late background results are dropped
+
+    // stats (tests / metrics)
+    int hits;
+    int misses;
+
+    LabelCache(TextPaint paint) {
+        this.paint = paint;
+        this.warmPaint = new TextPaint(paint);
+    }
+
+    /** Layout for {@code sectionId}, built now if it is not cached. */
+    StaticLayout get(int sectionId, SectionProvider provider) {
+        int slot = indexOf(sectionId);
+        if (slot >= 0) {
+            hits++;
+            lastUsed[slot] = ++clock;
+            return layouts[slot];
+        }
+        misses++;
+        StaticLayout layout = build(provider.getSectionLabel(sectionId), paint);
+        put(sectionId, layout);
+        return layout;
+    }
+
+    boolean contains(int sectionId) {
+        return indexOf(sectionId) >= 0;
+    }
+
+    /** Builds the label of {@code sectionId} in the background unless it is cached or already on its way. */
+    void prewarm(int sectionId, SectionProvider provider) {
+        if (indexOf(sectionId) >= 0 || pendingCount == MAX_PENDING) return;
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingIds[i] == sectionId) return;
+        }
+        pendingIds[pendingCount++] = sectionId;
+
+        final CharSequence text = provider.getSectionLabel(sectionId);
+        final int jobGeneration = generation;
+        EXECUTOR.execute(() -> {
+            StaticLayout layout = build(text, warmPaint);
+            mainHandler.post(() -> onWarmed(jobGeneration, sectionId, layout));
+        });
+    }
+
+    /** Drops every entry, e.g. when the provider or the sections change. */
+    void clear() {
+        generation++;
+        pendingCount = 0;
+        for (int i = 0; i < size; i++) layouts[i] = null;
+        size = 0;
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+
+    private void onWarmed(int jobGeneration, int sectionId, StaticLayout layout) {
+        if (jobGeneration != generation) return;
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingIds[i] == sectionId) {
+                pendingIds[i] = pendingIds[--pendingCount];
+                break;
+            }
+        }
+        if (indexOf(sectionId) < 0) put(sectionId, layout);
+    }
+
+    private int indexOf(int sectionId) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == sectionId) return i;
+        }
+        return -1;
+    }
+
+    private void put(int sectionId, StaticLayout layout) {
+        int slot;
+        if (size < CAPACITY) {
+            slot = size++;
+        } else {
+            // evict the least recently used
+            slot = 0;
+            for (int i = 1; i < CAPACITY; i++) {
+                if (lastUsed[i] < lastUsed[slot]) slot = i;
+            }
+        }
+        ids[slot] = sectionId;
+        layouts[slot] = layout;
+        lastUsed[slot] = ++clock;
+    }
+
+    // single line, as wide as the text: the popup sizes its bubble from getLineWidth(0)
+    private static StaticLayout build(CharSequence text, TextPaint paint) {
+        if (text == null) text = "";
+        int width = (int) Math.ceil(Layout.getDesiredWidth(text, paint));
+        return StaticLayout.Builder.obtain(text, 0, text.length(), paint, Math.max(1, width))
+                .setMaxLines(1)
+                .setIncludePad(false)
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.jakir.fastscroller;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.jakir.fastscroller.core.MarkerBins;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Marker ticks on the track, drawn from a cached bitmap with one pixel per bin.
+ * <p>
+ * - Every change (add / remove / set / new track length) runs on a background thread against a {@link MarkerBins},
+ * which reports the span of bins it changed; only those pixels are sent back and written into the bitmap.
+ * - Drawing is one drawBitmap stretched over the track (no filtering, so bins stay crisp): it never looks at
+ * the markers themselves.
+ * <p>
+ * Main-thread only, except for the background jobs.
+ */
+class MarkerLayer extends Drawable {
+
+    private static final int ON = 0xFFFFFFFF;   // tinted with the marker color when drawn
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "FastScroller-markers");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private final boolean horizontal;   // bins along x instead of y
+    private final int binPx;            // track px per bin
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Paint paint = new Paint();
+
+    // background thread only
+    private final MarkerBins bins = new MarkerBins();
+    private int shippedBinCount = -1;   // bin count of the last result sent to the main thread
+
+    // main thread
+    private Bitmap bitmap;
+    private int requestedBins = -1;
+    private int requestedItemCount = -1;
+    private volatile boolean released = false;
+
+    MarkerLayer(int color, int binPx, boolean horizontal) {
+        this.horizontal = horizontal;
+        this.binPx = Math.max(1, binPx);
+        paint.setFilterBitmap(false);
+        setColor(color);
+    }
+
+    void setColor(int color) {
+        paint.setColorFilter(new PorterDuffColorFilter(color, PorterDuff.Mode.SRC_IN));
+        invalidateSelf();
+    }
+
+    /** Track length (px) and item count; rebins in the background when either changed. Cheap otherwise. */
+    void setGeometry(int trackLengthPx, int itemCount) {
+        int binCount = trackLengthPx / binPx;
+        if (binCount == requestedBins && itemCount == requestedItemCount) return;
+        requestedBins = binCount;
+        requestedItemCount = itemCount;
+        submit(() -> bins.resize(binCount, itemCount));
+    }
+
+    void set(int[] positions, int n) {
+        int[] copy = Arrays.copyOf(positions, n); // the caller may reuse its array
+        submit(() -> bins.set(copy, n));
+    }
+
+    void add(int[] positions, int n) {
+        int[] copy = Arrays.copyOf(positions, n);
+        submit(() -> bins.add(copy, n));
+    }
+
+    void remove(int[] positions, int n) {
+        int[] copy = Arrays.copyOf(positions, n);
+        submit(() -> bins.remove(copy, n));
+    }
+
+    void clear() {
+        submit(bins::clear);
+    }
+
+    void release() {
+        released = true;
+        mainHandler.removeCallbacksAndMessages(null);
+        if (bitmap != null) bitmap.recycle();
+        bitmap = null;
+    }
+
+    // -------------------- Background --------------------
+
+    // runs the change, then ships only the changed pixels; results arrive in submission order
+    private void submit(Runnable change) {
+        if (released) return;
+        EXECUTOR.execute(() -> {
+            if (released) return;
+            change.run();
+            int binCount = bins.binCount();
+            int from = bins.dirtyFrom();
+            int to = bins.dirtyTo();
+            if (from >= to && binCount == shippedBinCount) return;
+            int[] pixels = new int[to - from];
+            for (int b = from; b < to; b++) pixels[b - from] = bins.count(b) > 0 ? ON : 0;
+            shippedBinCount = binCount;
+            mainHandler.post(() -> apply(binCount, from, to, pixels));
+        });
+    }
+
+    private void apply(int binCount, int from, int to, int[] pixels) {
+        if (released) return;
+        if (bitmap == null || length(bitmap) != binCount) {
+            if (bitmap != null) bitmap.recycle();
+            bitmap = binCount > 0
+                    ? Bitmap.createBitmap(horizontal ? binCount : 1, horizontal ? 1 : binCount, Bitmap.Config.ARGB_8888)
+                    : null;
+        }
+        if (bitmap != null && to > from) {
+            if (horizontal) bitmap.setPixels(pixels, 0, to - from, from, 0, to - from, 1);
+            else bitmap.setPixels(pixels, 0, 1, 0, from, 1, to - from);
+        }
+        invalidateSelf();
+    }
+
+    private int length(Bitmap b) {
+        return horizontal ? b.getWidth() : b.getHeight();
+    }
+
+    // -------------------- Drawable --------------------
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (bitmap == null) return;
+        canvas.drawBitmap(bitmap, null, getBounds(), paint);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        // set while drawing (overlay reveal), so no invalidate here
+        paint.setAlpha(alpha);
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        // the marker color is the color filter
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
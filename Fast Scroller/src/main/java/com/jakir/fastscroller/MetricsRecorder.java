@@ -0,0 +1,124 @@
+package com.jakir.fastscroller;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Mutable counters behind {@link ScrollMetrics}. Only exists while metrics are enabled, so the disabled
+ * path is a null check. Recording is a few field updates; the only frame work (on the shared
+ * {@link FrameScheduler} callback) runs while a drag is in progress or settling.
+ */
+class MetricsRecorder {
+
+    private final RecyclerView recyclerView;
+    private final FrameScheduler.FrameClient frameClient = this::onFrame;
+    private boolean framePosted = false;
+
+    long scrolledCalls;
+    long scrolledTotalNanos;
+    long scrolledMaxNanos;
+    long layoutRequests;
+    long animatorStarts;
+    long drags;
+    long dragFrames;
+    long jankyDragFrames;
+    long settles;
+    long settleTotalNanos;
+    long settleMaxNanos;
+    long lastSettleNanos;
+
+    // frame timing
+    private boolean dragging = false;
+    private long frameIntervalNanos = 16_666_667L;
+    private long lastFrameNanos = 0L;
+    private long upNanos = 0L;  // != 0 while waiting for the list to settle after ACTION_UP
+
+    MetricsRecorder(RecyclerView rv) {
+        this.recyclerView = rv;
+    }
+
+    void onScrolled(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        scrolledCalls++;
+        scrolledTotalNanos += elapsed;
+        if (elapsed > scrolledMaxNanos) scrolledMaxNanos = elapsed;
+    }
+
+    void onLayoutRequest() {
+        layoutRequests++;
+    }
+
+    void onAnimatorStart() {
+        animatorStarts++;
+    }
+
+    void onDragStart(long frameIntervalNanos) {
+        drags++;
+        dragging = true;
+        upNanos = 0L;
+        lastFrameNanos = 0L;
+        this.frameIntervalNanos = frameIntervalNanos;
+        postFrame();
+    }
+
+    /** ACTION_UP / CANCEL: from now on, wait for the list to be idle. */
+    void onDragEnd() {
+        dragging = false;
+        upNanos = System.nanoTime();
+        postFrame();
+    }
+
+    void release() {
+        if (framePosted) {
+            FrameScheduler.get().removeFrame(frameClient);
+            framePosted = false;
+        }
+    }
+
+    private void postFrame() {
+        if (framePosted) return;
+        framePosted = true;
+        FrameScheduler.get().postFrame(frameClient);
+    }
+
+    private void onFrame(long frameTimeNanos) {
+        framePosted = false;
+
+        if (dragging) {
+            if (lastFrameNanos != 0L) {
+                dragFrames++;
+                if (frameTimeNanos - lastFrameNanos > frameIntervalNanos + frameIntervalNanos / 2) jankyDragFrames++;
+            }
+            lastFrameNanos = frameTimeNanos;
+            postFrame();
+            return;
+        }
+
+        if (upNanos == 0L) return;
+        boolean idle = !recyclerView.isLayoutRequested()
+                && !recyclerView.hasPendingAdapterUpdates()
+                && recyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE;
+        if (!idle) {
+            postFrame();
+            return;
+        }
+
+        long latency = System.nanoTime() - upNanos;
+        upNanos = 0L;
+        settles++;
+        settleTotalNanos += latency;
+        if (latency > settleMaxNanos) settleMaxNanos = latency;
+        lastSettleNanos = latency;
+    }
+
+    ScrollMetrics snapshot() {
+        return new ScrollMetrics(scrolledCalls, scrolledTotalNanos, scrolledMaxNanos, layoutRequests, animatorStarts,
+                drags, dragFrames, jankyDragFrames, settles, settleTotalNanos, settleMaxNanos, lastSettleNanos);
+    }
+
+    void reset() {
+        scrolledCalls = scrolledTotalNanos = scrolledMaxNanos = 0L;
+        layoutRequests = animatorStarts = 0L;
+        drags = dragFrames = jankyDragFrames = 0L;
+        settles = settleTotalNanos = settleMaxNanos = lastSettleNanos = 0L;
+    }
+}
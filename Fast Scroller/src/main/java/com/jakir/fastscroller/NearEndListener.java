@@ -0,0 +1,17 @@
+package com.jakir.fastscroller;
+
+/**
+ * Infinite-feed hook: asks for the next page before the user gets to the end of what is loaded.
+ * <p>
+ * Fired at most once per loaded item count, from scrolling and from thumb drags. A fast drag fires it early:
+ * the lead is the distance the drag covers while a page loads (measured from earlier pages).
+ * Runs on the main thread.
+ * <p>
+ * Usage:
+ * FastScroller.attach(recyclerView).setInfiniteFeed(itemCount -> viewModel.loadNextPage());
+ */
+public interface NearEndListener {
+
+    /** Start loading the page after {@code itemCount} loaded items. */
+    void onNearEnd(int itemCount);
+}
@@ -0,0 +1,238 @@
+package com.jakir.fastscroller;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Overlay renderer: track + thumb are drawn in {@link #onDrawOver} of the RecyclerView and touches are hit-tested here.
+ * No views are added to the parent, so scrolling only ever causes a redraw, never a layout pass.
+ */
+class OverlayScrollbarRenderer extends RecyclerView.ItemDecoration implements ScrollbarRenderer, RecyclerView.OnItemTouchListener, Drawable.Callback {
+
+    private final RecyclerView recyclerView;
+    private final View.OnTouchListener dragListener;
+    private final int marginFromEndPx;
+    private final int touchAreaWidthPx;
+    private final float extraTouchAreaHeight;
+    private final float cornerRadiusPx;
+    private final int normalColor;
+    private final int activeColor;
+    private final int trackColor;
+    private final boolean horizontal;  // bar along the bottom edge instead of the end edge
+
+    // drawing (allocated once)
+    private final Paint trackPaint = new Paint();
+    private final Paint thumbPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF rect = new RectF();
+
+    // state
+    private int barThicknessPx;
+    private float thumbStart;
+    private float thumbLength;
+    private float reveal;
+    private boolean active;
+    private boolean dragging;
+    private MarkerLayer markers;
+
+    OverlayScrollbarRenderer(RecyclerView rv, int allWidthDp, int marginFromEndDp, int minimumThumbHeightDp, int touchAreaWidthDp, float extraTouchAreaHeight, int normalColor, int activeColor, int trackColor, boolean horizontal, View.OnTouchListener dragListener) {
+        this.recyclerView = rv;
+        this.horizontal = horizontal;
+        this.dragListener = dragListener;
+        this.marginFromEndPx = FastScroller.dpToPx(rv.getContext(), marginFromEndDp);
+        this.touchAreaWidthPx = FastScroller.dpToPx(rv.getContext(), touchAreaWidthDp);
+        this.extraTouchAreaHeight = extraTouchAreaHeight;
+        this.cornerRadiusPx = FastScroller.dpToPx(rv.getContext(), 50);
+        this.normalColor = normalColor;
+        this.activeColor = activeColor;
+        this.trackColor = trackColor;
+
+        barThicknessPx = FastScroller.dpToPx(rv.getContext(), allWidthDp);
+        thumbLength = FastScroller.dpToPx(rv.getContext(), minimumThumbHeightDp);
+
+        rv.addItemDecoration(this);
+        rv.addOnItemTouchListener(this);
+    }
+
+    // -------------------- Drawing --------------------
+    @Override
+    public void onDrawOver(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        if (reveal <= 0f) return;
+
+        // slide out past the edge while hiding (same as the translation in view mode)
+        float slide = (1f - reveal) * barThicknessPx;
+        float radius = Math.min(cornerRadiusPx, Math.min(barThicknessPx, thumbLength) / 2f);
+        int color = active ? activeColor : normalColor;
+        trackPaint.setColor(trackColor);
+        trackPaint.setAlpha((int) (Color.alpha(trackColor) * reveal));
+        thumbPaint.setColor(color);
+        thumbPaint.setAlpha((int) (Color.alpha(color) * reveal));
+
+        if (horizontal) {
+            float top = parent.getHeight() - marginFromEndPx - barThicknessPx + slide;
+            rect.set(0, top, parent.getWidth(), top + barThicknessPx);
+            c.drawRect(rect, trackPaint);
+            drawMarkers(c);
+            rect.set(thumbStart, top, thumbStart + thumbLength, top + barThicknessPx);
+            c.drawRoundRect(rect, radius, radius, thumbPaint);
+            return;
+        }
+
+        float left;
+        if (isRtl()) {
+            left = marginFromEndPx - slide;
+        } else {
+            left = parent.getWidth() - marginFromEndPx - barThicknessPx + slide;
+        }
+
+        // track
+        rect.set(left, 0, left + barThicknessPx, parent.getHeight());
+        c.drawRect(rect, trackPaint);
+        drawMarkers(c);
+
+        // thumb (GradientDrawable clamps the radius to half the shortest side, do the same)
+        rect.set(left, thumbStart, left + barThicknessPx, thumbStart + thumbLength);
+        c.drawRoundRect(rect, radius, radius, thumbPaint);
+    }
+
+    // over the track rect currently in rect
+    private void drawMarkers(Canvas c) {
+        if (markers == null) return;
+        markers.setBounds((int) rect.left, (int) rect.top, (int) rect.right, (int) rect.bottom);
+        markers.setAlpha((int) (255 * reveal));
+        markers.draw(c);
+    }
+
+    private boolean isRtl() {
+        return recyclerView.getLayoutDirection() == View.LAYOUT_DIRECTION_RTL;
+    }
+
+    // -------------------- Touch --------------------
+    private boolean hitTest(float x, float y) {
+        if (reveal <= 0f) return false;
+
+        // across the axis: a strip of touchAreaWidth at the edge; along it: the thumb plus extra slop
+        float along;
+        if (horizontal) {
+            if (y < recyclerView.getHeight() - touchAreaWidthPx) return false;
+            along = x;
+        } else {
+            int width = recyclerView.getWidth();
+            boolean inX = isRtl() ? x <= touchAreaWidthPx : x >= width - touchAreaWidthPx;
+            if (!inX) return false;
+            along = y;
+        }
+
+        float start = thumbStart - extraTouchAreaHeight / 2;
+        float end = thumbStart + thumbLength + extraTouchAreaHeight / 2;
+        return along >= start && along <= end;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+        if (dragging) return true;
+        if (e.getActionMasked() != MotionEvent.ACTION_DOWN || !hitTest(e.getX(), e.getY())) return false;
+
+        dragging = true;
+        rv.getParent().requestDisallowInterceptTouchEvent(true);
+        dragListener.onTouch(rv, e);
+        return true;
+    }
+
+    @Override
+    public void onTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+        if (!dragging) return;
+        int action = e.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) dragging = false;
+        dragListener.onTouch(rv, e);
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+    }
+
+    // -------------------- ScrollbarRenderer --------------------
+    @Override
+    public void setBarThickness(int thicknessPx) {
+        if (barThicknessPx == thicknessPx) return;
+        barThicknessPx = thicknessPx;
+        recyclerView.invalidate();
+    }
+
+    @Override
+    public void setThumbLayoutLength(int lengthPx) {
+        // nothing is laid out, setThumb() redraws at any length
+    }
+
+    @Override
+    public void setThumb(float start, float length) {
+        if (thumbStart == start && thumbLength == length) return;
+        thumbStart = start;
+        thumbLength = length;
+        recyclerView.invalidate();
+    }
+
+    @Override
+    public float getThumbStart() {
+        return thumbStart;
+    }
+
+    @Override
+    public float getThumbLength() {
+        return thumbLength;
+    }
+
+    @Override
+    public void setReveal(float fraction) {
+        if (reveal == fraction) return;
+        reveal = fraction;
+        recyclerView.invalidate();
+    }
+
+    @Override
+    public void setMarkers(MarkerLayer markers) {
+        if (this.markers != null) this.markers.setCallback(null);
+        this.markers = markers;
+        if (markers != null) markers.setCallback(this);
+        recyclerView.invalidate();
+    }
+
+    @Override
+    public void invalidateDrawable(@NonNull Drawable who) {
+        recyclerView.invalidate();
+    }
+
+    @Override
+    public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+    }
+
+    @Override
+    public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+    }
+
+    @Override
+    public void setActive(boolean active) {
+        if (this.active == active) return;
+        this.active = active;
+        recyclerView.invalidate();
+    }
+
+    @Override
+    public void setMetrics(MetricsRecorder metrics) {
+        // draws only, never requests a layout
+    }
+
+    @Override
+    public void remove() {
+        if (markers != null) markers.setCallback(null);
+        recyclerView.removeItemDecoration(this);
+        recyclerView.removeOnItemTouchListener(this);
+    }
+}
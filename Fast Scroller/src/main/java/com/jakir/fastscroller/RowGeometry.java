@@ -0,0 +1,304 @@
+package com.jakir.fastscroller;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+
+import java.util.Arrays;
+
+/**
+ * Scroll geometry in rows instead of items, so thumb size and drag target are right for grids too.
+ * <p>
+ * - LinearLayoutManager: one item per row.
+ * - GridLayoutManager: rows of spanCount items; with a custom SpanSizeLookup the row starts are built
+ * once (O(n)) and looked up by binary search until the next adapter change.
+ * - StaggeredGridLayoutManager: no real rows, positions / spanCount, first & last visible taken over all spans.
+ * <p>
+ * No allocation on the scroll path (the per-span position buffer is reused).
+ */
+abstract class RowGeometry {
+
+    final RecyclerView.LayoutManager layoutManager;
+
+    RowGeometry(RecyclerView.LayoutManager layoutManager) {
+        this.layoutManager = layoutManager;
+    }
+
+    /** @throws IllegalStateException for layout managers other than Linear / Grid / StaggeredGrid */
+    static RowGeometry create(RecyclerView.LayoutManager lm) {
+        if (lm instanceof GridLayoutManager) return new GridRows((GridLayoutManager) lm);
+        if (lm instanceof LinearLayoutManager) return new LinearRows((LinearLayoutManager) lm);
+        if (lm instanceof StaggeredGridLayoutManager) return new StaggeredRows((StaggeredGridLayoutManager) lm);
+        throw new IllegalStateException("FastScroller: RecyclerView must use LinearLayoutManager, GridLayoutManager or StaggeredGridLayoutManager");
+    }
+
+    int itemCount() {
+        return layoutManager.getItemCount();
+    }
+
+    abstract int rowCount();
+
+    /** Topmost visible row, RecyclerView.NO_POSITION if nothing is laid out. */
+    abstract int firstVisibleRow();
+
+    abstract int visibleRowCount();
+
+    abstract int rowOf(int position);
+
+    abstract int firstPositionOfRow(int row);
+
+    abstract void scrollToPositionWithOffset(int position, int offsetPx);
+
+    /** True for horizontally scrolling lists. */
+    abstract boolean isHorizontal();
+
+    /** True when every row is one item, i.e. the item height index applies as-is. */
+    boolean isOneItemPerRow() {
+        return false;
+    }
+
+    /** True when {@link #invalidate()} must be called on adapter changes. */
+    boolean needsAdapterEvents() {
+        return false;
+    }
+
+    /** Adapter content changed: drop cached row starts. */
+    void invalidate() {
+    }
+
+    // -------------------- Linear --------------------
+    static class LinearRows extends RowGeometry {
+        private final LinearLayoutManager lm;
+
+        LinearRows(LinearLayoutManager lm) {
+            super(lm);
+            this.lm = lm;
+        }
+
+        @Override
+        int rowCount() {
+            return lm.getItemCount();
+        }
+
+        @Override
+        int firstVisibleRow() {
+            return lm.findFirstVisibleItemPosition();
+        }
+
+        @Override
+        int visibleRowCount() {
+            return lm.getChildCount();
+        }
+
+        @Override
+        int rowOf(int position) {
+            return position;
+        }
+
+        @Override
+        int firstPositionOfRow(int row) {
+            return row;
+        }
+
+        @Override
+        void scrollToPositionWithOffset(int position, int offsetPx) {
+            lm.scrollToPositionWithOffset(position, offsetPx);
+        }
+
+        @Override
+        boolean isHorizontal() {
+            return lm.getOrientation() == LinearLayoutManager.HORIZONTAL;
+        }
+
+        @Override
+        boolean isOneItemPerRow() {
+            return true;
+        }
+    }
+
+    // -------------------- Grid --------------------
+    static class GridRows extends RowGeometry {
+        private final GridLayoutManager lm;
+        // row starts for custom span sizes, built lazily
+        private int[] rowStarts = new int[0];
+        private int rows = 0;
+        private boolean valid = false;
+        private int builtSpanCount;
+        private int builtItemCount;
+        private GridLayoutManager.SpanSizeLookup builtLookup;
+
+        GridRows(GridLayoutManager lm) {
+            super(lm);
+            this.lm = lm;
+        }
+
+        private boolean uniformSpans() {
+            return lm.getSpanSizeLookup() instanceof GridLayoutManager.DefaultSpanSizeLookup;
+        }
+
+        @Override
+        int rowCount() {
+            int total = itemCount();
+            if (uniformSpans()) return (total + lm.getSpanCount() - 1) / lm.getSpanCount();
+            ensureRows();
+            return rows;
+        }
+
+        @Override
+        int firstVisibleRow() {
+            int first = lm.findFirstVisibleItemPosition();
+            return first == RecyclerView.NO_POSITION ? first : rowOf(first);
+        }
+
+        @Override
+        int visibleRowCount() {
+            int first = lm.findFirstVisibleItemPosition();
+            int last = lm.findLastVisibleItemPosition();
+            if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) return 0;
+            return rowOf(last) - rowOf(first) + 1;
+        }
+
+        @Override
+        int rowOf(int position) {
+            if (uniformSpans()) return position / lm.getSpanCount();
+            ensureRows();
+            if (rows == 0) return 0;
+            int lo = 0;
+            int hi = rows - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (rowStarts[mid] <= position) lo = mid;
+                else hi = mid - 1;
+            }
+            return lo;
+        }
+
+        @Override
+        int firstPositionOfRow(int row) {
+            if (uniformSpans()) return Math.min(row * lm.getSpanCount(), Math.max(0, itemCount() - 1));
+            ensureRows();
+            if (rows == 0) return 0;
+            return rowStarts[Math.max(0, Math.min(row, rows - 1))];
+        }
+
+        @Override
+        void scrollToPositionWithOffset(int position, int offsetPx) {
+            lm.scrollToPositionWithOffset(position, offsetPx);
+        }
+
+        @Override
+        boolean isHorizontal() {
+            return lm.getOrientation() == LinearLayoutManager.HORIZONTAL;
+        }
+
+        @Override
+        boolean needsAdapterEvents() {
+            return !uniformSpans();
+        }
+
+        @Override
+        void invalidate() {
+            valid = false;
+        }
+
+        // same row breaking as GridLayoutManager: an item that does not fit in the current row starts a new one
+        private void ensureRows() {
+            int spanCount = lm.getSpanCount();
+            int total = itemCount();
+            GridLayoutManager.SpanSizeLookup lookup = lm.getSpanSizeLookup();
+            if (valid && spanCount == builtSpanCount && total == builtItemCount && lookup == builtLookup) return;
+
+            rows = 0;
+            int used = spanCount;
+            for (int p = 0; p < total; p++) {
+                int size = Math.min(spanCount, Math.max(1, lookup.getSpanSize(p)));
+                if (used + size > spanCount) {
+                    if (rows == rowStarts.length) rowStarts = Arrays.copyOf(rowStarts, Math.max(16, rows * 2));
+                    rowStarts[rows++] = p;
+                    used = 0;
+                }
+                used += size;
+            }
+            valid = true;
+            builtSpanCount = spanCount;
+            builtItemCount = total;
+            builtLookup = lookup;
+        }
+    }
+
+    // -------------------- Staggered grid --------------------
+    static class StaggeredRows extends RowGeometry {
+        private final StaggeredGridLayoutManager lm;
+        private int[] spanPositions = new int[0];  // reused for find*VisibleItemPositions
+
+        StaggeredRows(StaggeredGridLayoutManager lm) {
+            super(lm);
+            this.lm = lm;
+        }
+
+        @Override
+        int rowCount() {
+            return (lm.getItemCount() + lm.getSpanCount() - 1) / lm.getSpanCount();
+        }
+
+        @Override
+        int firstVisibleRow() {
+            int first = firstVisiblePosition();
+            return first == RecyclerView.NO_POSITION ? first : rowOf(first);
+        }
+
+        @Override
+        int visibleRowCount() {
+            int first = firstVisiblePosition();
+            if (first == RecyclerView.NO_POSITION) return 0;
+            int last = lastVisiblePosition();
+            return rowOf(last) - rowOf(first) + 1;
+        }
+
+        @Override
+        int rowOf(int position) {
+            return position / lm.getSpanCount();
+        }
+
+        @Override
+        int firstPositionOfRow(int row) {
+            return Math.min(row * lm.getSpanCount(), Math.max(0, lm.getItemCount() - 1));
+        }
+
+        @Override
+        void scrollToPositionWithOffset(int position, int offsetPx) {
+            lm.scrollToPositionWithOffset(position, offsetPx);
+        }
+
+        @Override
+        boolean isHorizontal() {
+            return lm.getOrientation() == StaggeredGridLayoutManager.HORIZONTAL;
+        }
+
+        private int[] spanBuffer() {
+            int spanCount = lm.getSpanCount();
+            if (spanPositions.length != spanCount) spanPositions = new int[spanCount];
+            return spanPositions;
+        }
+
+        // smallest first-visible position over all spans (spans can be empty -> NO_POSITION)
+        private int firstVisiblePosition() {
+            int[] positions = lm.findFirstVisibleItemPositions(spanBuffer());
+            int min = RecyclerView.NO_POSITION;
+            for (int p : positions) {
+                if (p != RecyclerView.NO_POSITION && (min == RecyclerView.NO_POSITION || p < min)) min = p;
+            }
+            return min;
+        }
+
+        private int lastVisiblePosition() {
+            int[] positions = lm.findLastVisibleItemPositions(spanBuffer());
+            int max = RecyclerView.NO_POSITION;
+            for (int p : positions) {
+                if (p > max) max = p;
+            }
+            return max;
+        }
+    }
+}
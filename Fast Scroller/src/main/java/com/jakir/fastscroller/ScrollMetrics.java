@@ -0,0 +1,62 @@
+package com.jakir.fastscroller;
+
+/**
+ * Snapshot of what a {@link FastScroller} has cost since metrics were enabled (or last reset).
+ * Plain counters, meant to be read periodically and aggregated by telemetry.
+ * <p>
+ * Usage:
+ * FastScroller scroller = FastScroller.attach(recyclerView).setMetricsEnabled(remoteFlag);
+ * ...
+ * ScrollMetrics m = scroller.getMetrics(); // null while disabled
+ * telemetry.log("fs_jank", m.jankyDragFrames, "fs_settle_max_ms", m.settleMaxNanos / 1_000_000);
+ */
+public final class ScrollMetrics {
+
+    /** onScrolled calls handled, total / max time spent in the handler (ns). */
+    public final long scrolledCalls;
+    public final long scrolledTotalNanos;
+    public final long scrolledMaxNanos;
+
+    /** requestLayout calls caused by the scroller: size changes of its views, FAB visibility, drag jumps. */
+    public final long layoutRequests;
+
+    /** Animations started: thumb reveal / hide, FAB, popup. */
+    public final long animatorStarts;
+
+    /** Thumb drags, frames drawn while dragging, and of those the ones that took longer than 1.5 frame intervals. */
+    public final long drags;
+    public final long dragFrames;
+    public final long jankyDragFrames;
+
+    /** Latency from ACTION_UP to the list being laid out and idle, per drag (ns). */
+    public final long settles;
+    public final long settleTotalNanos;
+    public final long settleMaxNanos;
+    public final long lastSettleNanos;
+
+    ScrollMetrics(long scrolledCalls, long scrolledTotalNanos, long scrolledMaxNanos, long layoutRequests, long animatorStarts,
+                  long drags, long dragFrames, long jankyDragFrames,
+                  long settles, long settleTotalNanos, long settleMaxNanos, long lastSettleNanos) {
+        this.scrolledCalls = scrolledCalls;
+        this.scrolledTotalNanos = scrolledTotalNanos;
+        this.scrolledMaxNanos = scrolledMaxNanos;
+        this.layoutRequests = layoutRequests;
+        this.animatorStarts = animatorStarts;
+        this.drags = drags;
+        this.dragFrames = dragFrames;
+        this.jankyDragFrames = jankyDragFrames;
+        this.settles = settles;
+        this.settleTotalNanos = settleTotalNanos;
+        this.settleMaxNanos = settleMaxNanos;
+        this.lastSettleNanos = lastSettleNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ScrollMetrics{scrolled=" + scrolledCalls + " (" + scrolledTotalNanos / 1000 + "us total, " + scrolledMaxNanos / 1000 + "us max)"
+                + ", layoutRequests=" + layoutRequests
+                + ", animatorStarts=" + animatorStarts
+                + ", drags=" + drags + ", dragFrames=" + dragFrames + ", jankyDragFrames=" + jankyDragFrames
+                + ", settles=" + settles + " (" + settleMaxNanos / 1_000_000 + "ms max, " + lastSettleNanos / 1_000_000 + "ms last)}";
+    }
+}
@@ -0,0 +1,46 @@
+package com.jakir.fastscroller;
+
+/**
+ * Draws the track + thumb for a {@link FastScroller}.
+ * <p>
+ * Two implementations exist:
+ * - {@link ViewScrollbarRenderer}: the classic mode, three child views added to the RecyclerView's parent.
+ * - {@link OverlayScrollbarRenderer}: one ItemDecoration drawing over the RecyclerView, no child views.
+ * <p>
+ * All coordinates are in px along the scroll axis (y for vertical lists, x for horizontal ones), relative to the
+ * RecyclerView's parent (view mode) or the RecyclerView itself (overlay mode), which is the same thing for the usual
+ * "RecyclerView fills its parent" layouts. Vertical bars sit at the end edge, horizontal bars along the bottom edge.
+ */
+interface ScrollbarRenderer {
+
+    /** Visual thickness of track & thumb across the scroll axis (px). */
+    void setBarThickness(int thicknessPx);
+
+    /**
+     * Length (px) the thumb settles at. Called only when the target length changes; the view renderer lays the
+     * thumb out at this size so that {@link #setThumb} can stay transform-only.
+     */
+    void setThumbLayoutLength(int lengthPx);
+
+    /** Thumb start (top / left, px) and thumb length (px) along the scroll axis. Called every animation frame. */
+    void setThumb(float start, float length);
+
+    float getThumbStart();
+
+    float getThumbLength();
+
+    /** 0 -> fully hidden (slid out past the edge it sits on), 1 -> fully shown. */
+    void setReveal(float fraction);
+
+    /** Marker ticks drawn over the track (null -> none). */
+    void setMarkers(MarkerLayer markers);
+
+    /** Switch the thumb between normal and active (touched) color. */
+    void setActive(boolean active);
+
+    /** Counts layout requests this renderer causes; null when metrics are off. */
+    void setMetrics(MetricsRecorder metrics);
+
+    /** Remove everything this renderer added to the view hierarchy. */
+    void remove();
+}
@@ -0,0 +1,324 @@
+package com.jakir.fastscroller;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cached section starts for a {@link SectionProvider}.
+ * <p>
+ * - Sections live in two primitive arrays (start position, section id), sorted by start.
+ * - {@link #sectionAt(int)} is a plain binary search: no allocation, no call into the provider.
+ * - The provider is only called on a background thread, in batches, for a full build once and then
+ * only for the ranges touched by adapter change notifications (dirty ranges are spliced in).
+ * <p>
+ * All methods except the background job are main-thread only. Any structural change made while a
+ * job is running invalidates that job (generation counter); the dirty range is then rescanned.
+ */
+class SectionIndex {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "FastScroller-sections");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private final SectionProvider provider;
+    private final Executor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable onUpdated;
+
+    // main-thread state
+    private int[] starts = new int[0];
+    private int[] ids = new int[0];
+    private int count = 0;
+    private int itemCount = 0;
+    private boolean ready = false;
+    private boolean released = false;
+
+    // pending work
+    private volatile int generation = 0;
+    private boolean jobRunning = false;
+    private boolean fullRebuildPending = false;
+    private int dirtyStart = -1;     // [dirtyStart, dirtyEnd) still to rescan, -1 if clean
+    private int dirtyEnd = -1;
+    private int jobStart = -1;       // range of the running partial job, shifted along with adapter changes
+    private int jobEnd = -1;
+
+    SectionIndex(SectionProvider provider, Runnable onUpdated) {
+        this(provider, onUpdated, EXECUTOR);
+    }
+
+    // tests: run the background jobs one at a time
+    SectionIndex(SectionProvider provider, Runnable onUpdated, Executor executor) {
+        this.provider = provider;
+        this.onUpdated = onUpdated;
+        this.executor = executor;
+    }
+
+    SectionProvider getProvider() {
+        return provider;
+    }
+
+    // -------------------- Lookup (hot path) --------------------
+
+    /** Index of the section containing {@code position}, or -1 while nothing has been built yet. */
+    int sectionAt(int position) {
+        if (!ready || count == 0 || position < 0) return -1;
+        int lo = 0;
+        int hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (starts[mid] <= position) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    int sectionId(int sectionIndex) {
+        return ids[sectionIndex];
+    }
+
+    int sectionStart(int sectionIndex) {
+        return starts[sectionIndex];
+    }
+
+    int count() {
+        return ready ? count : 0;
+    }
+
+    // -------------------- Adapter changes --------------------
+    void rebuild(int newItemCount) {
+        itemCount = Math.max(0, newItemCount);
+        fullRebuildPending = true;
+        dirtyStart = dirtyEnd = -1;
+        generation++;
+        schedule();
+    }
+
+    void onItemRangeChanged(int positionStart, int n) {
+        markDirty(positionStart, positionStart + n);
+    }
+
+    void onItemRangeInserted(int positionStart, int n) {
+        if (n <= 0) return;
+        itemCount += n;
+        // everything from positionStart on moves down; inserted items join the preceding section until rescanned
+        for (int i = 0; i < count; i++) {
+            if (starts[i] >= positionStart && !(i == 0 && starts[i] == 0)) starts[i] += n;
+        }
+        if (dirtyStart >= positionStart) dirtyStart += n;
+        if (dirtyEnd > positionStart) dirtyEnd += n;
+        if (jobStart >= positionStart) jobStart += n;
+        if (jobEnd > positionStart) jobEnd += n;
+        markDirty(positionStart - 1, positionStart + n + 1);
+    }
+
+    void onItemRangeRemoved(int positionStart, int n) {
+        if (n <= 0) return;
+        int end = positionStart + n;
+        itemCount = Math.max(0, itemCount - n);
+
+        // drop starts inside the removed range; if one was dropped, the item now at positionStart still
+        // belongs to the last dropped section (unless a start already sits right after the range)
+        int write = 0;
+        int lastRemovedId = 0;
+        boolean removedAny = false;
+        boolean startAtEnd = false;
+        for (int read = 0; read < count; read++) {
+            int s = starts[read];
+            if (s >= positionStart && s < end) {
+                removedAny = true;
+                lastRemovedId = ids[read];
+                continue;
+            }
+            if (s == end) startAtEnd = true;
+            starts[write] = s >= end ? s - n : s;
+            ids[write] = ids[read];
+            write++;
+        }
+        count = write;
+        if (removedAny && !startAtEnd && positionStart < itemCount) {
+            insertSection(positionStart, lastRemovedId);
+        }
+
+        dirtyStart = shiftForRemoval(dirtyStart, positionStart, end);
+        dirtyEnd = shiftForRemoval(dirtyEnd, positionStart, end);
+        jobStart = shiftForRemoval(jobStart, positionStart, end);
+        jobEnd = shiftForRemoval(jobEnd, positionStart, end);
+        markDirty(positionStart - 1, positionStart + 1);
+    }
+
+    private static int shiftForRemoval(int position, int removedStart, int removedEnd) {
+        if (position >= removedEnd) return position - (removedEnd - removedStart);
+        if (position > removedStart) return removedStart;
+        return position;
+    }
+
+    void onItemMoved(int from, int to) {
+        onItemRangeRemoved(from, 1);
+        onItemRangeInserted(to, 1);
+    }
+
+    void release() {
+        released = true;
+        generation++;
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+
+    // -------------------- Background build --------------------
+    private void markDirty(int from, int to) {
+        generation++; // any running job now works on outdated positions
+        markDirtyRange(from, to);
+        schedule();
+    }
+
+    private void schedule() {
+        if (released || jobRunning) return;
+
+        final boolean full = fullRebuildPending || !ready || (dirtyStart >= 0 && dirtyEnd - dirtyStart > itemCount / 2);
+        final int from = full ? 0 : dirtyStart;
+        final int to = full ? itemCount : dirtyEnd;
+        if (!full && from < 0) return;
+
+        fullRebuildPending = false;
+        dirtyStart = dirtyEnd = -1;
+        jobStart = from;
+        jobEnd = to;
+        jobRunning = true;
+        final int jobGeneration = generation;
+
+        executor.execute(() -> {
+            int[] jobStarts = new int[16];
+            int[] jobIds = new int[16];
+            int n = 0;
+            int previousId = 0;
+            boolean failed = false;
+            try {
+                for (int batch = from; batch < to; batch += BATCH_SIZE) {
+                    if (generation != jobGeneration) break; // stale, results would be dropped anyway
+                    int batchEnd = Math.min(to, batch + BATCH_SIZE);
+                    for (int p = batch; p < batchEnd; p++) {
+                        int id = provider.getSectionId(p);
+                        if (p == from || id != previousId) {
+                            if (n == jobStarts.length) {
+                                jobStarts = Arrays.copyOf(jobStarts, n * 2);
+                                jobIds = Arrays.copyOf(jobIds, n * 2);
+                            }
+                            jobStarts[n] = p;
+                            jobIds[n] = id;
+                            n++;
+                        }
+                        previousId = id;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // data changed under the provider (e.g. the list shrank); its change notification follows
+                failed = true;
+            }
+            final int[] resultStarts = jobStarts;
+            final int[] resultIds = jobIds;
+            final int resultCount = n;
+            final boolean resultFailed = failed;
+            mainHandler.post(() -> onJobDone(full, resultFailed, jobGeneration, resultStarts, resultIds, resultCount));
+        });
+    }
+
+    private void onJobDone(boolean full, boolean failed, int jobGeneration, int[] newStarts, int[] newIds, int n) {
+        jobRunning = false;
+        int from = jobStart;
+        int to = jobEnd;
+        jobStart = jobEnd = -1;
+        if (released) return;
+
+        if (failed || jobGeneration != generation) {
+            // something changed meanwhile: redo the job's range (already shifted by those changes)
+            // together with whatever is dirty now
+            if (full) fullRebuildPending = true;
+            else markDirtyRange(from, Math.max(to, from + 1));
+            schedule();
+            return;
+        }
+
+        if (full) {
+            starts = newStarts;
+            ids = newIds;
+            count = n;
+            ready = true;
+        } else {
+            splice(from, to, newStarts, newIds, n);
+        }
+        if (onUpdated != null) onUpdated.run();
+        schedule();
+    }
+
+    // like markDirty() but without bumping the generation (nothing new happened)
+    private void markDirtyRange(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(itemCount, to);
+        if (from >= to) return;
+        dirtyStart = dirtyStart < 0 ? from : Math.min(dirtyStart, from);
+        dirtyEnd = dirtyEnd < 0 ? to : Math.max(dirtyEnd, to);
+    }
+
+    /** Replaces the sections in [from, to) with freshly scanned ones and merges at both edges. */
+    private void splice(int from, int to, int[] newStarts, int[] newIds, int n) {
+        // section that continues at `to` once [from, to) is cut out
+        int tail = sectionAt(to);
+        boolean hasTail = to < itemCount && tail >= 0;
+        int tailId = hasTail ? ids[tail] : 0;
+
+        int[] outStarts = new int[count + n + 1];
+        int[] outIds = new int[count + n + 1];
+        int out = 0;
+        int i = 0;
+        while (i < count && starts[i] < from) {
+            outStarts[out] = starts[i];
+            outIds[out++] = ids[i++];
+        }
+        for (int k = 0; k < n; k++) {
+            if (out > 0 && outIds[out - 1] == newIds[k]) continue; // same section as before `from`
+            outStarts[out] = newStarts[k];
+            outIds[out++] = newIds[k];
+        }
+        while (i < count && starts[i] < to) i++;
+        if (hasTail && (i == count || starts[i] != to)) {
+            // the tail section started inside [from, to): it now starts at `to`
+            if (out == 0 || outIds[out - 1] != tailId) {
+                outStarts[out] = to;
+                outIds[out++] = tailId;
+            }
+        }
+        while (i < count) {
+            if (out > 0 && outIds[out - 1] == ids[i]) {
+                i++; // merge
+                continue;
+            }
+            outStarts[out] = starts[i];
+            outIds[out++] = ids[i++];
+        }
+        starts = outStarts;
+        ids = outIds;
+        count = out;
+    }
+
+    private void insertSection(int start, int id) {
+        int at = 0;
+        while (at < count && starts[at] < start) at++;
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count + 8);
+            ids = Arrays.copyOf(ids, count + 8);
+        }
+        System.arraycopy(starts, at, starts, at + 1, count - at);
+        System.arraycopy(ids, at, ids, at + 1, count - at);
+        starts[at] = start;
+        ids[at] = id;
+        count++;
+    }
+}
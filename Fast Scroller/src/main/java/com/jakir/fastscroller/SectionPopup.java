@@ -0,0 +1,181 @@
+package com.jakir.fastscroller;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.GradientDrawable;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.core.graphics.ColorUtils;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Label bubble shown beside the thumb while dragging (above it for horizontal bars). Created on first use,
+ * added next to the RecyclerView. Only moves (setY / setX) while dragging.
+ * <p>
+ * Labels are drawn from a {@link LabelCache} of prebuilt StaticLayouts instead of a TextView, so switching
+ * sections is a cache lookup and an invalidate: no measuring, no String, no layout pass. The view only grows
+ * (one layout request) when a label wider than every earlier one shows up.
+ */
+class SectionPopup {
+
+    private static final int HEIGHT_DP = 56;
+    private static final int MIN_WIDTH_DP = 56;
+    private static final int PADDING_DP = 16;
+    private static final int GAP_DP = 12;   // space between popup and thumb
+    private static final int TEXT_SIZE_SP = 24;
+    private static final long FADE_DURATION = 150L;
+
+    private final LabelView view;
+    private final LabelCache labels;
+    private final int heightPx;
+    private final boolean horizontal;
+    private int sectionId;
+    private boolean hasSection = false;
+    private boolean showing = false;
+    private MetricsRecorder metrics;
+
+    SectionPopup(RecyclerView rv, int scrollbarEndDp, int color, boolean horizontal) {
+        Context context = rv.getContext();
+        this.horizontal = horizontal;
+        ViewGroup container = (ViewGroup) rv.getParent();
+        heightPx = FastScroller.dpToPx(context, HEIGHT_DP);
+
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(ColorUtils.calculateLuminance(color) > 0.5 ? Color.BLACK : Color.WHITE);
+        paint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE_SP, context.getResources().getDisplayMetrics()));
+        paint.setTypeface(Typeface.DEFAULT_BOLD);
+        labels = new LabelCache(paint);
+
+        GradientDrawable background = new GradientDrawable();
+        background.setColor(color);
+        background.setCornerRadius(heightPx / 2f);
+        view = new LabelView(context, background, FastScroller.dpToPx(context, MIN_WIDTH_DP),
+                FastScroller.dpToPx(context, PADDING_DP), horizontal);
+        view.setAlpha(0f);
+        view.setVisibility(View.INVISIBLE);
+        view.setTag(FastScroller.TAG_POPUP);
+
+        view.setLayoutParams(ViewScrollbarRenderer.generateLayoutParams(container, MIN_WIDTH_DP, HEIGHT_DP, scrollbarEndDp + GAP_DP, horizontal));
+        container.addView(view);
+    }
+
+    void setMetrics(MetricsRecorder metrics) {
+        this.metrics = metrics;
+    }
+
+    /** Shows the label of {@code id}; the provider is only asked on a cache miss. */
+    void setSection(int id, SectionProvider provider) {
+        if (hasSection && id == sectionId) return;
+        hasSection = true;
+        sectionId = id;
+        StaticLayout layout = labels.get(id, provider);
+        view.setLabel(layout);
+
+        // grow once for a wider label, never shrink back (that would be a layout pass per label)
+        int width = view.bubbleWidth(layout);
+        ViewGroup.LayoutParams lp = view.getLayoutParams();
+        if (width > lp.width) {
+            lp.width = width;
+            view.setLayoutParams(lp);
+            if (metrics != null) metrics.onLayoutRequest();
+        }
+    }
+
+    /** Builds the label of {@code id} in the background so a later {@link #setSection} is a cache hit. */
+    void prewarm(int id, SectionProvider provider) {
+        labels.prewarm(id, provider);
+    }
+
+    /** Forgets cached labels (provider or data changed). */
+    void clearLabels() {
+        labels.clear();
+        hasSection = false;
+    }
+
+    /** Centers the popup on {@code center} along the scroll axis (RecyclerView coordinates), kept inside the list. */
+    void show(float center, int containerLength) {
+        // before the first layout pass the width is unknown: assume a round bubble
+        int size = horizontal ? Math.max(view.getWidth(), heightPx) : heightPx;
+        float pos = center - size / 2f;
+        if (pos > containerLength - size) pos = containerLength - size;
+        if (pos < 0) pos = 0;
+        if (horizontal) {
+            view.setX(pos);
+        } else {
+            view.setY(pos);
+        }
+
+        if (showing) return;
+        showing = true;
+        view.animate().cancel();
+        view.setVisibility(View.VISIBLE);
+        view.animate().alpha(1f).setDuration(FADE_DURATION).withEndAction(null).start();
+        if (metrics != null) metrics.onAnimatorStart();
+    }
+
+    void hide() {
+        if (!showing) return;
+        showing = false;
+        view.animate().cancel();
+        view.animate().alpha(0f).setDuration(FADE_DURATION).withEndAction(() -> view.setVisibility(View.INVISIBLE)).start();
+        if (metrics != null) metrics.onAnimatorStart();
+    }
+
+    void remove() {
+        view.animate().cancel();
+        labels.clear();
+        ViewGroup parent = (ViewGroup) view.getParent();
+        if (parent != null) parent.removeView(view);
+    }
+
+    // -------------------- Label view --------------------
+
+    /** Draws the bubble and the cached label; changing the label is an invalidate only. */
+    private static final class LabelView extends View {
+        private final GradientDrawable background;
+        private final int minWidth;
+        private final int padding;
+        private final boolean centered;  // horizontal bars: bubble centered, vertical bars: against the end edge
+        private StaticLayout label;
+
+        LabelView(Context context, GradientDrawable background, int minWidth, int padding, boolean centered) {
+            super(context);
+            this.background = background;
+            this.minWidth = minWidth;
+            this.padding = padding;
+            this.centered = centered;
+        }
+
+        int bubbleWidth(StaticLayout layout) {
+            return Math.max(minWidth, (int) Math.ceil(layout.getLineWidth(0)) + 2 * padding);
+        }
+
+        void setLabel(StaticLayout layout) {
+            if (label == layout) return;
+            label = layout;
+            invalidate();
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            if (label == null) return;
+            int width = Math.min(getWidth(), bubbleWidth(label));
+            int left = centered ? (getWidth() - width) / 2 : getWidth() - width;
+            background.setBounds(left, 0, left + width, getHeight());
+            background.draw(canvas);
+
+            float textWidth = label.getLineWidth(0);
+            canvas.save();
+            canvas.translate(left + (width - textWidth) / 2f, (getHeight() - label.getHeight()) / 2f);
+            label.draw(canvas);
+            canvas.restore();
+        }
+    }
+}
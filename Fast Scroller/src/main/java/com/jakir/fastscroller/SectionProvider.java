@@ -0,0 +1,30 @@
+package com.jakir.fastscroller;
+
+/**
+ * Supplies sections (letters, dates, ...) for the popup label shown next to the thumb while dragging.
+ * <p>
+ * Consecutive positions with the same id form one section. Section starts are computed once, in
+ * batches on a background thread, and then kept current from adapter change notifications,
+ * so neither method is called per drag event.
+ * <p>
+ * Usage:
+ * FastScroller.attach(recyclerView).setSectionProvider(new SectionProvider() {
+ * public int getSectionId(int position) { return names.get(position).charAt(0); }
+ * public CharSequence getSectionLabel(int sectionId) { return String.valueOf((char) sectionId); }
+ * });
+ */
+public interface SectionProvider {
+
+    /**
+     * Section id of the item at {@code position}.
+     * Called on a background thread: read only your data here (never views) and keep it thread-safe.
+     */
+    int getSectionId(int position);
+
+    /**
+     * Popup text for a section. Called on the main thread, once per section: for the section under the thumb and
+     * a few around it (their labels are pre-built in the background). The result is cached by id until the
+     * provider is replaced or the adapter reports a full data change.
+     */
+    CharSequence getSectionLabel(int sectionId);
+}
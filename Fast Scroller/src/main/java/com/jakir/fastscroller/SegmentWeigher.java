@@ -0,0 +1,31 @@
+package com.jakir.fastscroller;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Share of the thumb travel given to each sub-adapter of a ConcatAdapter, see
+ * {@link FastScroller#setConcatSegmentsEnabled(boolean)}.
+ * <p>
+ * Weights are relative; each non-empty segment gets weight / sum of all weights of the track. Only called when
+ * the segment table is rebuilt (an adapter was added / removed or a sub-adapter's item count changed), never
+ * while scrolling.
+ * <p>
+ * Usage (header gets a sliver, the two data sources split the rest evenly):
+ * scroller.setSegmentWeigher((segment, adapter, itemCount) -> adapter == header ? 0.05f : 1f);
+ */
+public interface SegmentWeigher {
+
+    /** Travel proportional to item count (same thumb mapping as without segments). */
+    SegmentWeigher ITEM_COUNT = (segment, adapter, itemCount) -> itemCount;
+
+    /** Every non-empty segment gets the same travel, however many items it has. */
+    SegmentWeigher EQUAL = (segment, adapter, itemCount) -> 1f;
+
+    /**
+     * @param segment   index of the sub-adapter among the non-empty ones
+     * @param adapter   the sub-adapter
+     * @param itemCount its current item count (> 0)
+     * @return weight >= 0; 0 -> the segment is skipped over by the thumb
+     */
+    float getWeight(int segment, RecyclerView.Adapter<?> adapter, int itemCount);
+}
@@ -0,0 +1,303 @@
+package com.jakir.fastscroller;
+
+import static android.view.ViewGroup.LayoutParams.MATCH_PARENT;
+import static android.view.ViewGroup.LayoutParams.WRAP_CONTENT;
+
+import android.content.Context;
+import android.graphics.drawable.GradientDrawable;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.RelativeLayout;
+
+import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Classic renderer: track, thumb and touch area are three views added next to the RecyclerView.
+ * Layout params are only touched when the target thumb size changes; per-frame motion is transform-only:
+ * setY / setX for the position and a scale pivoted on the start edge for the animated length.
+ */
+class ViewScrollbarRenderer implements ScrollbarRenderer {
+
+    private final RecyclerView recyclerView;
+    private final int marginFromEndDp;
+    private final int normalColor;
+    private final int activeColor;
+    private final float extraTouchAreaHeight;
+    private final boolean horizontal;  // bar along the bottom edge instead of the end edge
+
+    // views
+    private View track;
+    private View thumb;
+    private View touchArea;
+    private GradientDrawable thumbDrawable;
+    private MetricsRecorder metrics;
+    private int layoutLength = 0;      // thumb length the views are laid out at (px)
+    private float thumbLength = 0f;    // visual length, layoutLength x scale
+
+    ViewScrollbarRenderer(RecyclerView rv, int allWidthDp, int marginFromEndDp, int minimumThumbHeightDp, int touchAreaWidthDp, float extraTouchAreaHeight, int normalColor, int activeColor, int trackColor, boolean horizontal, View.OnTouchListener dragListener) {
+        this.recyclerView = rv;
+        this.horizontal = horizontal;
+        this.marginFromEndDp = marginFromEndDp;
+        this.normalColor = normalColor;
+        this.activeColor = activeColor;
+        this.extraTouchAreaHeight = extraTouchAreaHeight;
+
+        Context context = rv.getContext();
+        createTrack(context, allWidthDp, trackColor);
+        createThumb(context, allWidthDp, minimumThumbHeightDp);
+        createTouchArea(context, touchAreaWidthDp, minimumThumbHeightDp);
+
+        track.setTag(FastScroller.TAG_TRACK);
+        thumb.setTag(FastScroller.TAG_THUMB);
+        touchArea.setTag(FastScroller.TAG_TOUCH);
+
+        touchArea.setOnTouchListener(dragListener);
+    }
+
+    // -------------------- View creation --------------------
+    private void createTrack(Context context, int allWidthDp, int trackColor) {
+        ViewGroup container = (ViewGroup) recyclerView.getParent();
+        track = new View(context);
+        track.setBackgroundColor(trackColor);
+
+        ViewGroup.LayoutParams lp = horizontal
+                ? generateLayoutParams(container, MATCH_PARENT, allWidthDp, marginFromEndDp, true)
+                : generateLayoutParams(container, allWidthDp, MATCH_PARENT, marginFromEndDp, false);
+        track.setLayoutParams(lp);
+
+        container.addView(track);
+        fixLinearLayoutPosition(track);
+    }
+
+    private void createThumb(Context context, int allWidthDp, int minimumThumbHeightDp) {
+        ViewGroup container = (ViewGroup) recyclerView.getParent();
+
+        thumb = new View(context);
+        thumbDrawable = new GradientDrawable();
+        thumbDrawable.setColor(normalColor);
+        thumbDrawable.setCornerRadius(FastScroller.dpToPx(context, 50));
+        thumb.setBackground(thumbDrawable);
+
+        ViewGroup.LayoutParams lp = horizontal
+                ? generateLayoutParams(container, minimumThumbHeightDp, allWidthDp, marginFromEndDp, true)
+                : generateLayoutParams(container, allWidthDp, minimumThumbHeightDp, marginFromEndDp, false);
+        thumb.setLayoutParams(lp);
+
+        container.addView(thumb);
+        fixLinearLayoutPosition(thumb);
+    }
+
+    private void createTouchArea(Context context, int touchAreaWidthDp, int minimumThumbHeightDp) {
+        ViewGroup container = (ViewGroup) recyclerView.getParent();
+
+        touchArea = new View(context);
+        touchArea.setBackgroundColor(0x00000000); // invisible by default
+
+        // initial height same as minimum thumb height
+        ViewGroup.LayoutParams lp = horizontal
+                ? generateLayoutParams(container, minimumThumbHeightDp, touchAreaWidthDp, 0, true)
+                : generateLayoutParams(container, touchAreaWidthDp, minimumThumbHeightDp, 0, false);
+        touchArea.setLayoutParams(lp);
+
+        container.addView(touchArea);
+        fixLinearLayoutPosition(touchArea);
+    }
+
+    // -------------------- Layout params helper (multi-parent safe) --------------------
+
+    /**
+     * @param bottom false -> pinned to the end edge (margin = margin-end), true -> pinned to the bottom edge
+     *               (margin = bottom margin)
+     */
+    static ViewGroup.LayoutParams generateLayoutParams(View parent, int widthDp, int heightDp, int marginFromEndDp, boolean bottom) {
+        int widthPx = (widthDp == MATCH_PARENT || widthDp == WRAP_CONTENT) ? widthDp : FastScroller.dpToPx(parent.getContext(), widthDp);
+        int heightPx = (heightDp == MATCH_PARENT || heightDp == WRAP_CONTENT) ? heightDp : FastScroller.dpToPx(parent.getContext(), heightDp);
+        int endMarginPx = FastScroller.dpToPx(parent.getContext(), marginFromEndDp);
+
+        ViewGroup.MarginLayoutParams lp;
+        if (parent instanceof FrameLayout) {
+            FrameLayout.LayoutParams fl = new FrameLayout.LayoutParams(widthPx, heightPx);
+            fl.gravity = bottom ? Gravity.BOTTOM | Gravity.START : Gravity.END;
+            lp = fl;
+        } else if (parent instanceof RelativeLayout) {
+            RelativeLayout.LayoutParams rl = new RelativeLayout.LayoutParams(widthPx, heightPx);
+            rl.addRule(bottom ? RelativeLayout.ALIGN_PARENT_BOTTOM : RelativeLayout.ALIGN_PARENT_END);
+            lp = rl;
+        } else if (parent instanceof ConstraintLayout) {
+            ConstraintLayout.LayoutParams cl = new ConstraintLayout.LayoutParams(widthPx, heightPx);
+            if (bottom) {
+                cl.startToStart = ConstraintLayout.LayoutParams.PARENT_ID;
+                cl.bottomToBottom = ConstraintLayout.LayoutParams.PARENT_ID;
+            } else {
+                cl.endToEnd = ConstraintLayout.LayoutParams.PARENT_ID;
+                cl.topToTop = ConstraintLayout.LayoutParams.PARENT_ID;
+                cl.bottomToBottom = ConstraintLayout.LayoutParams.PARENT_ID;
+            }
+            lp = cl;
+        } else if (parent instanceof LinearLayout) {
+            // gravity on child in LinearLayout is relative to parent's orientation.
+            // We set margin end; final X-position will be corrected via translation for reliable right-alignment.
+            lp = new LinearLayout.LayoutParams(widthPx, heightPx);
+        } else {
+            lp = new ViewGroup.MarginLayoutParams(widthPx, heightPx);
+        }
+
+        if (bottom) {
+            lp.bottomMargin = endMarginPx;
+        } else {
+            lp.setMarginEnd(endMarginPx);
+        }
+        return lp;
+    }
+
+    /**
+     * LinearLayout children cannot be simply right-aligned with gravity unless the LinearLayout is horizontal/uses gravity.
+     * To guarantee right-edge placement in any LinearLayout parent, we translate the child to the parent's end.
+     */
+    private void fixLinearLayoutPosition(final View child) {
+        ViewGroup parent = (ViewGroup) recyclerView.getParent();
+        if (horizontal || !(parent instanceof LinearLayout)) return;
+
+        // Post to ensure parent width is available after layout
+        parent.post(() -> {
+            int parentWidth = parent.getWidth();
+            if (parentWidth == 0) return;
+
+            int endMarginPx = FastScroller.dpToPx(parent.getContext(), marginFromEndDp);
+            int childWidth = child.getLayoutParams().width;
+            if (childWidth == MATCH_PARENT) {
+                // nothing to do
+                return;
+            }
+
+            float targetX = parentWidth - endMarginPx - childWidth;
+            if (targetX < 0) targetX = 0;
+            child.setTranslationX(targetX);
+        });
+    }
+
+    // -------------------- ScrollbarRenderer --------------------
+    @Override
+    public void setBarThickness(int thicknessPx) {
+        setThicknessIfChanged(thumb, thicknessPx);
+        setThicknessIfChanged(track, thicknessPx);
+    }
+
+    @Override
+    public void setThumbLayoutLength(int lengthPx) {
+        if (layoutLength == lengthPx) return;
+        layoutLength = lengthPx;
+        setLengthIfChanged(thumb, lengthPx);
+        setLengthIfChanged(touchArea, lengthPx + (int) extraTouchAreaHeight);
+    }
+
+    @Override
+    public void setThumb(float start, float length) {
+        thumbLength = length;
+        float scale = layoutLength > 0 ? length / layoutLength : 1f;
+        float touchScale = (length + extraTouchAreaHeight) / (layoutLength + extraTouchAreaHeight);
+        float touchStart = start - (extraTouchAreaHeight / 2);
+        if (horizontal) {
+            thumb.setPivotX(0f);
+            thumb.setScaleX(scale);
+            thumb.setX(start);
+            touchArea.setPivotX(0f);
+            touchArea.setScaleX(touchScale);
+            touchArea.setX(touchStart);
+        } else {
+            thumb.setPivotY(0f);
+            thumb.setScaleY(scale);
+            thumb.setY(start);
+            touchArea.setPivotY(0f);
+            touchArea.setScaleY(touchScale);
+            touchArea.setY(touchStart);
+        }
+    }
+
+    @Override
+    public float getThumbStart() {
+        return horizontal ? thumb.getX() : thumb.getY();
+    }
+
+    @Override
+    public float getThumbLength() {
+        return thumbLength;
+    }
+
+    @Override
+    public void setReveal(float fraction) {
+        slide(track, fraction);
+        slide(thumb, fraction);
+        slide(touchArea, fraction);
+    }
+
+    // out past the end edge (vertical) or the bottom edge (horizontal), fading on the way
+    private void slide(View v, float fraction) {
+        float hidden = 1f - fraction;
+        if (horizontal) {
+            v.setTranslationY(hidden * v.getHeight());
+        } else {
+            v.setTranslationX(hidden * v.getWidth());
+        }
+        v.setAlpha(fraction);
+    }
+
+    @Override
+    public void setMarkers(MarkerLayer markers) {
+        // the track fades and slides with the bar, the foreground goes along
+        track.setForeground(markers);
+    }
+
+    @Override
+    public void setActive(boolean active) {
+        if (thumbDrawable != null) thumbDrawable.setColor(active ? activeColor : normalColor);
+    }
+
+    @Override
+    public void setMetrics(MetricsRecorder metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void remove() {
+        touchArea.setOnTouchListener(null);
+        track.setForeground(null);
+        ViewGroup parent = (ViewGroup) track.getParent();
+        if (parent != null) {
+            parent.removeView(track);
+            parent.removeView(thumb);
+            parent.removeView(touchArea);
+        }
+    }
+
+    // setLayoutParams() always calls requestLayout(), so skip it when nothing changed
+    private void setThicknessIfChanged(View v, int px) {
+        if (horizontal) setHeightIfChanged(v, px);
+        else setWidthIfChanged(v, px);
+    }
+
+    private void setLengthIfChanged(View v, int px) {
+        if (horizontal) setWidthIfChanged(v, px);
+        else setHeightIfChanged(v, px);
+    }
+
+    private void setWidthIfChanged(View v, int widthPx) {
+        ViewGroup.LayoutParams lp = v.getLayoutParams();
+        if (lp.width == widthPx) return;
+        lp.width = widthPx;
+        v.setLayoutParams(lp);
+        if (metrics != null) metrics.onLayoutRequest();
+    }
+
+    private void setHeightIfChanged(View v, int heightPx) {
+        ViewGroup.LayoutParams lp = v.getLayoutParams();
+        if (lp.height == heightPx) return;
+        lp.height = heightPx;
+        v.setLayoutParams(lp);
+        if (metrics != null) metrics.onLayoutRequest();
+    }
+}
@@ -0,0 +1,172 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.recyclerview.widget.ConcatAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Segment table of a ConcatAdapter: boundaries, weighted travel (down to the part of an item scrolled out) and
+ * updates from sub-adapter events.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class ConcatSegmentsTest {
+
+    private static final int VISIBLE = 10;
+
+    private final TestLists.CountingAdapter header = new TestLists.CountingAdapter(1);
+    private final TestLists.CountingAdapter big = new TestLists.CountingAdapter(10_000);
+    private final TestLists.CountingAdapter small = new TestLists.CountingAdapter(100);
+    private final ConcatAdapter concat = new ConcatAdapter(header, big, small);
+
+    @Test
+    public void itemCountWeights_matchTheFlatMapping() {
+        ConcatSegments segments = ensured(new ConcatSegments(concat));
+        int lastFirst = total() - VISIBLE;
+
+        assertEquals(3, segments.segmentCount());
+        assertEquals(0, segments.segmentStart(0));
+        assertEquals(1, segments.segmentStart(1));
+        assertEquals(10_001, segments.segmentStart(2));
+        for (int p = 0; p <= lastFirst; p += 97) {
+            assertEquals((double) p / lastFirst, segments.ratioForPosition(p, lastFirst), 1e-9);
+        }
+    }
+
+    @Test
+    public void equalWeights_giveEverySegmentTheSameTravel() {
+        ConcatSegments segments = new ConcatSegments(concat);
+        segments.setWeigher(SegmentWeigher.EQUAL);
+        ensured(segments);
+        int lastFirst = total() - VISIBLE;
+
+        // the small source starts two thirds along the travel, relative to the last reachable position
+        double end = 2d / 3d + (1d / 3d) * (100 - VISIBLE) / 100d;
+        assertEquals((2d / 3d) / end, segments.segmentStartRatio(2, lastFirst), 1e-9);
+        assertEquals(1d, segments.ratioForPosition(lastFirst, lastFirst), 1e-12);
+    }
+
+    @Test
+    public void positionForRatio_invertsRatioForPosition() {
+        ConcatSegments segments = new ConcatSegments(concat);
+        segments.setWeigher(SegmentWeigher.EQUAL);
+        ensured(segments);
+        int lastFirst = total() - VISIBLE;
+
+        for (int p = 0; p <= lastFirst; p++) {
+            int back = segments.positionForRatio(segments.ratioForPosition(p, lastFirst), lastFirst);
+            assertTrue("position " + p + " -> " + back, Math.abs(back - p) <= 1);
+        }
+        assertEquals(0, segments.positionForRatio(0d, lastFirst));
+        assertEquals(lastFirst, segments.positionForRatio(1d, lastFirst));
+    }
+
+    @Test
+    public void positionForRatio_leavesTheTravelWithinTheItem() {
+        ConcatSegments segments = new ConcatSegments(concat);
+        segments.setWeigher(SegmentWeigher.EQUAL);
+        ensured(segments);
+        int lastFirst = total() - VISIBLE;
+
+        // small items: 1/300 of the travel each, a quarter of the way into position 10_050
+        double ratio = segments.ratioForPosition(10_050, 0.25d, lastFirst);
+        assertTrue(ratio > segments.ratioForPosition(10_050, lastFirst));
+        assertTrue(ratio < segments.ratioForPosition(10_051, lastFirst));
+        assertEquals(10_050, segments.positionForRatio(ratio, lastFirst));
+        assertEquals(0.25d, segments.fraction(), 1e-6);
+
+        assertEquals(lastFirst, segments.positionForRatio(1d, lastFirst));
+        assertEquals(0d, segments.fraction(), 0d);
+    }
+
+    @Test
+    public void hugeSegments_keepEveryPositionReachable() {
+        TestLists.CountingAdapter huge = new TestLists.CountingAdapter(100_000_000);
+        ConcatSegments segments = ensured(new ConcatSegments(new ConcatAdapter(header, huge)));
+        int lastFirst = 100_000_001 - VISIBLE;
+
+        // a float ratio has steps of ~6 items up here
+        for (int p = lastFirst - 1_000; p <= lastFirst; p++) {
+            int back = segments.positionForRatio(segments.ratioForPosition(p, lastFirst), lastFirst);
+            assertTrue("position " + p + " -> " + back, Math.abs(back - p) <= 1);
+        }
+    }
+
+    @Test
+    public void zeroWeightSegment_isSkipped() {
+        ConcatSegments segments = new ConcatSegments(concat);
+        segments.setWeigher((segment, adapter, itemCount) -> adapter == header ? 0f : 1f);
+        ensured(segments);
+
+        assertEquals(1, segments.positionForRatio(0d, total() - VISIBLE));
+    }
+
+    @Test
+    public void subAdapterChanges_moveTheBoundaries() {
+        ConcatSegments segments = ensured(new ConcatSegments(concat));
+
+        big.count += 500;
+        big.notifyItemRangeInserted(0, 500);
+        header.count = 0;
+        header.notifyItemRangeRemoved(0, 1);
+        ensured(segments);
+
+        assertEquals(2, segments.segmentCount());
+        assertEquals(10_500, segments.segmentStart(1));
+        assertEquals(10_500, segments.startOf(small));
+        assertEquals(RecyclerView.NO_POSITION, segments.startOf(header));
+    }
+
+    @Test
+    public void addedAdapter_isPickedUpOnTheNextStructureCheck() {
+        ConcatSegments segments = ensured(new ConcatSegments(concat));
+        TestLists.CountingAdapter footer = new TestLists.CountingAdapter(3);
+
+        concat.addAdapter(footer);
+        segments.onConcatChanged();
+        ensured(segments);
+
+        assertEquals(4, segments.segmentCount());
+        assertEquals(10_101, segments.startOf(footer));
+
+        footer.count = 5;
+        footer.notifyItemRangeInserted(3, 2);
+        concat.removeAdapter(big);
+        segments.onConcatChanged();
+        ensured(segments);
+
+        assertEquals(3, segments.segmentCount());
+        assertEquals(101, segments.startOf(footer));
+    }
+
+    @Test
+    public void replacedAdapterWithTheSameCount_isPickedUp() {
+        ConcatSegments segments = ensured(new ConcatSegments(concat));
+        TestLists.CountingAdapter replacement = new TestLists.CountingAdapter(100);
+
+        concat.removeAdapter(small);
+        concat.addAdapter(replacement);
+        segments.onConcatChanged();
+        ensured(segments);
+
+        assertEquals(3, segments.segmentCount());
+        assertEquals(10_001, segments.startOf(replacement));
+        assertEquals(RecyclerView.NO_POSITION, segments.startOf(small));
+    }
+
+    private ConcatSegments ensured(ConcatSegments segments) {
+        segments.ensure();
+        return segments;
+    }
+
+    private int total() {
+        return concat.getItemCount();
+    }
+}
@@ -0,0 +1,114 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data-window requests: checked on drag frames and once the finger rests, never by polling.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DataWindowTest {
+
+    private FrameLayout parent;
+    private RecyclerView rv;
+    private LinearLayoutManager lm;
+    private FastScroller scroller;
+    private View touch;
+    private float x;
+    private float y;
+    private final List<int[]> requested = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        FrameScheduler.reset();
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        parent = new FrameLayout(activity);
+        rv = TestLists.addRecyclerView(parent, 100_000);
+        lm = TestLists.layoutManager(rv);
+        activity.setContentView(parent);
+        TestLists.idle(100);
+
+        scroller = FastScroller.attach(rv).setDataWindowListener((start, end) -> requested.add(new int[]{start, end}));
+        scroller.scrollListener.onScrolled(rv, 0, 12);
+        TestLists.idle(300); // reveal
+        touch = parent.findViewWithTag(FastScroller.TAG_TOUCH);
+        x = touch.getX() + touch.getWidth() / 2f;
+    }
+
+    @Test
+    public void slowDrag_reportsTheLandingRange() {
+        down();
+        for (int i = 0; i < 20; i++) move(4);  // 250 px/s
+        assertFalse(requested.isEmpty());
+
+        up();
+        TestLists.idle(100);
+        int[] last = requested.get(requested.size() - 1);
+        int first = lm.findFirstVisibleItemPosition();
+        assertTrue(first > 0);
+        assertTrue(last[0] <= first && first < last[1]);
+    }
+
+    @Test
+    public void fastDrag_onlyReportsOnRelease() {
+        down();
+        for (int i = 0; i < 20; i++) move(40);  // 2500 px/s
+        assertTrue(requested.isEmpty());
+
+        up();
+        assertEquals(1, requested.size());
+    }
+
+    @Test
+    public void restingFinger_reportsWithoutFurtherEvents() {
+        down();
+        for (int i = 0; i < 10; i++) move(40);
+        assertTrue(requested.isEmpty());
+
+        TestLists.idle(250);  // no more events: the velocity window empties
+        assertEquals(1, requested.size());
+        TestLists.idle(500);
+        assertEquals(1, requested.size());
+    }
+
+    private void down() {
+        y = 10;
+        long t = SystemClock.uptimeMillis();
+        touch.dispatchTouchEvent(MotionEvent.obtain(t, t, MotionEvent.ACTION_DOWN, x, y, 0));
+        assertTrue(scroller.isDragging());
+    }
+
+    // one move per 16 ms frame
+    private void move(float dy) {
+        TestLists.idle(16);
+        y += dy;
+        long t = SystemClock.uptimeMillis();
+        touch.dispatchTouchEvent(MotionEvent.obtain(t, t, MotionEvent.ACTION_MOVE, x, y, 0));
+    }
+
+    private void up() {
+        long t = SystemClock.uptimeMillis();
+        touch.dispatchTouchEvent(MotionEvent.obtain(t, t, MotionEvent.ACTION_UP, x, y, 0));
+    }
+}
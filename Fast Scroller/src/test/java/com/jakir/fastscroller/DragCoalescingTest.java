@@ -0,0 +1,170 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.time.Duration;
+
+/**
+ * Frame-coalesced drag: the list is scrolled at most once per frame, to the latest target, and not at all
+ * when the target did not change. Frames are only given up after a scroll whose layout overran, not after
+ * the finger rested.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DragCoalescingTest {
+
+    private FrameLayout parent;
+    private RecyclerView rv;
+    private CountingLayoutManager lm;
+    private SlowAdapter adapter;
+    private FastScroller scroller;
+    private View touch;
+    private float x;
+    private float y;
+
+    @Before
+    public void setUp() {
+        FrameScheduler.reset();
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        parent = new FrameLayout(activity);
+        rv = TestLists.addRecyclerView(parent, 100_000);
+        lm = new CountingLayoutManager(activity);
+        rv.setLayoutManager(lm);
+        adapter = new SlowAdapter(100_000);
+        rv.setAdapter(adapter);
+        activity.setContentView(parent);
+        TestLists.idle(100);
+
+        scroller = FastScroller.attach(rv);
+        scroller.scrollListener.onScrolled(rv, 0, 12);
+        TestLists.idle(300); // reveal
+        touch = parent.findViewWithTag(FastScroller.TAG_TOUCH);
+        x = touch.getX() + touch.getWidth() / 2f;
+        lm.scrolls = 0;
+    }
+
+    @Test
+    public void movesWithinOneFrame_scrollOnceToTheLatestTarget() {
+        down();
+        for (int i = 0; i < 5; i++) move(30);
+        assertEquals(0, lm.scrolls); // nothing before the frame
+
+        TestLists.idle(16);
+        assertEquals(1, lm.scrolls);
+        int target = lm.lastPosition;
+        assertTrue(target > 0);
+
+        TestLists.idle(100); // no new input, no new scroll
+        assertEquals(1, lm.scrolls);
+        assertEquals(target, lm.findFirstVisibleItemPosition());
+    }
+
+    @Test
+    public void unchangedTarget_doesNotScroll() {
+        down();
+        move(60);
+        TestLists.idle(16);
+        assertEquals(1, lm.scrolls);
+
+        move(0);
+        move(0);
+        TestLists.idle(16);
+        assertEquals(1, lm.scrolls);
+    }
+
+    @Test
+    public void slowLayout_skipsFramesBeforeTheNextScroll() {
+        down();
+        move(30);
+        adapter.slowBinds = 1; // the binds of this scroll take 3 frames
+        TestLists.idle(16);
+        assertEquals(1, lm.scrolls);
+
+        move(30);
+        TestLists.idle(16);
+        assertEquals(1, lm.scrolls); // given to rendering
+
+        TestLists.idle(100);
+        assertEquals(2, lm.scrolls);
+    }
+
+    @Test
+    public void restingFinger_doesNotSkipFramesWhenItMovesAgain() {
+        down();
+        move(30);
+        TestLists.idle(16);
+        assertEquals(1, lm.scrolls);
+
+        TestLists.idle(500); // finger held still, no moves
+        move(30);
+        TestLists.idle(16);
+        assertEquals(2, lm.scrolls);
+    }
+
+    private void down() {
+        y = 10;
+        long t = SystemClock.uptimeMillis();
+        touch.dispatchTouchEvent(MotionEvent.obtain(t, t, MotionEvent.ACTION_DOWN, x, y, 0));
+        assertTrue(scroller.isDragging());
+    }
+
+    private void move(float dy) {
+        y += dy;
+        long t = SystemClock.uptimeMillis();
+        touch.dispatchTouchEvent(MotionEvent.obtain(t, t, MotionEvent.ACTION_MOVE, x, y, 0));
+    }
+
+    // a bind can be made to take 50 ms of (fake) time
+    private static class SlowAdapter extends TestLists.CountingAdapter {
+        int slowBinds = 0;
+
+        SlowAdapter(int count) {
+            super(count);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            super.onBindViewHolder(holder, position);
+            if (slowBinds > 0) {
+                slowBinds--;
+                ShadowSystemClock.advanceBy(Duration.ofMillis(50));
+            }
+        }
+    }
+
+    private static class CountingLayoutManager extends LinearLayoutManager {
+        int scrolls = 0;
+        int lastPosition = RecyclerView.NO_POSITION;
+
+        CountingLayoutManager(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void scrollToPositionWithOffset(int position, int offset) {
+            scrolls++;
+            lastPosition = position;
+            super.scrollToPositionWithOffset(position, offset);
+        }
+    }
+}
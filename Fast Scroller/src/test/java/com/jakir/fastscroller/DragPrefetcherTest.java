@@ -0,0 +1,69 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * A thumb jump to cold positions inflates a whole screen in one frame; with the landing range prefetched
+ * it must not inflate anything, and the pool goes back to its default size afterwards.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DragPrefetcherTest {
+
+    private static final int JUMP_TARGET = 5_000;
+
+    @Test
+    public void jumpWithoutPrefetch_inflatesAScreen() {
+        RecyclerView rv = TestLists.createLaidOutRecyclerView(10_000);
+
+        int created = jump(rv);
+
+        assertTrue("holders inflated by the jump: " + created, created > 5);
+    }
+
+    @Test
+    public void jumpAfterPrefetch_inflatesNothing() {
+        RecyclerView rv = TestLists.createLaidOutRecyclerView(10_000);
+
+        DragPrefetcher prefetcher = new DragPrefetcher(rv);
+        prefetcher.setLandingRange(JUMP_TARGET, rv.getLayoutManager().getChildCount() + 1);
+        prefetcher.fillPool(Long.MAX_VALUE);
+        assertTrue(prefetcher.getCreatedCount() > 0);
+
+        assertEquals(0, jump(rv));
+    }
+
+    @Test
+    public void restorePool_putsTheDefaultCapacityBack() {
+        RecyclerView rv = TestLists.createLaidOutRecyclerView(10_000);
+        RecyclerView.RecycledViewPool pool = rv.getRecycledViewPool();
+
+        DragPrefetcher prefetcher = new DragPrefetcher(rv);
+        prefetcher.setLandingRange(JUMP_TARGET, rv.getLayoutManager().getChildCount() + 1);
+        prefetcher.fillPool(Long.MAX_VALUE);
+        assertTrue(pool.getRecycledViewCount(0) > 5);
+
+        prefetcher.restorePool();
+        assertEquals(5, pool.getRecycledViewCount(0));
+        pool.putRecycledView(TestLists.adapter(rv).createViewHolder(rv, 0));
+        assertEquals(5, pool.getRecycledViewCount(0));
+    }
+
+    private static int jump(RecyclerView rv) {
+        TestLists.CountingAdapter adapter = TestLists.adapter(rv);
+        int before = adapter.created;
+        TestLists.layoutManager(rv).scrollToPositionWithOffset(JUMP_TARGET, 0);
+        TestLists.layout((ViewGroup) rv.getParent());
+        return adapter.created - before;
+    }
+}
@@ -0,0 +1,114 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Drag state callbacks, the cheap isDragging() query and the one-time rebind of the visible range on settle.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DragStateTest {
+
+    private FrameLayout parent;
+    private RecyclerView rv;
+    private LinearLayoutManager lm;
+    private TestLists.CountingAdapter adapter;
+    private final List<Integer> states = new ArrayList<>();
+    private boolean draggingSeen = false;
+
+    @Before
+    public void setUp() {
+        FrameScheduler.reset();
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        parent = new FrameLayout(activity);
+        rv = TestLists.addRecyclerView(parent, 100_000);
+        lm = TestLists.layoutManager(rv);
+        adapter = TestLists.adapter(rv);
+        activity.setContentView(parent);
+        TestLists.idle(100);
+    }
+
+    @Test
+    public void drag_goesThroughDraggingAndSettlingToIdle() {
+        FastScroller scroller = FastScroller.attach(rv).setDragStateListener((state, itemsPerSecond) -> {
+            states.add(state);
+            draggingSeen |= FastScroller.from(rv).isDragging();
+        });
+
+        drag(scroller);
+        assertEquals(DragStateListener.STATE_SETTLING, scroller.getDragState());
+        assertFalse(scroller.isDragging());
+        TestLists.idle(100);
+
+        assertEquals(Arrays.asList(DragStateListener.STATE_DRAGGING, DragStateListener.STATE_SETTLING,
+                DragStateListener.STATE_IDLE), states);
+        assertEquals(0f, scroller.getDragVelocity(), 0f);
+        assertTrue(draggingSeen);
+        assertEquals(0, adapter.settledBinds); // rebind is opt-in
+    }
+
+    @Test
+    public void rebindOnSettle_rebindsTheVisibleRangeOnce() {
+        FastScroller scroller = FastScroller.attach(rv).setRebindOnSettle(true);
+
+        drag(scroller);
+        TestLists.idle(100);
+
+        assertEquals(DragStateListener.STATE_IDLE, scroller.getDragState());
+        assertTrue(lm.findFirstVisibleItemPosition() > 0);
+        assertEquals(rv.getChildCount(), adapter.settledBinds);
+        TestLists.idle(500);
+        assertEquals(rv.getChildCount(), adapter.settledBinds);
+    }
+
+    @Test
+    public void detachWhileSettling_endsIdleWithoutRebind() {
+        FastScroller scroller = FastScroller.attach(rv).setRebindOnSettle(true)
+                .setDragStateListener((state, itemsPerSecond) -> states.add(state));
+
+        drag(scroller);
+        scroller.detach();
+        TestLists.idle(100);
+
+        assertEquals(DragStateListener.STATE_IDLE, (int) states.get(states.size() - 1));
+        assertEquals(0, adapter.settledBinds);
+    }
+
+    // down on the thumb, a long move, release
+    private void drag(FastScroller scroller) {
+        scroller.scrollListener.onScrolled(rv, 0, 12);
+        TestLists.idle(300); // reveal
+        View touch = parent.findViewWithTag(FastScroller.TAG_TOUCH);
+        float x = touch.getX() + touch.getWidth() / 2f;
+        long t = SystemClock.uptimeMillis();
+        touch.dispatchTouchEvent(MotionEvent.obtain(t, t, MotionEvent.ACTION_DOWN, x, 10, 0));
+        assertTrue(scroller.isDragging());
+        for (int i = 1; i <= 10; i++) {
+            touch.dispatchTouchEvent(MotionEvent.obtain(t, t + i * 16, MotionEvent.ACTION_MOVE, x, 10 + i * 40, 0));
+            TestLists.idle(16);
+        }
+        touch.dispatchTouchEvent(MotionEvent.obtain(t, t + 200, MotionEvent.ACTION_UP, x, 410, 0));
+    }
+}
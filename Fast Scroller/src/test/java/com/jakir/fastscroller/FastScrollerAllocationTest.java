@@ -0,0 +1,116 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.view.Choreographer;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Guards the scroll hot path: once warmed up, scrolling must not allocate, including the frame callbacks, spring
+ * steps and hide timer the scroller runs on the main looper between scroll events.
+ * <p>
+ * The list is scrolled for real (12 px down and up again, so no row is bound) and the looper idled for a frame
+ * after every step, then left alone until the thumb has hidden. Running the looper allocates inside Robolectric,
+ * so the same steps are measured on a list without a scroller, with a frame requested every step as the thumb
+ * does, and only the difference counts.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class FastScrollerAllocationTest {
+
+    private static final int SCROLL_STEPS = 200;
+    private static final int REST_STEPS = 160;       // 2.5 s: the hide timer fires and the thumb fades out
+    private static final int WARM_UP_CYCLES = 2;
+    private static final int MEASURED_CYCLES = 5;
+    private static final long FRAME_MS = 16L;
+    // Robolectric's own looper bookkeeping differs a little between the two runs; a leak of even a few bytes per
+    // step is well above this
+    private static final long LOOPER_SLACK_BYTES = 2_048L;
+
+    @Before
+    public void setUp() {
+        FrameScheduler.reset();
+    }
+
+    @Test
+    public void scrolling_allocatesNothingOnceWarmedUp() {
+        assertSteadyStateAllocations(false, false);
+    }
+
+    @Test
+    public void scrolling_allocatesNothingOnceWarmedUp_overlayMode() {
+        assertSteadyStateAllocations(true, false);
+    }
+
+    @Test
+    public void scrolling_allocatesNothingOnceWarmedUp_metricsEnabled() {
+        FastScroller scroller = assertSteadyStateAllocations(false, true);
+
+        assertEquals((long) (WARM_UP_CYCLES + MEASURED_CYCLES) * SCROLL_STEPS, scroller.getMetrics().scrolledCalls);
+    }
+
+    private FastScroller assertSteadyStateAllocations(boolean overlay, boolean metrics) {
+        RecyclerView plain = TestLists.createLaidOutRecyclerView(10_000);
+        FrameRequester frames = new FrameRequester();
+        for (int i = 0; i < WARM_UP_CYCLES; i++) cycle(plain, frames);
+        long before = currentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_CYCLES; i++) cycle(plain, frames);
+        long baseline = currentThreadAllocatedBytes() - before;
+
+        RecyclerView rv = TestLists.createLaidOutRecyclerView(10_000);
+        FastScroller scroller = FastScroller.attach(rv).setOverlayMode(overlay).setMetricsEnabled(metrics);
+        // first cycles show the thumb, grow the scheduler's lists and take every branch of reveal and hide once
+        for (int i = 0; i < WARM_UP_CYCLES; i++) cycle(rv, null);
+        before = currentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_CYCLES; i++) cycle(rv, null);
+        long allocated = currentThreadAllocatedBytes() - before;
+
+        int steps = MEASURED_CYCLES * (SCROLL_STEPS + REST_STEPS);
+        assertTrue("bytes allocated by " + steps + " scroll / frame steps: " + allocated + ", without a scroller: " + baseline,
+                allocated - baseline <= LOOPER_SLACK_BYTES);
+        return scroller;
+    }
+
+    // scroll with a frame after every event, then rest until the thumb is hidden
+    private static void cycle(RecyclerView rv, FrameRequester frames) {
+        for (int i = 0; i < SCROLL_STEPS; i++) {
+            rv.scrollBy(0, i % 2 == 0 ? 12 : -12);
+            if (frames != null) frames.request();
+            TestLists.idle(FRAME_MS);
+        }
+        for (int i = 0; i < REST_STEPS; i++) {
+            if (frames != null) frames.request();
+            TestLists.idle(FRAME_MS);
+        }
+    }
+
+    // baseline: keeps the Choreographer as busy as the thumb does, without doing anything in the frame
+    private static final class FrameRequester implements Choreographer.FrameCallback {
+        private boolean posted = false;
+
+        void request() {
+            if (posted) return;
+            posted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            posted = false;
+        }
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
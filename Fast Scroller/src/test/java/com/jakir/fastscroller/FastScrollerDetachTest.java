@@ -0,0 +1,116 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Re-attaching (e.g. on every data reload) must not pile up listeners, views or decorations.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class FastScrollerDetachTest {
+
+    private static final int ATTACHES = 20;
+
+    @Test
+    public void repeatedAttach_keepsOneInstance() throws Exception {
+        RecyclerView rv = TestLists.createLaidOutRecyclerView(1_000);
+        ViewGroup parent = (ViewGroup) rv.getParent();
+
+        FastScroller first = FastScroller.attach(rv);
+        int children = parent.getChildCount();
+        int listeners = scrollListenerCount(rv);
+
+        FastScroller last = first;
+        for (int i = 0; i < ATTACHES; i++) {
+            last = FastScroller.attach(rv);
+            last.scrollListener.onScrolled(rv, 0, 12);
+        }
+
+        assertFalse(first.isAttached());
+        assertTrue(last.isAttached());
+        assertSame(last, FastScroller.from(rv));
+        assertEquals(children, parent.getChildCount());
+        assertEquals(listeners, scrollListenerCount(rv));
+    }
+
+    @Test
+    public void repeatedAttach_overlayMode_keepsOneDecoration() {
+        RecyclerView rv = TestLists.createLaidOutRecyclerView(1_000);
+        FastScroller.attach(rv).setOverlayMode(true);
+        int decorations = rv.getItemDecorationCount();
+
+        for (int i = 0; i < ATTACHES; i++) {
+            FastScroller.attach(rv).setOverlayMode(true);
+        }
+
+        assertEquals(decorations, rv.getItemDecorationCount());
+    }
+
+    @Test
+    public void detach_removesEverything() throws Exception {
+        RecyclerView rv = TestLists.createLaidOutRecyclerView(1_000);
+        ViewGroup parent = (ViewGroup) rv.getParent();
+        int listeners = scrollListenerCount(rv);
+
+        FastScroller scroller = FastScroller.attach(rv);
+        scroller.scrollListener.onScrolled(rv, 0, 12);
+        scroller.detach();
+        scroller.detach(); // no-op
+
+        assertEquals(1, parent.getChildCount());
+        assertEquals(listeners, scrollListenerCount(rv));
+        assertNull(FastScroller.from(rv));
+    }
+
+    @Test
+    public void lifecycleDestroy_detaches() {
+        RecyclerView rv = TestLists.createLaidOutRecyclerView(1_000);
+        TestOwner owner = new TestOwner();
+        owner.registry.setCurrentState(Lifecycle.State.RESUMED);
+
+        FastScroller scroller = FastScroller.attach(rv).bindToLifecycle(owner);
+        owner.registry.setCurrentState(Lifecycle.State.CREATED);
+        assertTrue(scroller.isAttached());
+
+        owner.registry.setCurrentState(Lifecycle.State.DESTROYED);
+        assertFalse(scroller.isAttached());
+        assertNull(FastScroller.from(rv));
+    }
+
+    private static int scrollListenerCount(RecyclerView rv) throws Exception {
+        Field field = RecyclerView.class.getDeclaredField("mScrollListeners");
+        field.setAccessible(true);
+        List<?> listeners = (List<?>) field.get(rv);
+        return listeners == null ? 0 : listeners.size();
+    }
+
+    private static class TestOwner implements LifecycleOwner {
+        final LifecycleRegistry registry = new LifecycleRegistry(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return registry;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import android.os.SystemClock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer wheel and shared frame callback of {@link FrameScheduler}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class FrameSchedulerTest {
+
+    private static final long DELAY = 2_000L;
+
+    private final int[] fired = new int[8];
+    private FrameScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        FrameScheduler.reset();
+        scheduler = FrameScheduler.get();
+    }
+
+    @Test
+    public void timersFireAtTheirDeadline() {
+        FrameScheduler.Timer[] timers = timers();
+        long now = SystemClock.uptimeMillis();
+        for (FrameScheduler.Timer timer : timers) scheduler.schedule(timer, now + DELAY);
+
+        idle(DELAY - FrameScheduler.TICK_MS);
+        assertFired(0);
+        idle(2 * FrameScheduler.TICK_MS);
+        assertFired(1);
+    }
+
+    @Test
+    public void pushedDeadline_firesOnceAtTheLastDeadline() {
+        FrameScheduler.Timer[] timers = timers();
+        // a scroll every 100 ms for 5 s pushes every deadline along
+        for (int i = 0; i < 50; i++) {
+            long now = SystemClock.uptimeMillis();
+            for (FrameScheduler.Timer timer : timers) scheduler.schedule(timer, now + DELAY);
+            idle(100);
+        }
+        assertFired(0);
+
+        idle(DELAY - 100 - FrameScheduler.TICK_MS);
+        assertFired(0);
+        idle(2 * FrameScheduler.TICK_MS);
+        assertFired(1);
+    }
+
+    @Test
+    public void earlierDeadline_isHonoured() {
+        FrameScheduler.Timer timer = new FrameScheduler.Timer(() -> fired[0]++);
+        long now = SystemClock.uptimeMillis();
+        scheduler.schedule(timer, now + DELAY);
+        scheduler.schedule(timer, now + 200);
+
+        idle(300);
+        assertEquals(1, fired[0]);
+        idle(DELAY);
+        assertEquals(1, fired[0]);
+    }
+
+    @Test
+    public void deadlineBeyondOneTurn_firesOnTime() {
+        FrameScheduler.Timer timer = new FrameScheduler.Timer(() -> fired[0]++);
+        long delay = 3 * FrameScheduler.WHEEL_SLOTS * FrameScheduler.TICK_MS + 10;
+        scheduler.schedule(timer, SystemClock.uptimeMillis() + delay);
+
+        idle(delay - FrameScheduler.TICK_MS);
+        assertEquals(0, fired[0]);
+        idle(2 * FrameScheduler.TICK_MS);
+        assertEquals(1, fired[0]);
+    }
+
+    @Test
+    public void cancelledTimer_neverFires_evenFromAnEarlierActionOfTheSameTick() {
+        FrameScheduler.Timer victim = new FrameScheduler.Timer(() -> fired[1]++);
+        FrameScheduler.Timer canceller = new FrameScheduler.Timer(() -> {
+            fired[0]++;
+            scheduler.cancel(victim);
+        });
+        long deadline = SystemClock.uptimeMillis() + 500;
+        // same slot, the later one is first in line
+        scheduler.schedule(victim, deadline);
+        scheduler.schedule(canceller, deadline);
+
+        idle(1_000);
+        assertEquals(1, fired[0]);
+        assertEquals(0, fired[1]);
+    }
+
+    @Test
+    public void timerRearmedFromItsAction_firesAgain() {
+        FrameScheduler.Timer[] holder = new FrameScheduler.Timer[1];
+        holder[0] = new FrameScheduler.Timer(() -> {
+            if (++fired[0] < 3) scheduler.schedule(holder[0], SystemClock.uptimeMillis() + 500);
+        });
+        scheduler.schedule(holder[0], SystemClock.uptimeMillis() + 500);
+
+        idle(5_000);
+        assertEquals(3, fired[0]);
+    }
+
+    @Test
+    public void frameClient_runsOncePerPost() {
+        FrameScheduler.FrameClient a = frameTimeNanos -> fired[0]++;
+        FrameScheduler.FrameClient b = frameTimeNanos -> fired[1]++;
+        scheduler.postFrame(a);
+        scheduler.postFrame(a);
+        scheduler.postFrame(b);
+        scheduler.removeFrame(b);
+
+        idle(100);
+        assertEquals(1, fired[0]);
+        assertEquals(0, fired[1]);
+    }
+
+    @Test
+    public void frameClient_canPostItselfForTheNextFrame() {
+        FrameScheduler.FrameClient[] holder = new FrameScheduler.FrameClient[1];
+        holder[0] = frameTimeNanos -> {
+            if (++fired[0] < 5) scheduler.postFrame(holder[0]);
+        };
+        scheduler.postFrame(holder[0]);
+
+        for (int i = 0; i < 10; i++) idle(20);
+        assertEquals(5, fired[0]);
+    }
+
+    private FrameScheduler.Timer[] timers() {
+        FrameScheduler.Timer[] timers = new FrameScheduler.Timer[fired.length];
+        for (int i = 0; i < timers.length; i++) {
+            final int index = i;
+            timers[i] = new FrameScheduler.Timer(() -> fired[index]++);
+        }
+        return timers;
+    }
+
+    private void assertFired(int expected) {
+        for (int count : fired) assertEquals(expected, count);
+    }
+
+    private static void idle(long ms) {
+        shadowOf(Looper.getMainLooper()).idleFor(ms, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,94 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Popup labels: one provider call and one build per section, bounded size, background pre-warm.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class LabelCacheTest {
+
+    private final int[] labelCalls = new int[1];
+    private final SectionProvider provider = new SectionProvider() {
+        @Override
+        public int getSectionId(int position) {
+            return position;
+        }
+
+        @Override
+        public CharSequence getSectionLabel(int sectionId) {
+            labelCalls[0]++;
+            return "S" + sectionId;
+        }
+    };
+
+    @Test
+    public void switchingBackAndForth_isACacheHit() {
+        LabelCache cache = new LabelCache(new TextPaint());
+        StaticLayout a = cache.get(1, provider);
+        StaticLayout b = cache.get(2, provider);
+        for (int i = 0; i < 100; i++) {
+            assertSame(a, cache.get(1, provider));
+            assertSame(b, cache.get(2, provider));
+        }
+
+        assertEquals(2, labelCalls[0]);
+        assertEquals(2, cache.misses);
+        assertEquals(200, cache.hits);
+    }
+
+    @Test
+    public void boundedSize_evictsLeastRecentlyUsed() {
+        LabelCache cache = new LabelCache(new TextPaint());
+        for (int id = 0; id < LabelCache.CAPACITY; id++) cache.get(id, provider);
+        cache.get(0, provider); // touch the oldest entry
+
+        cache.get(2000, provider);
+
+        assertTrue(cache.contains(0));
+        assertFalse(cache.contains(1));
+        assertTrue(cache.contains(2000));
+    }
+
+    @Test
+    public void prewarmedLabel_isAHitLater() throws Exception {
+        LabelCache cache = new LabelCache(new TextPaint());
+        cache.prewarm(7, provider);
+        cache.prewarm(7, provider); // already on its way
+
+        for (int i = 0; i < 100 && !cache.contains(7); i++) {
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+
+        assertTrue(cache.contains(7));
+        cache.get(7, provider);
+        assertEquals(1, labelCalls[0]);
+        assertEquals(0, cache.misses);
+    }
+
+    @Test
+    public void clear_dropsLateBackgroundResults() throws Exception {
+        LabelCache cache = new LabelCache(new TextPaint());
+        cache.prewarm(3, provider);
+        cache.clear();
+        Thread.sleep(50);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertFalse(cache.contains(3));
+    }
+}
@@ -0,0 +1,108 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * attachLazily(): nothing built on the attach / first layout path, views built once the list can scroll.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class LazyAttachTest {
+
+    private Activity activity;
+    private FrameLayout parent;
+    private RecyclerView rv;
+
+    @Before
+    public void setUp() {
+        FrameScheduler.reset();
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        parent = new FrameLayout(activity);
+        rv = TestLists.addRecyclerView(parent, 1000);
+    }
+
+    @Test
+    public void attach_buildsNothingUntilIdle() {
+        FastScroller scroller = FastScroller.attachLazily(rv);
+
+        assertFalse(scroller.isBuilt());
+        assertEquals(1, parent.getChildCount());
+
+        show();
+
+        assertTrue(scroller.isBuilt());
+        assertNotNull(parent.findViewWithTag(FastScroller.TAG_THUMB));
+        assertNotNull(parent.findViewWithTag(FastScroller.TAG_FAB));
+    }
+
+    @Test
+    public void shortList_neverBuilds() {
+        TestLists.adapter(rv).count = 3;
+        FastScroller scroller = FastScroller.attachLazily(rv);
+
+        show();
+        scroller.scrollListener.onScrolled(rv, 0, 0);
+        TestLists.idle(500);
+
+        assertFalse(scroller.isBuilt());
+        assertEquals(1, parent.getChildCount());
+        scroller.detach();
+        assertEquals(1, parent.getChildCount());
+    }
+
+    @Test
+    public void scroll_buildsRightAway() {
+        show();
+        FastScroller scroller = FastScroller.attachLazily(rv).setOverlayMode(true);
+
+        scroller.scrollListener.onScrolled(rv, 0, 12);
+
+        assertTrue(scroller.isBuilt());
+        assertEquals(1, rv.getItemDecorationCount());
+        assertNull(parent.findViewWithTag(FastScroller.TAG_THUMB));
+    }
+
+    @Test
+    public void fabDisabled_isNeverBuilt() {
+        FastScroller scroller = FastScroller.attachLazily(rv).setFabEnabled(false);
+
+        show();
+
+        assertTrue(scroller.isBuilt());
+        assertNull(parent.findViewWithTag(FastScroller.TAG_FAB));
+        scroller.setFabEnabled(true);
+        assertNotNull(parent.findViewWithTag(FastScroller.TAG_FAB));
+    }
+
+    @Test
+    public void detachBeforeIdle_buildsNothing() {
+        FastScroller scroller = FastScroller.attachLazily(rv);
+        activity.setContentView(parent);
+        scroller.detach();
+        TestLists.idle(500);
+
+        assertFalse(scroller.isBuilt());
+        assertEquals(1, parent.getChildCount());
+    }
+
+    private void show() {
+        activity.setContentView(parent);
+        TestLists.idle(100);
+    }
+}
@@ -0,0 +1,278 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.jakir.fastscroller.core.PositionMapper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.Robolectric;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Performance gate: scripted flings and thumb drags over 10 .. 10M items, with budgets per simulated 16 ms frame
+ * on layout requests, animator starts and adapter binds, a budget on bytes allocated per drag event, and the
+ * final thumb / list positions. A change that blows a budget fails the unit tests, and with them the build.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PerformanceBudgetTest {
+
+    private static final long FRAME_MS = 16;
+    private static final int FLING_VELOCITY = 6_000;  // px/s
+    private static final int MAX_FLING_FRAMES = 600;
+    private static final int DRAG_STEPS = 40;
+    private static final int WARM_UP_MOVES = 5;
+    private static final long SETTLE_MS = 400;        // springs at rest, list laid out
+
+    // -------------------- Budgets --------------------
+    /** Scroller-caused layout requests per frame: at most the one drag jump. */
+    private static final long MAX_LAYOUTS_PER_FRAME = 1;
+    /** Parent layout passes over a whole fling: thumb size, bar thickness and the FAB appearing. */
+    private static final int MAX_PARENT_LAYOUTS_PER_FLING = 4;
+    /** Thumb reveal and FAB can start on the same frame. */
+    private static final long MAX_ANIMATOR_STARTS_PER_FRAME = 2;
+    /** Reveal in / out and FAB in / out, per scenario. */
+    private static final long MAX_ANIMATOR_STARTS = 4;
+    /** Binds per frame beyond one screen (a drag jump rebinds one screen, a fling a row or two). */
+    private static final int EXTRA_BINDS_PER_FRAME = 2;
+    /** Bytes per drag MOVE, averaged: room for the test shadows' input plumbing, not for a per-event array. */
+    private static final long MAX_BYTES_PER_MOVE = 256;
+    /** Thumb vs list after settling (px along the track). */
+    private static final float POSITION_TOLERANCE_PX = 1f;
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "items={0}")
+    public static Collection<Object[]> itemCounts() {
+        return Arrays.asList(new Object[][]{{10}, {10_000}, {1_000_000}, {10_000_000}});
+    }
+
+    private final int itemCount;
+    private CountingParent parent;
+    private RecyclerView rv;
+    private LinearLayoutManager lm;
+    private TestLists.CountingAdapter adapter;
+    private FastScroller scroller;
+    private int screen;
+    // per-frame accounting
+    private long lastLayouts;
+    private long lastAnimatorStarts;
+    private int lastBinds;
+    private long maxLayoutsPerFrame;
+    private long maxAnimatorStartsPerFrame;
+    private int maxBindsPerFrame;
+
+    public PerformanceBudgetTest(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    @Before
+    public void setUp() {
+        FrameScheduler.reset();
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        parent = new CountingParent(activity);
+        rv = TestLists.addRecyclerView(parent, itemCount);
+        lm = TestLists.layoutManager(rv);
+        adapter = TestLists.adapter(rv);
+        activity.setContentView(parent);
+        TestLists.idle(100);
+        screen = lm.getChildCount();
+        assertTrue("list must be scrollable for the scripted input", (long) itemCount * TestLists.ROW_PX > rv.getHeight());
+
+        scroller = FastScroller.attach(rv).setMetricsEnabled(true);
+        TestLists.idle(100);
+        startFrameAccounting();
+    }
+
+    @Test
+    public void fling_staysWithinBudget() {
+        int parentLayoutsBefore = parent.layoutRequests;
+
+        rv.fling(0, FLING_VELOCITY);
+        int frames = 0;
+        while (rv.getScrollState() != RecyclerView.SCROLL_STATE_IDLE && frames++ < MAX_FLING_FRAMES) frame();
+        assertEquals(RecyclerView.SCROLL_STATE_IDLE, rv.getScrollState());
+        int parentLayouts = parent.layoutRequests - parentLayoutsBefore;
+
+        settle();
+        assertFrameBudgets();
+        assertTrue("parent layout passes during the fling: " + parentLayouts, parentLayouts <= MAX_PARENT_LAYOUTS_PER_FLING);
+        assertNotEquals(0, lm.findFirstVisibleItemPosition());
+        assertThumbMatchesList();
+    }
+
+    @Test
+    public void dragToMiddle_staysWithinBudget_andLandsUnderTheFinger() {
+        showBar();
+        float travel = travel();
+
+        long bytesPerMove = dragThumbTo(travel / 2f);
+        settle();
+
+        assertFrameBudgets();
+        assertTrue("bytes per drag MOVE: " + bytesPerMove, bytesPerMove <= MAX_BYTES_PER_MOVE);
+        assertEquals(travel / 2f, thumb().getY(), POSITION_TOLERANCE_PX);
+        assertThumbMatchesList();
+    }
+
+    @Test
+    public void dragPastTheEnd_showsTheLastItem() {
+        showBar();
+        float travel = travel();
+
+        dragThumbTo(travel + 100f);
+        settle();
+
+        assertFrameBudgets();
+        assertEquals(itemCount - 1, lm.findLastCompletelyVisibleItemPosition());
+        assertEquals(travel, thumb().getY(), POSITION_TOLERANCE_PX);
+    }
+
+    @Test
+    public void dragBackToTop_showsTheFirstItem() {
+        showBar();
+        dragThumbTo(travel() / 3f);
+        settle();
+        startFrameAccounting();
+
+        dragThumbTo(-100f);
+        settle();
+
+        assertFrameBudgets();
+        assertEquals(0, lm.findFirstCompletelyVisibleItemPosition());
+        assertEquals(0f, thumb().getY(), POSITION_TOLERANCE_PX);
+    }
+
+    // -------------------- Script --------------------
+
+    private void showBar() {
+        rv.scrollBy(0, 1);
+        TestLists.idle(300); // reveal
+        startFrameAccounting();
+    }
+
+    /**
+     * Down on the thumb, DRAG_STEPS moves (one per frame) to {@code target}, release.
+     *
+     * @return average bytes allocated per MOVE dispatch once warmed up
+     */
+    private long dragThumbTo(float target) {
+        View touch = parent.findViewWithTag(FastScroller.TAG_TOUCH);
+        float start = thumb().getY();
+        float x = touch.getX() + touch.getWidth() / 2f;
+        float y0 = 100f;
+        long t = SystemClock.uptimeMillis();
+        // events built up front: the measured part is the scroller's handling only
+        MotionEvent[] moves = new MotionEvent[DRAG_STEPS];
+        for (int i = 0; i < DRAG_STEPS; i++) {
+            float y = y0 + (target - start) * (i + 1) / DRAG_STEPS;
+            moves[i] = MotionEvent.obtain(t, t + (i + 1) * FRAME_MS, MotionEvent.ACTION_MOVE, x, y, 0);
+        }
+
+        touch.dispatchTouchEvent(MotionEvent.obtain(t, t, MotionEvent.ACTION_DOWN, x, y0, 0));
+        long bytes = 0;
+        for (int i = 0; i < DRAG_STEPS; i++) {
+            long before = currentThreadAllocatedBytes();
+            touch.dispatchTouchEvent(moves[i]);
+            if (i >= WARM_UP_MOVES) bytes += currentThreadAllocatedBytes() - before;
+            frame();
+        }
+        touch.dispatchTouchEvent(MotionEvent.obtain(t, t + (DRAG_STEPS + 1) * FRAME_MS, MotionEvent.ACTION_UP, x, moves[DRAG_STEPS - 1].getY(), 0));
+        frame();
+        return bytes / (DRAG_STEPS - WARM_UP_MOVES);
+    }
+
+    private void settle() {
+        TestLists.idle(SETTLE_MS);
+    }
+
+    // -------------------- Budgets --------------------
+
+    private void startFrameAccounting() {
+        ScrollMetrics m = scroller.getMetrics();
+        lastLayouts = m.layoutRequests;
+        lastAnimatorStarts = m.animatorStarts;
+        lastBinds = adapter.binds;
+        maxLayoutsPerFrame = 0;
+        maxAnimatorStartsPerFrame = 0;
+        maxBindsPerFrame = 0;
+    }
+
+    /** One simulated frame; whatever happened since the previous one (input included) is charged to it. */
+    private void frame() {
+        TestLists.idle(FRAME_MS);
+        ScrollMetrics m = scroller.getMetrics();
+        maxLayoutsPerFrame = Math.max(maxLayoutsPerFrame, m.layoutRequests - lastLayouts);
+        maxAnimatorStartsPerFrame = Math.max(maxAnimatorStartsPerFrame, m.animatorStarts - lastAnimatorStarts);
+        maxBindsPerFrame = Math.max(maxBindsPerFrame, adapter.binds - lastBinds);
+        lastLayouts = m.layoutRequests;
+        lastAnimatorStarts = m.animatorStarts;
+        lastBinds = adapter.binds;
+    }
+
+    private void assertFrameBudgets() {
+        String items = " (" + itemCount + " items)";
+        assertTrue("layout requests per frame: " + maxLayoutsPerFrame + items, maxLayoutsPerFrame <= MAX_LAYOUTS_PER_FRAME);
+        assertTrue("animator starts per frame: " + maxAnimatorStartsPerFrame + items, maxAnimatorStartsPerFrame <= MAX_ANIMATOR_STARTS_PER_FRAME);
+        assertTrue("binds per frame: " + maxBindsPerFrame + items, maxBindsPerFrame <= screen + EXTRA_BINDS_PER_FRAME);
+        long animatorStarts = scroller.getMetrics().animatorStarts;
+        assertTrue("animator starts: " + animatorStarts + items, animatorStarts <= MAX_ANIMATOR_STARTS);
+    }
+
+    // -------------------- Positions --------------------
+
+    /** The settled thumb sits where the list's scroll offset puts it (same formula as the scroller). */
+    private void assertThumbMatchesList() {
+        int first = lm.findFirstVisibleItemPosition();
+        View child = lm.findViewByPosition(first);
+        int scrolledOut = rv.getPaddingTop() - lm.getDecoratedTop(child);
+        int rowLength = lm.getDecoratedMeasuredHeight(child);
+        double expected = PositionMapper.thumbStartPixels(first, scrolledOut, rowLength, itemCount, rv.getHeight(), travel());
+        assertEquals("thumb for first=" + first + " +" + scrolledOut + "px", expected, thumb().getY(), POSITION_TOLERANCE_PX);
+    }
+
+    private View thumb() {
+        return parent.findViewWithTag(FastScroller.TAG_THUMB);
+    }
+
+    private float travel() {
+        View thumb = thumb();
+        return rv.getHeight() - thumb.getHeight() * thumb.getScaleY();
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    /** Counts layout passes requested from below (child requests are coalesced until the next layout). */
+    private static class CountingParent extends FrameLayout {
+        int layoutRequests = 0;
+
+        CountingParent(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void requestLayout() {
+            super.requestLayout();
+            layoutRequests++;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Row mapping for grids: uniform spans, variable spans (SpanSizeLookup) and staggered grids.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class RowGeometryTest {
+
+    @Test
+    public void grid_uniformSpans_rowsAreSpanCountItems() {
+        GridLayoutManager lm = new GridLayoutManager(context(), 4);
+        RowGeometry rows = RowGeometry.create(lm);
+
+        assertEquals(0, rows.rowOf(3));
+        assertEquals(1, rows.rowOf(4));
+        assertEquals(49_999, rows.rowOf(199_999));
+        assertEquals(8, rows.firstPositionOfRow(2));
+    }
+
+    @Test
+    public void grid_variableSpans_followSpanSizeLookup() {
+        GridLayoutManager lm = new GridLayoutManager(context(), 4);
+        // every 5th item is a full-width header: rows = [0] [1..4] [5] [6..9] ...
+        lm.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return position % 5 == 0 ? 4 : 1;
+            }
+        });
+        // no adapter attached in this test: pin the item count
+        RowGeometry rows = new RowGeometry.GridRows(lm) {
+            @Override
+            int itemCount() {
+                return 20;
+            }
+        };
+
+        int[] expectedRowOf = {0, 1, 1, 1, 1, 2, 3, 3, 3, 3, 4, 5, 5, 5, 5, 6, 7, 7, 7, 7};
+        assertEquals(8, rows.rowCount());
+        assertEquals(10, rows.firstPositionOfRow(4));
+        for (int p = 0; p < expectedRowOf.length; p++) {
+            assertEquals("row of " + p, expectedRowOf[p], rows.rowOf(p));
+        }
+    }
+
+    @Test
+    public void staggered_rowsArePositionsOverSpans() {
+        StaggeredGridLayoutManager lm = new StaggeredGridLayoutManager(3, StaggeredGridLayoutManager.VERTICAL);
+        RowGeometry rows = RowGeometry.create(lm);
+
+        assertEquals(0, rows.rowOf(2));
+        assertEquals(1, rows.rowOf(3));
+        assertEquals(33, rows.rowOf(100));
+    }
+
+    private static Context context() {
+        return RuntimeEnvironment.getApplication();
+    }
+}
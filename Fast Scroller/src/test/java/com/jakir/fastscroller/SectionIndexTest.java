@@ -0,0 +1,142 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Section index against a plain list of section ids: full build, shifting on adapter range events, and jobs
+ * made stale by a change while they ran. Background jobs are queued and run one at a time.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SectionIndexTest {
+
+    private final List<Integer> model = new ArrayList<>();
+    private final ArrayDeque<Runnable> jobs = new ArrayDeque<>();
+    private int updates = 0;
+
+    private final SectionProvider provider = new SectionProvider() {
+        @Override
+        public int getSectionId(int position) {
+            return model.get(position);
+        }
+
+        @Override
+        public CharSequence getSectionLabel(int sectionId) {
+            return "S" + sectionId;
+        }
+    };
+
+    @Test
+    public void fullBuild_findsEverySection() {
+        for (int p = 0; p < 10_000; p++) model.add(p / 250);  // more than one batch
+        SectionIndex index = build();
+
+        assertEquals(40, index.count());
+        assertEquals(0, index.sectionAt(0));
+        assertEquals(39, index.sectionAt(9_999));
+        assertEquals(250, index.sectionStart(1));
+        assertEquals(7, index.sectionId(index.sectionAt(1_999)));
+        assertEquals(1, updates);
+        assertMatchesModel(index);
+    }
+
+    @Test
+    public void nothingBuilt_reportsNoSection() {
+        for (int p = 0; p < 100; p++) model.add(p / 10);
+        SectionIndex index = new SectionIndex(provider, () -> updates++, jobs::add);
+        index.rebuild(model.size());
+
+        assertEquals(0, index.count());
+        assertEquals(-1, index.sectionAt(5));
+    }
+
+    @Test
+    public void insertRemoveMove_shiftAndRescan() {
+        for (int p = 0; p < 1_000; p++) model.add(p / 100);
+        SectionIndex index = build();
+
+        model.addAll(150, Collections.nCopies(5, 99));
+        index.onItemRangeInserted(150, 5);
+        // before the rescan: later sections already moved down
+        assertEquals(5, index.sectionId(index.sectionAt(505)));
+        assertEquals(4, index.sectionId(index.sectionAt(504)));
+        runJobs();
+        assertMatchesModel(index);
+
+        model.subList(300, 420).clear();
+        index.onItemRangeRemoved(300, 120);
+        runJobs();
+        assertMatchesModel(index);
+
+        model.add(model.size() - 1, model.remove(0));
+        index.onItemMoved(0, model.size() - 2);
+        runJobs();
+        assertMatchesModel(index);
+    }
+
+    @Test
+    public void changeDuringJob_discardsTheStaleResult() {
+        for (int p = 0; p < 1_000; p++) model.add(p / 100);
+        SectionIndex index = build();
+
+        for (int p = 500; p < 510; p++) model.set(p, 77);
+        index.onItemRangeChanged(500, 10);
+        assertEquals(1, jobs.size());
+        // a structural change before that job is done: its positions are outdated
+        model.subList(0, 100).clear();
+        index.onItemRangeRemoved(0, 100);
+        assertEquals(1, jobs.size());
+
+        runOneJob();
+        assertEquals(1, updates);       // stale result dropped, not spliced in
+        assertEquals(1, jobs.size());   // its range is scanned again
+        runJobs();
+        assertEquals(2, updates);
+        assertMatchesModel(index);
+        assertEquals(400, index.sectionStart(index.sectionAt(400)));
+        assertEquals(77, index.sectionId(index.sectionAt(405)));
+    }
+
+    private SectionIndex build() {
+        SectionIndex index = new SectionIndex(provider, () -> updates++, jobs::add);
+        index.rebuild(model.size());
+        runJobs();
+        return index;
+    }
+
+    private void runOneJob() {
+        jobs.poll().run();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private void runJobs() {
+        while (!jobs.isEmpty()) runOneJob();
+    }
+
+    private void assertMatchesModel(SectionIndex index) {
+        int sections = 0;
+        for (int p = 0; p < model.size(); p++) {
+            boolean start = p == 0 || !model.get(p).equals(model.get(p - 1));
+            if (start) sections++;
+            int section = index.sectionAt(p);
+            assertEquals("section id at " + p, (int) model.get(p), index.sectionId(section));
+            if (start) assertEquals("section start at " + p, p, index.sectionStart(section));
+            assertTrue(index.sectionStart(section) <= p);
+        }
+        assertEquals(sections, index.count());
+    }
+}
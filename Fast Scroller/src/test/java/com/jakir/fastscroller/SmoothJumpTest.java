@@ -0,0 +1,74 @@
+package com.jakir.fastscroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * smoothJumpTo must cost about two screens of binds and a bounded time, whatever the distance.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SmoothJumpTest {
+
+    private static final long TIME_BUDGET_MS = BoundedSmoothScroller.MAX_SCROLL_MS + BoundedSmoothScroller.MAX_DECELERATION_MS + 300;
+
+    private RecyclerView rv;
+    private LinearLayoutManager lm;
+    private TestLists.CountingAdapter adapter;
+
+    @Before
+    public void setUp() {
+        FrameScheduler.reset();
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        FrameLayout parent = new FrameLayout(activity);
+        rv = TestLists.addRecyclerView(parent, 1_000_000);
+        lm = TestLists.layoutManager(rv);
+        adapter = TestLists.adapter(rv);
+        activity.setContentView(parent);
+        TestLists.idle(100);
+    }
+
+    @Test
+    public void jumpToTop_fromFarAway_isBounded() {
+        assertBoundedJump(900_000, 0);
+    }
+
+    @Test
+    public void jumpDown_fromTheTop_isBounded() {
+        assertBoundedJump(0, 700_000);
+    }
+
+    @Test
+    public void shortDistance_isAPlainSmoothScroll() {
+        assertBoundedJump(5, 0);
+    }
+
+    private void assertBoundedJump(int from, int to) {
+        lm.scrollToPositionWithOffset(from, 0);
+        TestLists.idle(100);
+        int screen = lm.getChildCount();
+        FastScroller scroller = FastScroller.attach(rv);
+        int bindsBefore = adapter.binds;
+
+        scroller.smoothJumpTo(to);
+        TestLists.idle(TIME_BUDGET_MS);
+
+        assertEquals(RecyclerView.SCROLL_STATE_IDLE, rv.getScrollState());
+        assertEquals(to, lm.findFirstVisibleItemPosition());
+        int binds = adapter.binds - bindsBefore;
+        assertTrue("binds for a jump of " + Math.abs(to - from) + " items: " + binds + " (screen " + screen + ")", binds <= 3 * screen);
+    }
+}
@@ -0,0 +1,107 @@
+package com.jakir.fastscroller;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixture shared by the Robolectric tests: a RecyclerView filling a FrameLayout, with a LinearLayoutManager and a
+ * {@link CountingAdapter} of 150 px text rows, laid out at 1080 x 1920 or inside an activity.
+ */
+final class TestLists {
+
+    static final int WIDTH_PX = 1080;
+    static final int HEIGHT_PX = 1920;
+    static final int ROW_PX = 150;
+
+    private TestLists() {
+    }
+
+    /** Adds a RecyclerView of {@code itemCount} rows to {@code parent}, filling it; nothing is laid out yet. */
+    static RecyclerView addRecyclerView(FrameLayout parent, int itemCount) {
+        RecyclerView rv = new RecyclerView(parent.getContext());
+        rv.setLayoutManager(new LinearLayoutManager(parent.getContext()));
+        rv.setAdapter(new CountingAdapter(itemCount));
+        parent.addView(rv, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        return rv;
+    }
+
+    /** A RecyclerView of {@code itemCount} rows in a new FrameLayout, measured and laid out without an activity. */
+    static RecyclerView createLaidOutRecyclerView(int itemCount) {
+        FrameLayout parent = new FrameLayout(RuntimeEnvironment.getApplication());
+        RecyclerView rv = addRecyclerView(parent, itemCount);
+        layout(parent);
+        return rv;
+    }
+
+    /** Measures and lays out {@code parent} at 1080 x 1920. */
+    static void layout(ViewGroup parent) {
+        parent.measure(View.MeasureSpec.makeMeasureSpec(WIDTH_PX, View.MeasureSpec.EXACTLY), View.MeasureSpec.makeMeasureSpec(HEIGHT_PX, View.MeasureSpec.EXACTLY));
+        parent.layout(0, 0, WIDTH_PX, HEIGHT_PX);
+    }
+
+    static CountingAdapter adapter(RecyclerView rv) {
+        return (CountingAdapter) rv.getAdapter();
+    }
+
+    static LinearLayoutManager layoutManager(RecyclerView rv) {
+        return (LinearLayoutManager) rv.getLayoutManager();
+    }
+
+    /** Runs the main looper for {@code ms} of fake time (frames, posted callbacks, idle handlers). */
+    static void idle(long ms) {
+        shadowOf(Looper.getMainLooper()).idleFor(ms, TimeUnit.MILLISECONDS);
+    }
+
+    /** 150 px "Item: n" rows; counts holders created, binds and settle rebinds. {@link #count} may be changed. */
+    static class CountingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        int count;
+        int created = 0;
+        int binds = 0;
+        int settledBinds = 0;  // binds with FastScroller.PAYLOAD_DRAG_SETTLED
+
+        CountingAdapter(int count) {
+            this.count = count;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            created++;
+            TextView view = new TextView(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_PX));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+            if (payloads.contains(FastScroller.PAYLOAD_DRAG_SETTLED)) settledBinds++;
+            onBindViewHolder(holder, position);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            binds++;
+            ((TextView) holder.itemView).setText("Item: " + position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.jakir.fastscroller_recyclerview;
+
+import java.util.Arrays;
+
+/**
+ * Frame durations in a 1 ms histogram: count, average, percentiles, max and janky frames, without keeping samples.
+ */
+final class FrameStats {
+
+    private static final int BUCKETS = 250;  // 0..249 ms, longer frames land in the last bucket
+
+    private final int[] histogram = new int[BUCKETS];
+    private int count;
+    private long totalNanos;
+    private long maxNanos;
+    private int janky;
+
+    void add(long durationNanos, long budgetNanos) {
+        int bucket = (int) Math.min(BUCKETS - 1, durationNanos / 1_000_000L);
+        histogram[bucket]++;
+        count++;
+        totalNanos += durationNanos;
+        if (durationNanos > maxNanos) maxNanos = durationNanos;
+        if (durationNanos > budgetNanos) janky++;
+    }
+
+    void reset() {
+        Arrays.fill(histogram, 0);
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        janky = 0;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int janky() {
+        return janky;
+    }
+
+    float averageMs() {
+        return count == 0 ? 0f : totalNanos / 1e6f / count;
+    }
+
+    float maxMs() {
+        return maxNanos / 1e6f;
+    }
+
+    /** Upper edge (ms) of the bucket holding the {@code p} quantile, 0 < p <= 1. */
+    int percentileMs(float p) {
+        if (count == 0) return 0;
+        int rank = (int) Math.ceil(p * count);
+        int seen = 0;
+        for (int ms = 0; ms < BUCKETS; ms++) {
+            seen += histogram[ms];
+            if (seen >= rank) return ms + 1;
+        }
+        return BUCKETS;
+    }
+}
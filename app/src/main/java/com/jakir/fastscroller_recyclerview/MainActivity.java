@@ -4,11 +4,13 @@ import android.graphics.Color;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.widget.CheckBox;
 import android.widget.EditText;
+import android.widget.RadioGroup;
+import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.core.content.ContextCompat;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
@@ -16,12 +18,29 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
+import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.jakir.fastscroller.FastScroller;
 
-public class MainActivity extends AppCompatActivity {
+import java.io.File;
+
+/**
+ * Demo + stress harness: pick item count (up to 100M), row heights, bind cost and view types, watch the stats
+ * overlay, swap adapters, and run the scripted scenarios (menu, or unattended via intent extras, see
+ * {@link StressConfig}); results go to a TSV file.
+ */
+public class MainActivity extends AppCompatActivity implements ScenarioRunner.Host {
+    private static final long AUTORUN_DELAY_MS = 1_500L;  // first layout done, startup frames out of the way
+
     RecyclerView recyclerView;
     private SwipeRefreshLayout swipeRefreshLayout;
+    private MaterialToolbar toolbar;
+    private FastScroller scroller;
+    private StatsOverlay statsOverlay;
+    private ScenarioRunner runner;
+    private StressConfig config = new StressConfig();
+    private StressAdapter adapter;
+    private long retiredBinds = 0;  // binds of adapters swapped out
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -34,6 +53,23 @@ public class MainActivity extends AppCompatActivity {
             return insets;
         });
 
+        toolbar = findViewById(R.id.toolbar);
+        toolbar.inflateMenu(R.menu.menu_main);
+        toolbar.setOnMenuItemClickListener(item -> {
+            int id = item.getItemId();
+            if (id == R.id.action_configure) {
+                loadItems();
+            } else if (id == R.id.action_run) {
+                runScenarios();
+            } else if (id == R.id.action_swap) {
+                swapAdapter(adapter.config == config ? config.alternate() : null);
+            } else if (id == R.id.action_stats) {
+                item.setChecked(!item.isChecked());
+                statsOverlay.setVisible(item.isChecked());
+            }
+            return true;
+        });
+
         swipeRefreshLayout = findViewById(R.id.swipeRefreshLayout);
         swipeRefreshLayout.setColorSchemeColors(Color.GREEN);
         swipeRefreshLayout.setOnRefreshListener(() -> {
@@ -45,8 +81,6 @@ public class MainActivity extends AppCompatActivity {
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setPadding(recyclerView.getPaddingLeft(), recyclerView.getPaddingTop(), recyclerView.getPaddingRight(), FastScroller.getNavigationBarHeight(this));
 
-        loadItems();
-
 
 //        FastScroller.attach(recyclerView);
 //        FastScroller.attach(recyclerView, null, null, null, null, null);
@@ -54,16 +88,98 @@ public class MainActivity extends AppCompatActivity {
 //        FastScroller.attach(recyclerView, swipeRefreshLayout);
 //        FastScroller.attach(recyclerView, null, null, null, null, null, swipeRefreshLayout);
 
-        FastScroller.attach(recyclerView, null, null, null, null, Color.TRANSPARENT, swipeRefreshLayout);
+        scroller = FastScroller.attach(recyclerView, null, null, null, null, Color.TRANSPARENT, swipeRefreshLayout).bindToLifecycle(this).setMetricsEnabled(true);
+        statsOverlay = new StatsOverlay(this, findViewById(R.id.stats));
+
+        if (getIntent().getBooleanExtra("autorun", false)) {
+            applyConfig(StressConfig.fromIntent(getIntent()));
+            recyclerView.postDelayed(this::runScenarios, AUTORUN_DELAY_MS);
+        } else {
+            applyConfig(config);
+            loadItems();
+        }
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        statsOverlay.start();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        statsOverlay.stop();
+        if (runner != null) runner.cancel();
     }
 
     private void loadItems() {
-        View v = LayoutInflater.from(this).inflate(R.layout.edittext, null);
+        View v = LayoutInflater.from(this).inflate(R.layout.dialog_config, null);
         EditText editText = v.findViewById(R.id.e);
-        new MaterialAlertDialogBuilder(this).setTitle("Select item count").setView(v).setPositiveButton("OK", (dialog, which) -> {
-            int i = Integer.parseInt(editText.getText().toString().isEmpty() ? "10" : editText.getText().toString());
-            recyclerView.setAdapter(new SimpleAdapter(i));
+        RadioGroup heights = v.findViewById(R.id.heights);
+        EditText bindCost = v.findViewById(R.id.bindCost);
+        EditText viewTypes = v.findViewById(R.id.viewTypes);
+        CheckBox overlay = v.findViewById(R.id.overlay);
+        CheckBox heightIndex = v.findViewById(R.id.heightIndex);
+        overlay.setChecked(config.overlay);
+        heightIndex.setChecked(config.heightIndex);
+        new MaterialAlertDialogBuilder(this).setTitle("Configure list").setView(v).setPositiveButton("OK", (dialog, which) -> {
+            StressConfig c = new StressConfig();
+            c.itemCount = StressConfig.parseItems(editText.getText().toString(), 10);
+            int checked = heights.getCheckedRadioButtonId();
+            c.heights = checked == R.id.heightsRandom ? StressConfig.Heights.RANDOM
+                    : checked == R.id.heightsHeavyTailed ? StressConfig.Heights.HEAVY_TAILED : StressConfig.Heights.FIXED;
+            c.bindCostUs = Math.max(0, StressConfig.parseInt(bindCost.getText().toString(), 0));
+            c.viewTypes = StressConfig.clampViewTypes(StressConfig.parseInt(viewTypes.getText().toString(), 1));
+            c.overlay = overlay.isChecked();
+            c.heightIndex = heightIndex.isChecked();
+            applyConfig(c);
         }).create().show()
         ;
     }
+
+    private void applyConfig(StressConfig c) {
+        config = c;
+        scroller.setOverlayMode(c.overlay).setHeightIndexEnabled(c.heightIndex);
+        setAdapter(new StressAdapter(c, getResources().getDisplayMetrics().density));
+        toolbar.setSubtitle(c.toString());
+    }
+
+    private void setAdapter(StressAdapter newAdapter) {
+        if (adapter != null) retiredBinds += adapter.binds;
+        adapter = newAdapter;
+        recyclerView.setAdapter(newAdapter);
+        statsOverlay.setSources(newAdapter, scroller);
+    }
+
+    private void runScenarios() {
+        if (runner != null && runner.isRunning()) return;
+        runner = new ScenarioRunner(this, recyclerView, scroller, statsOverlay, config, this);
+        runner.start();
+    }
+
+    // -------------------- ScenarioRunner.Host --------------------
+
+    @Override
+    public long totalBinds() {
+        return retiredBinds + (adapter != null ? adapter.binds : 0);
+    }
+
+    @Override
+    public void swapAdapter(StressConfig c) {
+        StressConfig target = c != null ? c : config;
+        setAdapter(new StressAdapter(target, getResources().getDisplayMetrics().density));
+        toolbar.setSubtitle((c != null ? "swapped: " : "") + target);
+    }
+
+    @Override
+    public void onScenario(String name) {
+        statsOverlay.setLabel(name);
+    }
+
+    @Override
+    public void onFinished(File results) {
+        statsOverlay.setLabel(null);
+        Toast.makeText(this, "Results: " + results.getAbsolutePath(), Toast.LENGTH_LONG).show();
+    }
 }
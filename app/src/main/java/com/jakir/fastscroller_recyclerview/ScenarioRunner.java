@@ -0,0 +1,274 @@
+package com.jakir.fastscroller_recyclerview;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.jakir.fastscroller.FastScroller;
+import com.jakir.fastscroller.ScrollMetrics;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs scripted flings, thumb drags and adapter swaps one after the other and writes one line of results per
+ * scenario (frame times, binds, scroller metrics) to a TSV file in the app's external files dir:
+ * adb pull /sdcard/Android/data/com.jakir.fastscroller_recyclerview/files/
+ * <p>
+ * Drags are real touch events dispatched to the window at the scrollbar's edge, so they go through the same
+ * path as a finger, in view and overlay mode alike. Every drag starts from the top, where the thumb is known to be.
+ * <p>
+ * The last two scenarios replay the same random jumps without and with drag prefetch, so their frame times
+ * (p95 / p99 / janky, janky drag frames) show whether creating holders in idle time saves more than it costs.
+ */
+final class ScenarioRunner {
+
+    interface Host {
+        /** Binds of every adapter shown so far, so swaps do not reset the count. */
+        long totalBinds();
+
+        /** Replaces the adapter with {@code config}'s (null -> back to the original one). */
+        void swapAdapter(StressConfig config);
+
+        /** Shown without touching the layout (the toolbar would re-layout and pollute the frame times). */
+        void onScenario(String name);
+
+        void onFinished(File results);
+    }
+
+    private static final String TAG = "StressHarness";
+    private static final long FRAME_MS = 16L;
+    private static final long REVEAL_MS = 350L;      // bar slid in before touching it
+    private static final long IDLE_POLL_MS = 50L;
+    private static final long PAUSE_MS = 500L;       // between scenarios
+    private static final int BAR_EDGE_DP = 10;       // from the list's end edge into the touch area
+    private static final int THUMB_GRAB_DP = 20;     // from the top of the thumb (min thumb is 70dp)
+
+    private final Activity activity;
+    private final RecyclerView recyclerView;
+    private final FastScroller scroller;
+    private final StatsOverlay stats;
+    private final Host host;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<Scenario> scenarios = new ArrayList<>();
+    private final StringBuilder results = new StringBuilder();
+    private final StressConfig config;
+    private final Random random;
+    private final int[] location = new int[2];
+    private int index = -1;
+    private long startMs;
+    private long startBinds;
+    private boolean running = false;
+    // drag in progress
+    private long downTime;
+    private float downX;
+    private float downY;
+
+    ScenarioRunner(Activity activity, RecyclerView recyclerView, FastScroller scroller, StatsOverlay stats, StressConfig config, Host host) {
+        this.activity = activity;
+        this.recyclerView = recyclerView;
+        this.scroller = scroller;
+        this.stats = stats;
+        this.config = config;
+        this.host = host;
+        this.random = new Random(config.seed);
+
+        int maxFling = ViewConfiguration.get(activity).getScaledMaximumFlingVelocity();
+        scenarios.add(new Scenario("fling-down", 3_000, () -> flings(maxFling, 3)));
+        scenarios.add(new Scenario("fling-up", 3_000, () -> flings(-maxFling, 3)));
+        scenarios.add(new Scenario("drag-top-to-bottom", 2_500, () -> drag(new float[]{1f}, 2_000)));
+        scenarios.add(new Scenario("drag-to-middle-and-back", 3_000, () -> drag(new float[]{0.5f, 0f}, 2_500)));
+        scenarios.add(new Scenario("drag-random-jumps", 4_000, () -> drag(randomTargets(12), 3_500)));
+        scenarios.add(new Scenario("swap-adapter-during-fling", 3_000, () -> {
+            flings(maxFling, 1);
+            handler.postDelayed(() -> host.swapAdapter(config.alternate()), 300);
+            handler.postDelayed(() -> flings(maxFling, 1), 1_200);
+        }));
+        scenarios.add(new Scenario("swap-back-and-drag", 3_000, () -> {
+            host.swapAdapter(null);
+            handler.postDelayed(() -> drag(new float[]{0.8f, 0.2f}, 2_000), 100);
+        }));
+        scenarios.add(new Scenario("back-to-top", 2_000, () -> scroller.smoothJumpTo(0)));
+        float[] jumps = randomTargets(12);
+        scenarios.add(new Scenario("drag-jumps-no-prefetch", 4_000, () -> {
+            scroller.setDragPrefetchEnabled(false);
+            drag(jumps, 3_500);
+        }));
+        scenarios.add(new Scenario("drag-jumps-prefetch", 4_000, () -> {
+            scroller.setDragPrefetchEnabled(true);
+            drag(jumps, 3_500);
+        }));
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    void start() {
+        if (running) return;
+        running = true;
+        index = -1;
+        results.setLength(0);
+        results.append("# ").append(Build.MANUFACTURER).append(' ').append(Build.MODEL).append(" sdk=").append(Build.VERSION.SDK_INT)
+                .append(String.format(Locale.US, " frameBudgetMs=%.2f ", stats.frameBudgetNanos() / 1e6f)).append(config).append('\n');
+        results.append("scenario\tms\tframes\tjanky\tp50_ms\tp95_ms\tp99_ms\tmax_ms\tbinds\tbinds_per_s"
+                + "\tscrolled_calls\tscrolled_avg_us\tscrolled_max_us\tlayout_requests\tanimator_starts"
+                + "\tdrag_frames\tjanky_drag_frames\tsettle_max_ms\n");
+        next();
+    }
+
+    void cancel() {
+        if (!running) return;
+        running = false;
+        scroller.setDragPrefetchEnabled(false);
+        handler.removeCallbacksAndMessages(null);
+    }
+
+    // -------------------- Sequencing --------------------
+
+    private void next() {
+        if (!running) return;
+        index++;
+        if (index >= scenarios.size()) {
+            finish();
+            return;
+        }
+        Scenario scenario = scenarios.get(index);
+        host.onScenario(scenario.name);
+        scroller.resetMetrics();
+        stats.resetRunStats();
+        startBinds = host.totalBinds();
+        startMs = SystemClock.uptimeMillis();
+        scenario.action.run();
+        handler.postDelayed(this::awaitIdle, scenario.durationMs);
+    }
+
+    /** Waits for the list to stop, then records the scenario. */
+    private void awaitIdle() {
+        if (!running) return;
+        if (recyclerView.getScrollState() != RecyclerView.SCROLL_STATE_IDLE || scroller.isDragging()) {
+            handler.postDelayed(this::awaitIdle, IDLE_POLL_MS);
+            return;
+        }
+        record(scenarios.get(index).name);
+        handler.postDelayed(this::next, PAUSE_MS);
+    }
+
+    private void record(String name) {
+        long ms = SystemClock.uptimeMillis() - startMs;
+        FrameStats frames = stats.runStats();
+        long binds = host.totalBinds() - startBinds;
+        ScrollMetrics m = scroller.getMetrics();
+        String line = String.format(Locale.US, "%s\t%d\t%d\t%d\t%d\t%d\t%d\t%.1f\t%d\t%.0f",
+                name, ms, frames.count(), frames.janky(), frames.percentileMs(0.5f), frames.percentileMs(0.95f),
+                frames.percentileMs(0.99f), frames.maxMs(), binds, binds * 1000f / Math.max(1, ms));
+        if (m != null) {
+            line += String.format(Locale.US, "\t%d\t%.1f\t%d\t%d\t%d\t%d\t%d\t%d",
+                    m.scrolledCalls, m.scrolledCalls == 0 ? 0f : m.scrolledTotalNanos / 1000f / m.scrolledCalls,
+                    m.scrolledMaxNanos / 1000, m.layoutRequests, m.animatorStarts,
+                    m.dragFrames, m.jankyDragFrames, m.settleMaxNanos / 1_000_000);
+        }
+        Log.i(TAG, line);
+        results.append(line).append('\n');
+    }
+
+    private void finish() {
+        running = false;
+        scroller.setDragPrefetchEnabled(false);
+        File file = new File(activity.getExternalFilesDir(null), "stress-" + System.currentTimeMillis() + ".tsv");
+        String text = results.toString();
+        // off the main thread: the file write must not show up in the next run's frame times
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        writer.execute(() -> {
+            try (Writer out = new FileWriter(file)) {
+                out.write(text);
+            } catch (IOException e) {
+                Log.e(TAG, "could not write " + file, e);
+            }
+            handler.post(() -> host.onFinished(file));
+        });
+        writer.shutdown();
+    }
+
+    // -------------------- Input --------------------
+
+    private void flings(int velocity, int count) {
+        for (int i = 0; i < count; i++) {
+            handler.postDelayed(() -> recyclerView.fling(0, velocity), i * 900L);
+        }
+    }
+
+    /**
+     * Scrolls to the top (thumb at the top, bar revealed), grabs the thumb and moves it through
+     * {@code targets} (fractions of the track), one MOVE per frame, then releases.
+     */
+    private void drag(float[] targets, long durationMs) {
+        recyclerView.scrollToPosition(0);
+        recyclerView.post(() -> recyclerView.scrollBy(0, 1)); // an onScrolled with a delta: reveals the bar
+        handler.postDelayed(() -> {
+            recyclerView.getLocationInWindow(location);
+            float density = activity.getResources().getDisplayMetrics().density;
+            downX = location[0] + recyclerView.getWidth() - BAR_EDGE_DP * density;
+            downY = location[1] + THUMB_GRAB_DP * density;
+            downTime = SystemClock.uptimeMillis();
+            dispatch(MotionEvent.ACTION_DOWN, downY);
+
+            // the thumb cannot go past travel = height - thumb length; overshooting the track is clamped
+            float track = recyclerView.getHeight();
+            int steps = (int) Math.max(1, durationMs / FRAME_MS);
+            int perLeg = Math.max(1, steps / targets.length);
+            float from = 0f;
+            int step = 0;
+            for (float target : targets) {
+                for (int i = 1; i <= perLeg; i++) {
+                    float y = downY + (from + (target - from) * i / perLeg) * track;
+                    handler.postDelayed(() -> dispatch(MotionEvent.ACTION_MOVE, y), ++step * FRAME_MS);
+                }
+                from = target;
+            }
+            float lastY = downY + from * track;
+            handler.postDelayed(() -> dispatch(MotionEvent.ACTION_UP, lastY), (step + 1) * FRAME_MS);
+        }, REVEAL_MS);
+    }
+
+    private float[] randomTargets(int count) {
+        float[] targets = new float[count];
+        for (int i = 0; i < count; i++) targets[i] = random.nextFloat();
+        return targets;
+    }
+
+    private void dispatch(int action, float y) {
+        View decor = activity.getWindow().getDecorView();
+        MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, downX, y, 0);
+        decor.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private static final class Scenario {
+        final String name;
+        final long durationMs;
+        final Runnable action;
+
+        Scenario(String name, long durationMs, Runnable action) {
+            this.name = name;
+            this.durationMs = durationMs;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.jakir.fastscroller_recyclerview;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Display;
+import android.view.FrameMetrics;
+import android.view.View;
+import android.view.Window;
+import android.widget.TextView;
+
+import com.jakir.fastscroller.FastScroller;
+import com.jakir.fastscroller.ScrollMetrics;
+
+import java.util.Locale;
+
+/**
+ * On-screen stats, refreshed twice a second: frame times (from FrameMetrics, i.e. real drawn frames), binds/sec
+ * and what the scroller's onScrolled handling costs. Also feeds {@link #runStats()} for the scenario runner.
+ */
+final class StatsOverlay {
+
+    private static final long REFRESH_MS = 500L;
+
+    private final Activity activity;
+    private final TextView view;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final FrameStats window = new FrameStats();   // since the last refresh
+    private final FrameStats run = new FrameStats();      // since the last resetRunStats()
+    private final Window.OnFrameMetricsAvailableListener frameListener = this::onFrameMetrics;
+    private final Runnable refresh = this::refresh;
+    private long frameBudgetNanos = 16_666_667L;
+    private boolean started = false;
+    private String label;  // running scenario, null -> none
+
+    private StressAdapter adapter;
+    private FastScroller scroller;
+    private long lastBinds;
+    private long lastScrolledCalls;
+    private long lastScrolledNanos;
+    private long lastRefreshMs;
+
+    StatsOverlay(Activity activity, TextView view) {
+        this.activity = activity;
+        this.view = view;
+    }
+
+    void setSources(StressAdapter adapter, FastScroller scroller) {
+        this.adapter = adapter;
+        this.scroller = scroller;
+        lastBinds = adapter != null ? adapter.binds : 0;
+    }
+
+    void start() {
+        if (started) return;
+        started = true;
+        Display display = view.getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 60f;
+        if (refreshRate >= 1f) frameBudgetNanos = (long) (1_000_000_000L / refreshRate);
+        activity.getWindow().addOnFrameMetricsAvailableListener(frameListener, handler);
+        lastRefreshMs = SystemClock.uptimeMillis();
+        handler.postDelayed(refresh, REFRESH_MS);
+    }
+
+    void stop() {
+        if (!started) return;
+        started = false;
+        activity.getWindow().removeOnFrameMetricsAvailableListener(frameListener);
+        handler.removeCallbacks(refresh);
+    }
+
+    void setLabel(String label) {
+        this.label = label;
+    }
+
+    void setVisible(boolean visible) {
+        view.setVisibility(visible ? View.VISIBLE : View.GONE);
+    }
+
+    boolean isVisible() {
+        return view.getVisibility() == View.VISIBLE;
+    }
+
+    FrameStats runStats() {
+        return run;
+    }
+
+    void resetRunStats() {
+        run.reset();
+    }
+
+    long frameBudgetNanos() {
+        return frameBudgetNanos;
+    }
+
+    private void onFrameMetrics(Window window, FrameMetrics metrics, int dropCount) {
+        if (metrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 1) return;
+        long duration = metrics.getMetric(FrameMetrics.TOTAL_DURATION);
+        this.window.add(duration, frameBudgetNanos);
+        run.add(duration, frameBudgetNanos);
+    }
+
+    private void refresh() {
+        if (!started) return;
+        long now = SystemClock.uptimeMillis();
+        float seconds = Math.max(1, now - lastRefreshMs) / 1000f;
+        lastRefreshMs = now;
+
+        long binds = adapter != null ? adapter.binds : 0;
+        if (binds < lastBinds) lastBinds = 0;  // adapter swapped
+        float bindsPerSecond = (binds - lastBinds) / seconds;
+        lastBinds = binds;
+
+        String thumb = "off";
+        ScrollMetrics m = scroller != null ? scroller.getMetrics() : null;
+        if (m != null) {
+            if (m.scrolledCalls < lastScrolledCalls) lastScrolledCalls = lastScrolledNanos = 0;  // metrics reset
+            long calls = m.scrolledCalls - lastScrolledCalls;
+            long nanos = m.scrolledTotalNanos - lastScrolledNanos;
+            lastScrolledCalls = m.scrolledCalls;
+            lastScrolledNanos = m.scrolledTotalNanos;
+            thumb = String.format(Locale.US, "%.1f µs avg (%d calls), %d µs max, %d layouts",
+                    calls == 0 ? 0f : nanos / 1000f / calls, calls, m.scrolledMaxNanos / 1000, m.layoutRequests);
+        }
+
+        if (isVisible()) {
+            view.setText((label != null ? "[" + label + "] " : "") + String.format(Locale.US, "frames %d  avg %.1f ms  p95 %d ms  max %.1f ms  janky %d%nbinds %.0f/s%nthumb %s",
+                    window.count(), window.averageMs(), window.percentileMs(0.95f), window.maxMs(), window.janky(),
+                    bindsPerSecond, thumb));
+        }
+        window.reset();
+        handler.postDelayed(refresh, REFRESH_MS);
+    }
+}
@@ -0,0 +1,111 @@
+package com.jakir.fastscroller_recyclerview;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Adapter for the stress harness. Row height and view type are derived from a hash of the position, so even
+ * 100M items need no per-item storage and every run of a config sees the same list.
+ */
+public class StressAdapter extends RecyclerView.Adapter<StressAdapter.Holder> {
+
+    static final int MAX_VIEW_TYPES = 8;
+    private static final int FIXED_DP = 60;
+    private static final int RANDOM_MIN_DP = 40;
+    private static final int RANDOM_MAX_DP = 160;
+    private static final int TAIL_MIN_DP = 40;
+    private static final int TAIL_MAX_DP = 3000;   // a few screens
+    private static final double TAIL_ALPHA = 1.3;  // smaller -> heavier tail
+
+    final StressConfig config;
+    private final float density;
+    private final long bindCostNanos;
+    long binds = 0;  // read by the stats overlay and the scenario runner (main thread)
+
+    public StressAdapter(StressConfig config, float density) {
+        this.config = config;
+        this.density = density;
+        this.bindCostNanos = config.bindCostUs * 1_000L;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return config.viewTypes == 1 ? 0 : (int) ((hash(position) >>> 40) % config.viewTypes);
+    }
+
+    @NonNull
+    @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        Holder holder = new Holder(LayoutInflater.from(parent.getContext()).inflate(R.layout.item_row, parent, false));
+        // types differ in text size / padding, enough to give each its own pool and layout cost
+        holder.text.setTextSize(14 + 2 * viewType);
+        int pad = (int) ((20 + 4 * viewType) * density);
+        holder.text.setPadding(pad, 0, pad, 0);
+        holder.text.setAlpha(1f - 0.06f * viewType);
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        binds++;
+        if (bindCostNanos > 0) spin(bindCostNanos);
+        ViewGroup.LayoutParams lp = holder.itemView.getLayoutParams();
+        int height = heightPx(position);
+        if (lp.height != height) {
+            lp.height = height;
+            holder.itemView.setLayoutParams(lp);
+        }
+        holder.text.setText("Item: " + position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return config.itemCount;
+    }
+
+    int heightPx(int position) {
+        switch (config.heights) {
+            case RANDOM: {
+                int dp = RANDOM_MIN_DP + (int) ((hash(position) >>> 33) % (RANDOM_MAX_DP - RANDOM_MIN_DP + 1));
+                return (int) (dp * density);
+            }
+            case HEAVY_TAILED: {
+                // Pareto(TAIL_MIN_DP, TAIL_ALPHA) from a uniform u in (0, 1]
+                double u = ((hash(position) >>> 11) + 1) / (double) (1L << 53);
+                double dp = Math.min(TAIL_MAX_DP, TAIL_MIN_DP / Math.pow(u, 1 / TAIL_ALPHA));
+                return (int) (dp * density);
+            }
+            default:
+                return (int) (FIXED_DP * density);
+        }
+    }
+
+    // splitmix64 finalizer
+    private long hash(int position) {
+        long z = position + config.seed * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        //noinspection StatementWithEmptyBody
+        while (System.nanoTime() < end) {
+        }
+    }
+
+    static class Holder extends RecyclerView.ViewHolder {
+        TextView text;
+
+        public Holder(@NonNull View itemView) {
+            super(itemView);
+            text = itemView.findViewById(R.id.rowText);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.jakir.fastscroller_recyclerview;
+
+import android.content.Intent;
+
+/**
+ * What the stress harness puts in the list: item count, row heights, bind cost, view types and scroller options.
+ * <p>
+ * From the dialog, or from intent extras for unattended runs:
+ * adb shell am start -n com.jakir.fastscroller_recyclerview/.MainActivity --ez autorun true
+ * --ei items 100000000 --es heights HEAVY_TAILED --ei bindCostUs 300 --ei viewTypes 4 --ez overlay false --ez heightIndex true
+ * <p>
+ * The height index only covers up to ItemHeightIndex.MAX_ITEMS rows; bigger lists run with row geometry even when
+ * heightIndex is set.
+ */
+final class StressConfig {
+
+    static final int MAX_ITEMS = 100_000_000;
+
+    enum Heights {
+        FIXED,        // every row 60dp
+        RANDOM,       // 40..160dp, uniform
+        HEAVY_TAILED  // Pareto: mostly short rows, now and then one several screens tall
+    }
+
+    int itemCount = 10_000;
+    Heights heights = Heights.FIXED;
+    int bindCostUs = 0;      // busy work per bind, simulating image decode / text layout
+    int viewTypes = 1;
+    boolean overlay = false;
+    boolean heightIndex = false;
+    long seed = 42;
+
+    static StressConfig fromIntent(Intent intent) {
+        StressConfig config = new StressConfig();
+        config.itemCount = clampItems(intent.getIntExtra("items", config.itemCount));
+        String heights = intent.getStringExtra("heights");
+        if (heights != null) config.heights = Heights.valueOf(heights);
+        config.bindCostUs = Math.max(0, intent.getIntExtra("bindCostUs", config.bindCostUs));
+        config.viewTypes = clampViewTypes(intent.getIntExtra("viewTypes", config.viewTypes));
+        config.overlay = intent.getBooleanExtra("overlay", config.overlay);
+        config.heightIndex = intent.getBooleanExtra("heightIndex", config.heightIndex);
+        return config;
+    }
+
+    /** What an adapter swap switches to: the next height distribution and more view types, same count. */
+    StressConfig alternate() {
+        StressConfig other = copy();
+        other.heights = Heights.values()[(heights.ordinal() + 1) % Heights.values().length];
+        other.viewTypes = clampViewTypes(viewTypes + 2);
+        other.seed = seed + 1;
+        return other;
+    }
+
+    StressConfig copy() {
+        StressConfig c = new StressConfig();
+        c.itemCount = itemCount;
+        c.heights = heights;
+        c.bindCostUs = bindCostUs;
+        c.viewTypes = viewTypes;
+        c.overlay = overlay;
+        c.heightIndex = heightIndex;
+        c.seed = seed;
+        return c;
+    }
+
+    static int clampItems(long items) {
+        return (int) Math.max(0, Math.min(MAX_ITEMS, items));
+    }
+
+    static int clampViewTypes(int types) {
+        return Math.max(1, Math.min(StressAdapter.MAX_VIEW_TYPES, types));
+    }
+
+    /** Parses a count typed into the dialog ("10", "1e6", "100000000"); bad input -> fallback. */
+    static int parseItems(String text, int fallback) {
+        try {
+            return clampItems((long) Double.parseDouble(text.trim()));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    static int parseInt(String text, int fallback) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "items=" + itemCount + " heights=" + heights + " bindCostUs=" + bindCostUs + " viewTypes=" + viewTypes
+                + " overlay=" + overlay + " heightIndex=" + heightIndex;
+    }
+}
@@ -0,0 +1,33 @@
+package com.jakir.fastscroller.benchmark;
+
+import com.jakir.fastscroller.core.PositionMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Thumb -> list: what every drag event computes (thumb start -> target position + intra-item offset).
+ * Should be flat in itemCount for FIXED and logarithmic for VARIABLE, with 0 B/op in both.
+ */
+@State(Scope.Thread)
+public class DragMappingBenchmark {
+
+    private final PositionMapper mapper = new PositionMapper();
+
+    @Benchmark
+    public long thumbToPosition(ListState list) {
+        float thumbStart = list.thumbStarts[list.next()];
+        int travel = ListState.CONTAINER - ListState.MIN_THUMB;
+
+        if (list.variable()) {
+            long contentLength = list.index.totalHeight();
+            long offset = PositionMapper.offsetForThumb(thumbStart, travel, contentLength, ListState.CONTAINER);
+            int position = list.index.positionAt(offset);
+            long intraOffset = offset - list.index.offsetOf(position);
+            return ((long) position << 32) | intraOffset;
+        }
+        mapper.mapPixels(thumbStart, travel, list.itemCount, ListState.FIXED_ROW, ListState.CONTAINER);
+        return (mapper.row() << 32) | mapper.offset();
+    }
+}
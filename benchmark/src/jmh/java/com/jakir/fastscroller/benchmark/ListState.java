@@ -0,0 +1,76 @@
+package com.jakir.fastscroller.benchmark;
+
+import com.jakir.fastscroller.core.ItemHeightIndex;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+
+/**
+ * A list of {@code itemCount} rows on a 1920 px tall RecyclerView, plus a ring of random inputs so the
+ * benchmarks never see a constant.
+ * <p>
+ * FIXED: 150 px rows, row-based math. VARIABLE: 48..600 px rows in an {@link ItemHeightIndex}; at most 1M rows
+ * are measured (spread evenly), the rest use the running estimate, like a list that was only partly seen.
+ * The index holds at most {@link ItemHeightIndex#MAX_ITEMS} rows (FastScroller uses the FIXED math above that),
+ * so VARIABLE with a larger itemCount measures an index of MAX_ITEMS rows.
+ */
+@State(Scope.Thread)
+public class ListState {
+
+    public static final int CONTAINER = 1920;
+    public static final int MIN_THUMB = 180;
+    public static final int FIXED_ROW = 150;
+    private static final int INPUTS = 1024; // power of two
+    private static final int MAX_MEASURED = 1_000_000;
+
+    @Param({"10", "1000", "100000", "10000000", "100000000"})
+    public int itemCount;
+
+    @Param({"FIXED", "VARIABLE"})
+    public String heights;
+
+    public ItemHeightIndex index;   // VARIABLE only
+    public int visibleRows;
+    public final int[] firstPositions = new int[INPUTS];
+    public final float[] thumbStarts = new float[INPUTS];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        boolean variable = "VARIABLE".equals(heights);
+        int rows = variable ? Math.min(itemCount, ItemHeightIndex.MAX_ITEMS) : itemCount;
+        visibleRows = Math.min(rows, CONTAINER / FIXED_ROW + 1);
+
+        if (variable) {
+            index = new ItemHeightIndex(FIXED_ROW);
+            index.reset(rows);
+            // an empty index would return early from every lookup and report a fake cost
+            if (index.isOverCapacity() || index.size() != rows) throw new IllegalStateException("height index not built: " + rows);
+            int stride = Math.max(1, rows / MAX_MEASURED);
+            for (int p = 0; p < rows; p += stride) {
+                index.setMeasured(p, 48 + random.nextInt(553));
+            }
+        }
+
+        for (int i = 0; i < INPUTS; i++) {
+            firstPositions[i] = random.nextInt(Math.max(1, rows - visibleRows));
+            thumbStarts[i] = (float) random.nextDouble() * (CONTAINER - MIN_THUMB);
+        }
+    }
+
+    public boolean variable() {
+        return index != null;
+    }
+
+    /** Next input slot (cheap, no branch on the size). */
+    public int next() {
+        cursor = (cursor + 1) & (INPUTS - 1);
+        return cursor;
+    }
+}
@@ -0,0 +1,55 @@
+package com.jakir.fastscroller.benchmark;
+
+import com.jakir.fastscroller.core.PositionMapper;
+import com.jakir.fastscroller.core.ScrollGeometry;
+import com.jakir.fastscroller.core.ThumbSpring;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * List -> thumb: what every onScrolled computes (thumb length, scroll progress, thumb start,
+ * spring targets), plus one spring frame.
+ * Should be flat in itemCount for FIXED and logarithmic for VARIABLE, with 0 B/op in both.
+ */
+@State(Scope.Thread)
+public class ThumbGeometryBenchmark {
+
+    private static final float FRAME_SECONDS = 1f / 120f;
+
+    private final ThumbSpring start = new ThumbSpring(ThumbSpring.POSITION_OMEGA);
+    private final ThumbSpring length = new ThumbSpring(ThumbSpring.LENGTH_OMEGA);
+
+    @Benchmark
+    public float onScrolled(ListState list) {
+        int first = list.firstPositions[list.next()];
+
+        int thumbLength;
+        float target;
+        if (list.variable()) {
+            long contentLength = list.index.totalHeight();
+            long scrollOffset = list.index.offsetOf(first);
+            thumbLength = ScrollGeometry.thumbLength(contentLength, ListState.CONTAINER, ListState.MIN_THUMB);
+            float ratio = ScrollGeometry.scrollRatio(scrollOffset, contentLength, ListState.CONTAINER);
+            target = ScrollGeometry.thumbStart(ratio, ListState.CONTAINER, thumbLength);
+        } else {
+            thumbLength = ScrollGeometry.thumbLength(list.visibleRows, list.itemCount, ListState.CONTAINER, ListState.MIN_THUMB);
+            target = (float) PositionMapper.thumbStartPixels(first, 0, ListState.FIXED_ROW, list.itemCount,
+                    ListState.CONTAINER, ListState.CONTAINER - thumbLength);
+        }
+
+        length.setTarget(thumbLength);
+        start.setTarget(target);
+        return start.getValue() + length.getValue();
+    }
+
+    /** One frame of thumb motion; the target flips every call so the spring never settles. */
+    @Benchmark
+    public float springFrame(ListState list) {
+        start.setTarget(ListState.CONTAINER * (list.next() & 1));
+        start.step(FRAME_SECONDS);
+        length.step(FRAME_SECONDS);
+        return start.getValue() + length.getValue();
+    }
+}
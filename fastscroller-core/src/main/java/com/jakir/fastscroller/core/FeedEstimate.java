@@ -0,0 +1,97 @@
+package com.jakir.fastscroller.core;
+
+/**
+ * Total item count of an endless feed, for a thumb that does not shrink and jump on every appended page.
+ * <p>
+ * - With an explicit estimate the total is that estimate, until the loaded count passes it.
+ * - Without one (or past it) it is extrapolated from the load rate: loaded count + {@link #PAGES_AHEAD}
+ * average pages.
+ * - Either way it never shrinks while the feed grows, so an append moves the thumb a little instead of
+ * sending it back up the track; only a smaller count (refresh) starts over.
+ * <p>
+ * It also learns how long a page takes to arrive after {@link #onNearEndRequested}, so the near-end trigger
+ * can lead a fast drag by the distance covered while the next page loads.
+ * <p>
+ * Usage:
+ * estimate.onItemCount(now, adapter.getItemCount());   // on every count change
+ * long total = estimate.estimatedTotal();
+ * if (estimate.isNearEnd(position, itemsPerSecond, visibleItems)) loadNextPage();
+ */
+public final class FeedEstimate {
+
+    /** Pages assumed to still come when no explicit estimate is given. */
+    public static final int PAGES_AHEAD = 3;
+    /** Page latency assumed until one was measured. */
+    public static final float DEFAULT_LATENCY_MS = 600f;
+    private static final float SMOOTHING = 0.3f;   // weight of the newest page size / latency
+
+    private long explicitTotal = 0;    // <= 0 -> extrapolate
+    private int count = 0;
+    private float pageSize = 0f;       // average append size
+    private float latencyMs = DEFAULT_LATENCY_MS;
+    private long requestTimeMs = -1;   // pending near-end request, -1 if none
+    private long estimate = 0;
+
+    /** Known (or guessed) final size; 0 or less to extrapolate from the pages loaded so far. */
+    public void setExplicitTotal(long total) {
+        explicitTotal = total;
+        estimate = 0;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public float averagePageSize() {
+        return pageSize;
+    }
+
+    public float loadLatencyMs() {
+        return latencyMs;
+    }
+
+    /** The app was asked for the next page at {@code timeMs}. */
+    public void onNearEndRequested(long timeMs) {
+        if (requestTimeMs < 0) requestTimeMs = timeMs;
+    }
+
+    /** The loaded item count is now {@code newCount}. */
+    public void onItemCount(long timeMs, int newCount) {
+        if (newCount < count) {
+            // refreshed / filtered: start over
+            estimate = 0;
+            pageSize = 0f;
+            requestTimeMs = -1;
+        } else if (newCount > count) {
+            int page = newCount - count;
+            pageSize = pageSize == 0f ? page : pageSize + (page - pageSize) * SMOOTHING;
+            if (requestTimeMs >= 0) {
+                float took = Math.max(0, timeMs - requestTimeMs);
+                latencyMs += (took - latencyMs) * SMOOTHING;
+                requestTimeMs = -1;
+            }
+        }
+        count = newCount;
+    }
+
+    /** Total to lay the thumb out for: at least the loaded count, never less than before while growing. */
+    public long estimatedTotal() {
+        long target = explicitTotal > count ? explicitTotal : count + (long) (pageSize * PAGES_AHEAD);
+        if (target > estimate) estimate = target;
+        return Math.max(estimate, count);
+    }
+
+    /**
+     * True when the next page should be requested now: the screen that will be showing after one page latency
+     * at {@code itemsPerSecond} (towards the end, 0 when not moving) reaches the last loaded screen.
+     *
+     * @param position     first visible (or drag target) item
+     * @param visibleItems items on one screen
+     */
+    public boolean isNearEnd(int position, float itemsPerSecond, int visibleItems) {
+        if (count == 0) return false;
+        float lead = Math.max(0f, itemsPerSecond) * latencyMs / 1000f;
+        // one screen of margin on top of the lead, so a slow scroll still gets its page in time
+        return position + lead + 2L * visibleItems >= count;
+    }
+}
@@ -0,0 +1,244 @@
+package com.jakir.fastscroller.core;
+
+import java.util.Arrays;
+
+/**
+ * Prefix sums over item heights, for pixel-accurate thumb geometry with variable-height rows.
+ * <p>
+ * Heights are recorded as items get laid out; items never measured count with an estimate
+ * (average of everything measured so far, or a default until the first measurement).
+ * Items are grouped in blocks of 64 and two Fenwick trees over the blocks hold the measured sum
+ * and the measured count, so:
+ * - offsetOf / positionAt are O(log n + 64), no full scans, no allocation
+ * - setMeasured is O(log n)
+ * - insert / remove (adapter range events) are O(n) array shifts + a linear rebuild, off the scroll path
+ * <p>
+ * Memory: one int per item plus 12 bytes per 64 items, so the index tracks at most {@link #MAX_ITEMS} items
+ * (about 16 MB). Above that it holds nothing and {@link #size()} is 0: callers fall back to row geometry,
+ * and the next reset() with a count within the limit starts tracking again.
+ */
+public class ItemHeightIndex {
+
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int UNMEASURED = -1;
+
+    /** Largest item count the index tracks. */
+    public static final int MAX_ITEMS = 4_000_000;
+
+    private int size;
+    private int[] heights = new int[0];
+    private int blockCount;
+    private long[] sumTree = new long[1];  // 1-based Fenwick over blocks
+    private int[] countTree = new int[1];  // 1-based Fenwick over blocks
+    private long measuredSum;
+    private int measuredCount;
+    private int defaultEstimate;
+    private boolean overCapacity;
+
+    public ItemHeightIndex(int defaultEstimatePx) {
+        this.defaultEstimate = Math.max(1, defaultEstimatePx);
+    }
+
+    // -------------------- Queries --------------------
+    public int size() {
+        return size;
+    }
+
+    /** True after reset() / insert() went past {@link #MAX_ITEMS}; nothing is tracked then. */
+    public boolean isOverCapacity() {
+        return overCapacity;
+    }
+
+    /** Height used for items that have not been measured yet. */
+    public int estimate() {
+        if (measuredCount == 0) return defaultEstimate;
+        return (int) Math.max(1, measuredSum / measuredCount);
+    }
+
+    public int heightOf(int position) {
+        int h = heights[position];
+        return h == UNMEASURED ? estimate() : h;
+    }
+
+    /** Pixel offset of the top of {@code position} (== sum of heights of all items before it). */
+    public long offsetOf(int position) {
+        if (position <= 0) return 0;
+        if (position > size) position = size;
+
+        int block = position >>> BLOCK_SHIFT;
+        long sum = 0;
+        int count = 0;
+        for (int i = block; i > 0; i -= i & -i) {
+            sum += sumTree[i];
+            count += countTree[i];
+        }
+        for (int i = block << BLOCK_SHIFT; i < position; i++) {
+            int h = heights[i];
+            if (h != UNMEASURED) {
+                sum += h;
+                count++;
+            }
+        }
+        return sum + (long) (position - count) * estimate();
+    }
+
+    public long totalHeight() {
+        return measuredSum + (long) (size - measuredCount) * estimate();
+    }
+
+    /** Item containing pixel {@code offset}, clamped to [0, size - 1]. Returns 0 when empty. */
+    public int positionAt(long offset) {
+        if (size == 0 || offset <= 0) return 0;
+
+        long est = estimate();
+        int block = 0;      // number of whole blocks before the result
+        long acc = 0;
+        for (int step = Integer.highestOneBit(Math.max(1, blockCount)); step > 0; step >>>= 1) {
+            int next = block + step;
+            if (next > blockCount) continue;
+            int items = Math.min(next << BLOCK_SHIFT, size) - (block << BLOCK_SHIFT);
+            long nodeHeight = sumTree[next] + (items - countTree[next]) * est;
+            if (acc + nodeHeight <= offset) {
+                block = next;
+                acc += nodeHeight;
+            }
+        }
+
+        int end = Math.min((block + 1) << BLOCK_SHIFT, size);
+        for (int i = block << BLOCK_SHIFT; i < end; i++) {
+            int h = heights[i];
+            acc += h == UNMEASURED ? est : h;
+            if (acc > offset) return i;
+        }
+        return size - 1;
+    }
+
+    // -------------------- Measurements --------------------
+
+    /** Records the laid-out height of {@code position}. Cheap no-op when unchanged. */
+    public void setMeasured(int position, int heightPx) {
+        if (position < 0 || position >= size || heightPx < 0) return;
+        int old = heights[position];
+        if (old == heightPx) return;
+
+        heights[position] = heightPx;
+        int countDelta = 0;
+        long sumDelta = heightPx;
+        if (old == UNMEASURED) {
+            countDelta = 1;
+        } else {
+            sumDelta -= old;
+        }
+        measuredSum += sumDelta;
+        measuredCount += countDelta;
+        for (int i = (position >>> BLOCK_SHIFT) + 1; i <= blockCount; i += i & -i) {
+            sumTree[i] += sumDelta;
+            countTree[i] += countDelta;
+        }
+    }
+
+    // -------------------- Adapter changes --------------------
+
+    /** Forget everything (e.g. notifyDataSetChanged); the current average survives as estimate. */
+    public void reset(int itemCount) {
+        defaultEstimate = estimate();
+        overCapacity = itemCount > MAX_ITEMS;
+        if (overCapacity) {
+            // release instead of allocating one int per item
+            size = 0;
+            if (heights.length > 0) {
+                heights = new int[0];
+                sumTree = new long[1];
+                countTree = new int[1];
+            }
+            rebuild();
+            return;
+        }
+        size = Math.max(0, itemCount);
+        if (heights.length < size) heights = new int[grow(size)];
+        Arrays.fill(heights, 0, size, UNMEASURED);
+        rebuild();
+    }
+
+    public void insert(int position, int count) {
+        if (count <= 0 || overCapacity) return;
+        if (count > MAX_ITEMS - size) {
+            reset(MAX_ITEMS + 1);
+            return;
+        }
+        position = clamp(position, 0, size);
+        ensureCapacity(size + count);
+        System.arraycopy(heights, position, heights, position + count, size - position);
+        Arrays.fill(heights, position, position + count, UNMEASURED);
+        size += count;
+        rebuild();
+    }
+
+    public void remove(int position, int count) {
+        position = clamp(position, 0, size);
+        count = Math.min(count, size - position);
+        if (count <= 0) return;
+        System.arraycopy(heights, position + count, heights, position, size - position - count);
+        size -= count;
+        rebuild();
+    }
+
+    public void move(int from, int to) {
+        if (from == to || from < 0 || to < 0 || from >= size || to >= size) return;
+        int h = heights[from];
+        if (from < to) {
+            System.arraycopy(heights, from + 1, heights, from, to - from);
+        } else {
+            System.arraycopy(heights, to, heights, to + 1, from - to);
+        }
+        heights[to] = h;
+        rebuild();
+    }
+
+    // -------------------- Internals --------------------
+    private void ensureCapacity(int capacity) {
+        if (heights.length >= capacity) return;
+        heights = Arrays.copyOf(heights, grow(capacity));
+    }
+
+    private static int grow(int capacity) {
+        long grown = Math.max((long) capacity, (long) capacity + (capacity >> 1));
+        return (int) Math.min(grown, MAX_ITEMS);
+    }
+
+    /** Linear-time Fenwick build over the blocks. */
+    private void rebuild() {
+        blockCount = (size + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+        if (sumTree.length < blockCount + 1) {
+            sumTree = new long[blockCount + 1];
+            countTree = new int[blockCount + 1];
+        } else {
+            Arrays.fill(sumTree, 0L);
+            Arrays.fill(countTree, 0);
+        }
+
+        measuredSum = 0;
+        measuredCount = 0;
+        for (int i = 0; i < size; i++) {
+            int h = heights[i];
+            if (h == UNMEASURED) continue;
+            int node = (i >>> BLOCK_SHIFT) + 1;
+            sumTree[node] += h;
+            countTree[node]++;
+            measuredSum += h;
+            measuredCount++;
+        }
+        for (int i = 1; i <= blockCount; i++) {
+            int parent = i + (i & -i);
+            if (parent <= blockCount) {
+                sumTree[parent] += sumTree[i];
+                countTree[parent] += countTree[i];
+            }
+        }
+    }
+
+    private static int clamp(int v, int min, int max) {
+        return v < min ? min : Math.min(v, max);
+    }
+}
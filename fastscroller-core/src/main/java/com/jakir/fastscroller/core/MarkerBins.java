@@ -0,0 +1,165 @@
+package com.jakir.fastscroller.core;
+
+import java.util.Arrays;
+
+/**
+ * Track markers (search hits, unread rows, ...) binned into track pixels.
+ * <p>
+ * - Markers are a sorted, duplicate-free int array of adapter positions: no boxing, binary-searchable.
+ * - Each bin (one px of track) keeps how many markers fall into it, so adding or removing k markers updates
+ * k counters and reports the span of changed bins in {@link #dirtyFrom()} / {@link #dirtyTo()}, at most the
+ * track length whatever the list size. Only {@link #resize} recounts everything (track length or item count).
+ * <p>
+ * Not thread-safe: the library runs every operation on one background thread.
+ * <p>
+ * Usage:
+ * bins.resize(trackPx, itemCount); bins.add(hits, hits.length);
+ * for (int b = bins.dirtyFrom(); b < bins.dirtyTo(); b++) paint(b, bins.count(b) > 0);
+ */
+public final class MarkerBins {
+
+    private int[] positions = new int[16];
+    private int size = 0;
+    private int[] counts = new int[0];
+    private int itemCount = 0;
+    private int dirtyFrom = 0;
+    private int dirtyTo = 0;
+
+    public int size() {
+        return size;
+    }
+
+    public int binCount() {
+        return counts.length;
+    }
+
+    /** Markers in {@code bin}. */
+    public int count(int bin) {
+        return counts[bin];
+    }
+
+    public boolean contains(int position) {
+        return Arrays.binarySearch(positions, 0, size, position) >= 0;
+    }
+
+    /** First bin changed by the last operation (inclusive). */
+    public int dirtyFrom() {
+        return dirtyFrom;
+    }
+
+    /** End of the bins changed by the last operation (exclusive); equal to {@link #dirtyFrom()} if nothing changed. */
+    public int dirtyTo() {
+        return dirtyTo;
+    }
+
+    /** Bin of an adapter position: its share of the item range, like the row based thumb. */
+    public int binOf(int position) {
+        int bins = counts.length;
+        if (bins == 0 || itemCount <= 0) return -1;
+        long bin = (long) position * bins / itemCount;
+        return (int) Math.max(0, Math.min(bins - 1, bin));
+    }
+
+    /** New track length (px) or item count: recounts every bin, all of them are dirty. */
+    public void resize(int bins, int newItemCount) {
+        if (bins == counts.length && newItemCount == itemCount) {
+            dirtyFrom = dirtyTo = 0;
+            return;
+        }
+        counts = new int[Math.max(0, bins)];
+        itemCount = newItemCount;
+        for (int i = 0; i < size; i++) {
+            int bin = binOf(positions[i]);
+            if (bin >= 0) counts[bin]++;
+        }
+        dirtyFrom = 0;
+        dirtyTo = counts.length;
+    }
+
+    /** Adds the first {@code n} entries of {@code added} (any order, duplicates ignored). */
+    public void add(int[] added, int n) {
+        resetDirty();
+        if (n <= 0) return;
+        int[] sorted = Arrays.copyOf(added, n);
+        Arrays.sort(sorted);
+
+        int fresh = 0;
+        for (int i = 0; i < n; i++) {
+            if ((i == 0 || sorted[i] != sorted[i - 1]) && !contains(sorted[i])) sorted[fresh++] = sorted[i];
+        }
+        if (fresh == 0) return;
+        // merge from the back, in place when there is room
+        if (size + fresh > positions.length) positions = Arrays.copyOf(positions, Math.max(size + fresh, positions.length * 2));
+        int read = size - 1;
+        int write = size + fresh - 1;
+        for (int i = fresh - 1; i >= 0; i--) {
+            int p = sorted[i];
+            while (read >= 0 && positions[read] > p) positions[write--] = positions[read--];
+            positions[write--] = p;
+            bump(p, 1);
+        }
+        size += fresh;
+    }
+
+    /** Removes the first {@code n} entries of {@code removed}; positions that are not markers are ignored. */
+    public void remove(int[] removed, int n) {
+        resetDirty();
+        if (n <= 0 || size == 0) return;
+        int[] sorted = Arrays.copyOf(removed, n);
+        Arrays.sort(sorted);
+
+        // one compaction pass over the markers, skipping the removed ones
+        int write = 0;
+        int r = 0;
+        for (int read = 0; read < size; read++) {
+            int p = positions[read];
+            while (r < n && sorted[r] < p) r++;
+            if (r < n && sorted[r] == p) {
+                bump(p, -1);
+                continue;
+            }
+            positions[write++] = p;
+        }
+        size = write;
+    }
+
+    /** Replaces all markers: the changed bins are the old and new ones, not the whole track. */
+    public void set(int[] markers, int n) {
+        int oldFrom = Integer.MAX_VALUE;
+        int oldTo = 0;
+        for (int i = 0; i < size; i++) {
+            int bin = binOf(positions[i]);
+            if (bin < 0) continue;
+            counts[bin]--;
+            oldFrom = Math.min(oldFrom, bin);
+            oldTo = Math.max(oldTo, bin + 1);
+        }
+        size = 0;
+        add(markers, n);
+        if (oldFrom < oldTo) {
+            dirtyFrom = dirtyTo > dirtyFrom ? Math.min(dirtyFrom, oldFrom) : oldFrom;
+            dirtyTo = Math.max(dirtyTo, oldTo);
+        }
+    }
+
+    public void clear() {
+        set(positions, 0);
+    }
+
+    private void bump(int position, int delta) {
+        int bin = binOf(position);
+        if (bin < 0) return;
+        counts[bin] += delta;
+        if (dirtyTo == dirtyFrom) {
+            dirtyFrom = bin;
+            dirtyTo = bin + 1;
+        } else {
+            dirtyFrom = Math.min(dirtyFrom, bin);
+            dirtyTo = Math.max(dirtyTo, bin + 1);
+        }
+    }
+
+    private void resetDirty() {
+        dirtyFrom = dirtyTo = 0;
+    }
+}
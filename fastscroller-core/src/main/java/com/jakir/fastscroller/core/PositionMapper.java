@@ -0,0 +1,126 @@
+package com.jakir.fastscroller.core;
+
+/**
+ * Thumb <-> list mapping in double / long arithmetic, exact for any int item count.
+ * <p>
+ * A float ratio has 24 bits: above ~16M rows one step of it skips many rows, so whole ranges of the list cannot be
+ * reached by dragging. Here the thumb start is multiplied by the row range before dividing by the thumb travel,
+ * which keeps every product of a pixel position and an int range exact. The fraction left over becomes a pixel
+ * offset into the target row, so the content follows the finger continuously instead of in row-sized steps.
+ * <p>
+ * Rows are assumed to be {@code rowLengthPx} long: {@link #mapPixels} when that length is known, {@link #map}
+ * (row tops only with a length of 0) when it is not. Allocation-free: the second result of
+ * {@link #map} is kept in the instance, like the rest of the drag path does.
+ * <p>
+ * Usage:
+ * mapper.mapPixels(thumbStart, containerLength - thumbLength, totalRows, rowLengthPx, containerLength);
+ * layoutManager.scrollToPositionWithOffset((int) mapper.row(), -mapper.offset());
+ */
+public final class PositionMapper {
+
+    private long row;
+    private int offset;
+
+    /**
+     * Maps a thumb start to the first row to show and how far (px) that row is scrolled out.
+     *
+     * @param thumbStart  thumb top / left (px), clamped to 0..thumbTravel
+     * @param thumbTravel container length minus thumb length (px)
+     * @param rangeRows   rows minus visible rows: the first row shown with the thumb at the end
+     * @param rowLengthPx length of one row (px), 0 -> row tops only
+     */
+    public void map(double thumbStart, double thumbTravel, long rangeRows, int rowLengthPx) {
+        offset = 0;
+        if (rangeRows <= 0 || thumbTravel <= 0d || thumbStart <= 0d) {
+            row = 0;
+            return;
+        }
+        if (thumbStart >= thumbTravel) {
+            row = rangeRows;
+            return;
+        }
+        // multiply first: thumbStart * rangeRows is exact for whole pixels, the division is rounded once
+        double exact = thumbStart * rangeRows / thumbTravel;
+        long r = (long) exact;
+        if (r >= rangeRows) {
+            row = rangeRows;
+            return;
+        }
+        row = r;
+        if (rowLengthPx > 0) offset = (int) ((exact - r) * rowLengthPx);
+    }
+
+    /**
+     * Same as {@link #map} with the row length known: maps through the pixel range (rows x row length minus the
+     * container), so the thumb at the end of the track shows the true end of the list rather than the top of the
+     * last screen of rows. Exact while thumbStart x that range stays below 2^53.
+     *
+     * @param rowLengthPx length of one row (px), must be > 0
+     */
+    public void mapPixels(double thumbStart, double thumbTravel, long totalRows, int rowLengthPx, int containerLength) {
+        if (rowLengthPx <= 0) {
+            row = 0;
+            offset = 0;
+            return;
+        }
+        long scrolled = offsetForThumb(thumbStart, thumbTravel, totalRows * rowLengthPx, containerLength);
+        row = scrolled / rowLengthPx;
+        offset = (int) (scrolled % rowLengthPx);
+    }
+
+    /**
+     * Drag target of a list of same-size rows, as FastScroller and {@link TraceReplayer} both compute it: through the
+     * pixel range once the first row's length is known ({@link #mapPixels}), row tops otherwise ({@link #map}).
+     *
+     * @param rowLengthPx length of the first visible row (px), 0 if unknown
+     */
+    public void mapRows(double thumbStart, double thumbTravel, long totalRows, long visibleRows, int rowLengthPx, int containerLength) {
+        if (rowLengthPx > 0) {
+            mapPixels(thumbStart, thumbTravel, totalRows, rowLengthPx, containerLength);
+        } else {
+            map(thumbStart, thumbTravel, totalRows - visibleRows, 0);
+        }
+    }
+
+    /** First row to show, from the last {@link #map} / {@link #mapPixels}. */
+    public long row() {
+        return row;
+    }
+
+    /** Px the row is scrolled out (0 <= offset < rowLengthPx), from the last {@link #map} / {@link #mapPixels}. */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Inverse of {@link #map}: thumb start for a list showing {@code row} scrolled out by {@code offsetPx}, so the
+     * thumb moves with sub-row scrolling and lands where the finger left it after a drag.
+     */
+    public static double thumbStart(long row, int offsetPx, int rowLengthPx, long rangeRows, double thumbTravel) {
+        if (rangeRows <= 0 || thumbTravel <= 0d || row < 0) return 0d;
+        double fraction = rowLengthPx > 0 ? Math.min(1d, Math.max(0d, (double) offsetPx / rowLengthPx)) : 0d;
+        return Math.min(thumbTravel, (row + fraction) * thumbTravel / rangeRows);
+    }
+
+    /** Inverse of {@link #mapPixels}. */
+    public static double thumbStartPixels(long row, int offsetPx, int rowLengthPx, long totalRows, int containerLength, double thumbTravel) {
+        long range = totalRows * rowLengthPx - containerLength;
+        if (range <= 0 || thumbTravel <= 0d || row < 0) return 0d;
+        long scrolled = row * rowLengthPx + offsetPx;
+        return Math.min(thumbTravel, Math.max(0d, (double) scrolled * thumbTravel / range));
+    }
+
+    /** Inverse of {@link #mapRows}: thumb start for the first visible row, scrolled out by {@code scrolledPx}. */
+    public static double rowThumbStart(long firstRow, int scrolledPx, int rowLengthPx, long totalRows, long visibleRows, int containerLength, double thumbTravel) {
+        if (rowLengthPx > 0) return thumbStartPixels(firstRow, scrolledPx, rowLengthPx, totalRows, containerLength, thumbTravel);
+        return thumbStart(firstRow, 0, 0, totalRows - visibleRows, thumbTravel);
+    }
+
+    /** Pixel-content version of {@link #map}: scroll offset (px) for a thumb start, content of known length. */
+    public static long offsetForThumb(double thumbStart, double thumbTravel, long contentLength, int containerLength) {
+        long range = contentLength - containerLength;
+        if (range <= 0 || thumbTravel <= 0d || thumbStart <= 0d) return 0L;
+        if (thumbStart >= thumbTravel) return range;
+        return Math.min(range, (long) (thumbStart * range / thumbTravel));
+    }
+}
@@ -0,0 +1,56 @@
+package com.jakir.fastscroller.core;
+
+/**
+ * Thumb geometry of the fast scroller, free of Android types so it can be unit tested and benchmarked on a plain JVM.
+ * <p>
+ * Lengths are px along the scroll axis. "Rows" are items for linear lists and rows of items for grids.
+ * Every method is static, branch-light and allocation-free: it runs on every onScrolled and every drag event.
+ */
+public final class ScrollGeometry {
+
+    private ScrollGeometry() {
+    }
+
+    // -------------------- List -> thumb --------------------
+
+    /** Bar thickness: {@code halfThickness} while the list is short (visible x 4 > total), {@code fullThickness} after. */
+    public static int barThickness(int visibleRows, int totalRows, int halfThickness, int fullThickness) {
+        return (long) visibleRows * 4 > totalRows ? halfThickness : fullThickness;
+    }
+
+    /** Thumb length when all rows have the same size: the visible share of the container, at least minThumbLength. */
+    public static int thumbLength(int visibleRows, int totalRows, int containerLength, int minThumbLength) {
+        if (totalRows <= 0) return minThumbLength;
+        return Math.max(minThumbLength, (int) ((float) visibleRows / totalRows * containerLength));
+    }
+
+    /** Thumb length from real content length (px), e.g. from an {@link ItemHeightIndex}. */
+    public static int thumbLength(long contentLength, int containerLength, int minThumbLength) {
+        if (contentLength <= 0) return minThumbLength;
+        return Math.max(minThumbLength, (int) ((double) containerLength / contentLength * containerLength));
+    }
+
+    /** Scroll progress 0..1 from a pixel offset into content of {@code contentLength} px. */
+    public static float scrollRatio(long scrollOffset, long contentLength, int containerLength) {
+        long range = contentLength - containerLength;
+        if (range <= 0) return 0f;
+        return (float) Math.min(1d, Math.max(0d, (double) scrollOffset / range));
+    }
+
+    /** Thumb start (top / left) for a scroll progress. */
+    public static float thumbStart(float scrollRatio, int containerLength, float thumbLength) {
+        return scrollRatio * (containerLength - thumbLength);
+    }
+
+    // -------------------- Thumb -> list --------------------
+
+    /**
+     * Scroll progress 0..1 for a thumb start (inverse of {@link #thumbStart}). Too coarse to pick a row in long
+     * lists; {@link PositionMapper} maps thumb starts to rows and pixel offsets exactly.
+     */
+    public static float thumbRatio(float thumbStart, int containerLength, float thumbLength) {
+        float travel = containerLength - thumbLength;
+        if (travel <= 0f) return 0f;
+        return Math.min(1f, Math.max(0f, thumbStart / travel));
+    }
+}
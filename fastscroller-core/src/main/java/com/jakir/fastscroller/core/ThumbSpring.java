@@ -0,0 +1,81 @@
+package com.jakir.fastscroller.core;
+
+/**
+ * Critically damped spring for one thumb value (start or length, px), advanced by frame time.
+ * <p>
+ * The step is the closed-form solution, not an integration, so the motion is the same at 60, 90 or 120 Hz and
+ * with dropped frames or a long stall: only elapsed time matters. Scroll events only move the target; frames move the value.
+ * Within {@link #REST_DISTANCE} px and {@link #REST_VELOCITY} px/s of the target it snaps and reports settled,
+ * which is when the caller stops asking for frames.
+ * <p>
+ * Usage:
+ * spring.setTarget(targetPx);              // onScrolled
+ * boolean moving = spring.step(dtSeconds); // every frame until false
+ */
+public final class ThumbSpring {
+
+    /** Stiffness of the thumb start: ~99% of the way in 0.2 s. */
+    public static final float POSITION_OMEGA = 33f;
+    /** Stiffness of the thumb length, a little softer so size changes do not twitch. */
+    public static final float LENGTH_OMEGA = 25f;
+
+    public static final float REST_DISTANCE = 0.5f;
+    public static final float REST_VELOCITY = 10f;
+
+    private final float omega;   // rad/s
+    private float value;
+    private float velocity;      // px/s
+    private float target;
+
+    public ThumbSpring(float omega) {
+        this.omega = omega;
+    }
+
+    public float getValue() {
+        return value;
+    }
+
+    public float getTarget() {
+        return target;
+    }
+
+    public void setTarget(float target) {
+        this.target = target;
+    }
+
+    /** Jumps to {@code value} and stays there (target too), e.g. while a finger owns the thumb. */
+    public void snapTo(float value) {
+        this.value = value;
+        this.target = value;
+        this.velocity = 0f;
+    }
+
+    public boolean isSettled() {
+        return value == target && velocity == 0f;
+    }
+
+    /**
+     * Advances the spring by {@code dtSeconds}.
+     *
+     * @return true while still moving, false once settled on the target
+     */
+    public boolean step(float dtSeconds) {
+        if (isSettled()) return false;
+        float t = Math.max(0f, dtSeconds);
+
+        // x(t) = (d + c t) e^-wt, v(t) = (v - w c t) e^-wt with d = x - target, c = v + w d
+        float d = value - target;
+        float c = velocity + omega * d;
+        float decay = (float) Math.exp(-omega * t);
+        float newD = (d + c * t) * decay;
+        velocity = (velocity - omega * c * t) * decay;
+        value = target + newD;
+
+        if (Math.abs(newD) < REST_DISTANCE && Math.abs(velocity) < REST_VELOCITY) {
+            value = target;
+            velocity = 0f;
+            return false;
+        }
+        return true;
+    }
+}
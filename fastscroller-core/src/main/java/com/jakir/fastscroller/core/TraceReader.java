@@ -0,0 +1,94 @@
+package com.jakir.fastscroller.core;
+
+/**
+ * Decodes a trace written by {@link TraceWriter} and hands every record to a {@link Visitor}, in order.
+ */
+public final class TraceReader {
+
+    /** Receives the decoded records. Times are absolute ms (same clock as recorded). */
+    public interface Visitor {
+        void onContainer(int containerLength, int minThumbLength);
+
+        void onScrolled(long timeMs, int dx, int dy, int firstRow, int visibleRows, int totalRows, int itemCount,
+                        int firstRowLength, int firstRowScrolled);
+
+        void onTouch(long timeMs, int action, float position);
+    }
+
+    private final byte[] data;
+    private int pos;
+    private long timeMs;
+    private int first;
+
+    private TraceReader(byte[] data) {
+        this.data = data;
+    }
+
+    /** @throws IllegalArgumentException if {@code trace} is not a trace or is truncated */
+    public static void read(byte[] trace, Visitor visitor) {
+        new TraceReader(trace).readAll(visitor);
+    }
+
+    private void readAll(Visitor visitor) {
+        if (data.length < 4 || data[0] != TraceWriter.MAGIC[0] || data[1] != TraceWriter.MAGIC[1] || data[2] != TraceWriter.MAGIC[2]) {
+            throw new IllegalArgumentException("not a fast scroller trace");
+        }
+        if (data[3] != TraceWriter.VERSION) throw new IllegalArgumentException("unsupported trace version " + data[3]);
+        pos = 4;
+
+        while (pos < data.length) {
+            int type = readByte();
+            switch (type) {
+                case TraceWriter.CONTAINER:
+                    visitor.onContainer((int) readVarLong(), (int) readVarLong());
+                    break;
+                case TraceWriter.SCROLLED: {
+                    long t = readTime();
+                    int dx = (int) unzigzag(readVarLong());
+                    int dy = (int) unzigzag(readVarLong());
+                    first += (int) unzigzag(readVarLong());
+                    int visible = (int) readVarLong();
+                    int total = (int) readVarLong();
+                    int items = (int) readVarLong();
+                    int rowLength = (int) readVarLong();
+                    int rowScrolled = (int) unzigzag(readVarLong());
+                    visitor.onScrolled(t, dx, dy, first, visible, total, items, rowLength, rowScrolled);
+                    break;
+                }
+                case TraceWriter.TOUCH: {
+                    long t = readTime();
+                    int action = readByte();
+                    int bits = (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+                    visitor.onTouch(t, action, Float.intBitsToFloat(bits));
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("unknown record type " + type + " at " + (pos - 1));
+            }
+        }
+    }
+
+    private long readTime() {
+        timeMs += readVarLong();
+        return timeMs;
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalArgumentException("malformed varint at " + pos);
+    }
+
+    private int readByte() {
+        if (pos >= data.length) throw new IllegalArgumentException("truncated trace");
+        return data[pos++] & 0xFF;
+    }
+}
@@ -0,0 +1,212 @@
+package com.jakir.fastscroller.core;
+
+/**
+ * Replays a trace from {@link TraceWriter} on a plain JVM, so a recorded session can be compared before / after a
+ * change to the thumb math or the drag logic.
+ * <p>
+ * Bar thickness, thumb length, thumb position and drag targets come from the routines FastScroller calls on its
+ * row based path ({@link ScrollGeometry}, {@link PositionMapper#rowThumbStart}, {@link PositionMapper#mapRows}).
+ * Scroll events move the {@link ThumbSpring} targets and the springs advance by the time between events; the
+ * thumb is finger-owned while dragging.
+ * <p>
+ * Only what a trace records is replayed. A list with the height index, ConcatAdapter segments or an infinite feed
+ * replays as plain same-size rows, and a grid as its rows. Drag frames are 16 ms buckets (latest target wins, an
+ * unchanged target scrolls nothing), without the scroller's frame skipping after a slow frame. Layout requests
+ * are counted the way the view renderer issues them: a thumb thickness or target length change, plus every drag
+ * scroll.
+ * <p>
+ * Usage:
+ * TraceReplayer.Result r = new TraceReplayer(7, 14).replay(trace);
+ */
+public final class TraceReplayer {
+
+    /** Outcome of one replay. All fields but {@link #replayNanos} are deterministic for a given trace. */
+    public static final class Result {
+        public final int scrollEvents;
+        public final int touchEvents;
+        public final int drags;
+        public final int dragScrolls;       // list scrolls issued by drag frames
+        public final int layoutRequests;    // thumb resizes + drag scrolls
+        public final float thumbStart;      // final thumb start (px)
+        public final float thumbLength;     // final thumb length (px)
+        public final int lastTargetRow;     // row of the last drag scroll, -1 if none
+        public final int lastTargetOffset;  // and how far (px) that row was scrolled out
+        public final long replayNanos;
+
+        Result(int scrollEvents, int touchEvents, int drags, int dragScrolls, int layoutRequests,
+               float thumbStart, float thumbLength, int lastTargetRow, int lastTargetOffset, long replayNanos) {
+            this.scrollEvents = scrollEvents;
+            this.touchEvents = touchEvents;
+            this.drags = drags;
+            this.dragScrolls = dragScrolls;
+            this.layoutRequests = layoutRequests;
+            this.thumbStart = thumbStart;
+            this.thumbLength = thumbLength;
+            this.lastTargetRow = lastTargetRow;
+            this.lastTargetOffset = lastTargetOffset;
+            this.replayNanos = replayNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "scrolls=" + scrollEvents + " touches=" + touchEvents + " drags=" + drags
+                    + " dragScrolls=" + dragScrolls + " layoutRequests=" + layoutRequests
+                    + " thumb=" + thumbStart + "+" + thumbLength + " lastTarget=" + lastTargetRow + "+" + lastTargetOffset + "px"
+                    + " replay=" + replayNanos + "ns";
+        }
+    }
+
+    private static final long FRAME_MS = 16L; // drag frames are bucketed at ~60 Hz
+
+    private final int fullThicknessPx;
+    private final int halfThicknessPx;
+
+    /**
+     * @param halfThicknessPx bar thickness for short lists (visible x 4 > total)
+     * @param fullThicknessPx bar thickness otherwise
+     */
+    public TraceReplayer(int halfThicknessPx, int fullThicknessPx) {
+        this.halfThicknessPx = halfThicknessPx;
+        this.fullThicknessPx = fullThicknessPx;
+    }
+
+    public Result replay(byte[] trace) {
+        State state = new State();
+        long start = System.nanoTime();
+        TraceReader.read(trace, state);
+        state.flushDragFrame();
+        long elapsed = System.nanoTime() - start;
+        return new Result(state.scrollEvents, state.touchEvents, state.drags, state.dragScrolls,
+                state.layoutRequests, state.pos.getValue(), state.length.getValue(), state.lastTargetRow, state.lastTargetOffset,
+                elapsed);
+    }
+
+    // -------------------- Model --------------------
+    private final class State implements TraceReader.Visitor {
+        int container;
+        int minThumb;
+        int visible;
+        int total;
+        int rowLength;              // first visible row, 0 -> unknown (row tops only)
+
+        final ThumbSpring pos = new ThumbSpring(ThumbSpring.POSITION_OMEGA);
+        final ThumbSpring length = new ThumbSpring(ThumbSpring.LENGTH_OMEGA);
+        private final PositionMapper mapper = new PositionMapper();
+        long lastTimeMs = -1;
+        int thickness = -1;
+        int appliedLength = -1;
+
+        boolean dragging;
+        float touchDownPos;
+        float thumbDownPos;
+        long frame = -1;            // frame bucket of the pending drag target
+        int pendingRow = -1;
+        int pendingOffset = 0;
+        int lastTargetRow = -1;
+        int lastTargetOffset = 0;
+
+        int scrollEvents;
+        int touchEvents;
+        int drags;
+        int dragScrolls;
+        int layoutRequests;
+
+        @Override
+        public void onContainer(int containerLength, int minThumbLength) {
+            container = containerLength;
+            minThumb = minThumbLength;
+        }
+
+        @Override
+        public void onScrolled(long timeMs, int dx, int dy, int firstRow, int visibleRows, int totalRows, int itemCount,
+                               int firstRowLength, int firstRowScrolled) {
+            scrollEvents++;
+            advance(timeMs);
+            visible = visibleRows;
+            total = totalRows;
+            rowLength = firstRowLength;
+            if (total == 0 || visible >= total || firstRow < 0) return;
+
+            int targetThickness = ScrollGeometry.barThickness(visible, total, halfThicknessPx, fullThicknessPx);
+            if (targetThickness != thickness) {
+                thickness = targetThickness;
+                layoutRequests++;
+            }
+
+            int targetLength = ScrollGeometry.thumbLength(visible, total, container, minThumb);
+            float targetPos = (float) PositionMapper.rowThumbStart(firstRow, firstRowScrolled, rowLength, total, visible,
+                    container, container - targetLength);
+            length.setTarget(targetLength);
+            if (!dragging) pos.setTarget(targetPos);
+            applyLength(targetLength);
+        }
+
+        @Override
+        public void onTouch(long timeMs, int action, float position) {
+            touchEvents++;
+            advance(timeMs);
+            switch (action) {
+                case TraceWriter.ACTION_DOWN:
+                    drags++;
+                    dragging = true;
+                    touchDownPos = position;
+                    thumbDownPos = pos.getValue();
+                    pos.snapTo(thumbDownPos);
+                    lastTargetRow = -1;
+                    lastTargetOffset = 0;
+                    target(timeMs, thumbDownPos);
+                    break;
+                case TraceWriter.ACTION_MOVE: {
+                    if (!dragging) break;
+                    float newPos = thumbDownPos + position - touchDownPos;
+                    newPos = Math.max(0f, Math.min(newPos, container - length.getValue()));
+                    pos.snapTo(newPos);
+                    target(timeMs, newPos);
+                    break;
+                }
+                case TraceWriter.ACTION_UP:
+                case TraceWriter.ACTION_CANCEL:
+                    // release lands on the newest target right away
+                    flushDragFrame();
+                    dragging = false;
+                    break;
+            }
+        }
+
+        private void target(long timeMs, float thumbStart) {
+            long bucket = timeMs / FRAME_MS;
+            if (frame >= 0 && bucket != frame) flushDragFrame();
+            mapper.mapRows(thumbStart, container - length.getValue(), total, visible, rowLength, container);
+            pendingRow = (int) mapper.row();
+            pendingOffset = mapper.offset();
+            frame = bucket;
+        }
+
+        void flushDragFrame() {
+            if (frame < 0) return;
+            frame = -1;
+            // same target as last frame -> nothing to lay out
+            if (pendingRow == lastTargetRow && pendingOffset == lastTargetOffset) return;
+            lastTargetRow = pendingRow;
+            lastTargetOffset = pendingOffset;
+            dragScrolls++;
+            layoutRequests++;
+        }
+
+        // the springs run on frames in between events; stepping by the whole gap gives the same result
+        private void advance(long timeMs) {
+            if (lastTimeMs >= 0 && timeMs > lastTimeMs) {
+                float dt = (timeMs - lastTimeMs) / 1000f;
+                pos.step(dt);
+                length.step(dt);
+            }
+            lastTimeMs = timeMs;
+        }
+
+        private void applyLength(int px) {
+            if (px == appliedLength) return;
+            appliedLength = px;
+            layoutRequests++;
+        }
+    }
+}
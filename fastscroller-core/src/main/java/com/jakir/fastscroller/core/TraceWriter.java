@@ -0,0 +1,122 @@
+package com.jakir.fastscroller.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Compact binary trace of the inputs a fast scroller sees, for offline replay with {@link TraceReplayer}.
+ * <p>
+ * Format: magic "FST" + version byte, then records of one type byte followed by varints
+ * (times as deltas in ms, signed values zigzag encoded, first visible row as a delta):
+ * <pre>
+ * CONTAINER  length, minThumbLength
+ * SCROLLED   dt, dx, dy, Δfirst, visibleRows, totalRows, itemCount, firstRowLength, firstRowScrolled
+ * TOUCH      dt, action ({@link #ACTION_DOWN} ...), position along the drag axis (float bits, 4 bytes)
+ * </pre>
+ * A scroll event costs 9..24 bytes, so a minute of continuous scrolling at 120 Hz is well under 150 KB.
+ * Not thread-safe: record from the main thread.
+ */
+public final class TraceWriter {
+
+    static final byte[] MAGIC = {'F', 'S', 'T'};
+    static final int VERSION = 2;
+
+    static final int CONTAINER = 1;
+    static final int SCROLLED = 2;
+    static final int TOUCH = 3;
+
+    // touch actions, same values as android.view.MotionEvent
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+
+    private byte[] buffer = new byte[4096];
+    private int length = 0;
+    private long lastTimeMs = 0L;
+    private int lastFirst = 0;
+    private int lastContainer = -1;
+    private int lastMinThumb = -1;
+
+    public TraceWriter() {
+        for (byte b : MAGIC) writeByte(b);
+        writeByte(VERSION);
+    }
+
+    /** Container length along the scroll axis and minimum thumb length (px); only written when changed. */
+    public void container(int containerLength, int minThumbLength) {
+        if (containerLength == lastContainer && minThumbLength == lastMinThumb) return;
+        lastContainer = containerLength;
+        lastMinThumb = minThumbLength;
+        writeByte(CONTAINER);
+        writeVarLong(containerLength);
+        writeVarLong(minThumbLength);
+    }
+
+    /**
+     * @param firstRowLength   length (px) of the first visible row, 0 if unknown
+     * @param firstRowScrolled how far (px) that row is scrolled out
+     */
+    public void scrolled(long timeMs, int dx, int dy, int firstRow, int visibleRows, int totalRows, int itemCount,
+                         int firstRowLength, int firstRowScrolled) {
+        writeByte(SCROLLED);
+        writeTime(timeMs);
+        writeVarLong(zigzag(dx));
+        writeVarLong(zigzag(dy));
+        writeVarLong(zigzag(firstRow - lastFirst));
+        lastFirst = firstRow;
+        writeVarLong(visibleRows);
+        writeVarLong(totalRows);
+        writeVarLong(itemCount);
+        writeVarLong(firstRowLength);
+        writeVarLong(zigzag(firstRowScrolled));
+    }
+
+    public void touch(long timeMs, int action, float position) {
+        writeByte(TOUCH);
+        writeTime(timeMs);
+        writeByte(action);
+        int bits = Float.floatToIntBits(position);
+        writeByte(bits >>> 24);
+        writeByte(bits >>> 16);
+        writeByte(bits >>> 8);
+        writeByte(bits);
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    // -------------------- Encoding --------------------
+    private void writeTime(long timeMs) {
+        // event times are monotonic; a negative delta (clock mix-up) is clamped rather than corrupting the trace
+        writeVarLong(Math.max(0L, timeMs - lastTimeMs));
+        lastTimeMs = Math.max(lastTimeMs, timeMs);
+    }
+
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private void writeVarLong(long v) {
+        while ((v & ~0x7FL) != 0) {
+            writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        writeByte((int) v);
+    }
+
+    private void writeByte(int b) {
+        if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        buffer[length++] = (byte) b;
+    }
+}
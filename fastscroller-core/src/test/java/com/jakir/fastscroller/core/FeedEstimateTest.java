@@ -0,0 +1,85 @@
+package com.jakir.fastscroller.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Infinite-feed total: stable while pages are appended, and a near-end trigger that leads fast drags.
+ */
+public class FeedEstimateTest {
+
+    private static final int PAGE = 50;
+
+    @Test
+    public void extrapolatedTotal_growsSteadilyAndNeverShrinks() {
+        FeedEstimate feed = new FeedEstimate();
+        feed.onItemCount(0, PAGE);
+        long previous = feed.estimatedTotal();
+        assertEquals(PAGE + FeedEstimate.PAGES_AHEAD * PAGE, previous);
+
+        for (int page = 2; page <= 20; page++) {
+            feed.onItemCount(page * 1000L, page * PAGE);
+            long total = feed.estimatedTotal();
+            assertTrue(total >= previous);
+            // one page more each time: the thumb moves a little, it does not jump
+            assertEquals(previous + PAGE, total);
+            previous = total;
+        }
+    }
+
+    @Test
+    public void explicitTotal_holdsUntilExceeded() {
+        FeedEstimate feed = new FeedEstimate();
+        feed.setExplicitTotal(10_000);
+        for (int page = 1; page <= 10; page++) {
+            feed.onItemCount(page, page * PAGE);
+            assertEquals(10_000, feed.estimatedTotal());
+        }
+
+        // past the guess: back to extrapolating
+        feed.setExplicitTotal(400);
+        feed.onItemCount(20, 11 * PAGE);
+        assertEquals(11 * PAGE + FeedEstimate.PAGES_AHEAD * PAGE, feed.estimatedTotal());
+    }
+
+    @Test
+    public void refresh_startsOver() {
+        FeedEstimate feed = new FeedEstimate();
+        for (int page = 1; page <= 10; page++) feed.onItemCount(page, page * PAGE);
+        feed.onItemCount(100, 20);
+
+        assertEquals(20, feed.estimatedTotal());
+        feed.onItemCount(200, 40);
+        assertEquals(40 + FeedEstimate.PAGES_AHEAD * 20, feed.estimatedTotal());
+    }
+
+    @Test
+    public void latency_isLearnedFromRequestToAppend() {
+        FeedEstimate feed = new FeedEstimate();
+        feed.onItemCount(0, PAGE);
+        for (int i = 1; i <= 30; i++) {
+            long requested = i * 10_000L;
+            feed.onNearEndRequested(requested);
+            feed.onItemCount(requested + 200, (i + 1) * PAGE);
+        }
+        assertEquals(200f, feed.loadLatencyMs(), 1f);
+    }
+
+    @Test
+    public void fastDrag_triggersEarlierThanResting() {
+        FeedEstimate feed = new FeedEstimate();
+        feed.onItemCount(0, 1000);
+        int visible = 10;
+        int position = 700;
+
+        assertFalse(feed.isNearEnd(position, 0f, visible));
+        // 1000 items/s for the default 600 ms latency covers the remaining 300 items
+        assertTrue(feed.isNearEnd(position, 1000f, visible));
+        // dragging back up does not count as approaching the end
+        assertFalse(feed.isNearEnd(position, -1000f, visible));
+        assertTrue(feed.isNearEnd(1000 - 2 * visible, 0f, visible));
+    }
+}
@@ -0,0 +1,133 @@
+package com.jakir.fastscroller.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the block Fenwick index against a plain list of heights under random adapter changes.
+ */
+public class ItemHeightIndexTest {
+
+    private static final int UNMEASURED = -1;
+
+    @Test
+    public void matchesBruteForceUnderRandomChanges() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 200; trial++) {
+            ItemHeightIndex index = new ItemHeightIndex(50);
+            List<Integer> model = new ArrayList<>();
+            int n = random.nextInt(1000);
+            index.reset(n);
+            for (int i = 0; i < n; i++) model.add(UNMEASURED);
+
+            for (int op = 0; op < 200; op++) {
+                applyRandomChange(random, index, model);
+                assertMatches(random, index, model);
+            }
+        }
+    }
+
+    @Test
+    public void unmeasuredItemsUseTheAverage() {
+        ItemHeightIndex index = new ItemHeightIndex(50);
+        index.reset(4);
+        assertEquals(200, index.totalHeight());
+
+        index.setMeasured(0, 100);
+        index.setMeasured(1, 300);
+
+        assertEquals(200, index.estimate());
+        assertEquals(100 + 300 + 200 + 200, index.totalHeight());
+        assertEquals(2, index.positionAt(400));
+    }
+
+    @Test
+    public void tooManyItemsAreNotTracked() {
+        ItemHeightIndex index = new ItemHeightIndex(50);
+        index.reset(100);
+        index.setMeasured(0, 150);
+
+        index.reset(100_000_000);
+        assertTrue(index.isOverCapacity());
+        assertEquals(0, index.size());
+        index.insert(0, 10);
+        assertEquals(0, index.size());
+
+        index.reset(ItemHeightIndex.MAX_ITEMS - 5);
+        assertFalse(index.isOverCapacity());
+        assertEquals(150, index.estimate());
+        index.insert(0, 10);
+        assertTrue(index.isOverCapacity());
+        assertEquals(0, index.size());
+    }
+
+    private static void applyRandomChange(Random random, ItemHeightIndex index, List<Integer> model) {
+        int size = model.size();
+        switch (random.nextInt(4)) {
+            case 0:
+                if (size == 0) return;
+                int p = random.nextInt(size);
+                int h = random.nextInt(600);
+                index.setMeasured(p, h);
+                model.set(p, h);
+                return;
+            case 1: {
+                int at = random.nextInt(size + 1);
+                int count = random.nextInt(100);
+                index.insert(at, count);
+                for (int i = 0; i < count; i++) model.add(at, UNMEASURED);
+                return;
+            }
+            case 2: {
+                if (size == 0) return;
+                int at = random.nextInt(size);
+                int count = random.nextInt(50);
+                index.remove(at, count);
+                count = Math.min(count, size - at);
+                for (int i = 0; i < count; i++) model.remove(at);
+                return;
+            }
+            default: {
+                if (size < 2) return;
+                int from = random.nextInt(size);
+                int to = random.nextInt(size);
+                index.move(from, to);
+                model.add(to, model.remove(from));
+            }
+        }
+    }
+
+    private static void assertMatches(Random random, ItemHeightIndex index, List<Integer> model) {
+        assertEquals(model.size(), index.size());
+
+        long sum = 0;
+        int measured = 0;
+        for (int h : model) {
+            if (h == UNMEASURED) continue;
+            sum += h;
+            measured++;
+        }
+        long estimate = measured == 0 ? index.estimate() : Math.max(1, sum / measured);
+
+        long offset = 0;
+        for (int i = 0; i <= model.size(); i++) {
+            assertEquals("offset of " + i, offset, index.offsetOf(i));
+            if (i < model.size()) offset += model.get(i) == UNMEASURED ? estimate : model.get(i);
+        }
+        assertEquals(offset, index.totalHeight());
+
+        for (int q = 0; q < 20 && !model.isEmpty(); q++) {
+            long o = (long) (random.nextDouble() * offset);
+            int p = index.positionAt(o);
+            boolean contains = index.offsetOf(p) <= o && (p == model.size() - 1 || index.offsetOf(p + 1) > o);
+            assertTrue("position at " + o + " -> " + p, contains || index.heightOf(p) == 0);
+        }
+    }
+}
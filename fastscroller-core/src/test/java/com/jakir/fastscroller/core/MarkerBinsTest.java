@@ -0,0 +1,102 @@
+package com.jakir.fastscroller.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Marker binning: counts per track pixel and the dirty span reported for each change.
+ */
+public class MarkerBinsTest {
+
+    private static final int BINS = 1000;
+    private static final int ITEMS = 1_000_000;
+
+    @Test
+    public void markersLandInTheirShareOfTheTrack() {
+        MarkerBins bins = new MarkerBins();
+        bins.resize(BINS, ITEMS);
+        bins.add(new int[]{0, 999, 500_000, ITEMS - 1}, 4);
+
+        assertEquals(2, bins.count(0));
+        assertEquals(1, bins.count(500));
+        assertEquals(1, bins.count(BINS - 1));
+        assertEquals(4, bins.size());
+    }
+
+    @Test
+    public void addAndRemove_dirtyOnlyTheTouchedBins() {
+        MarkerBins bins = new MarkerBins();
+        bins.resize(BINS, ITEMS);
+        int[] many = new int[10_000];
+        for (int i = 0; i < many.length; i++) many[i] = i * 7;
+        bins.add(many, many.length);
+
+        bins.add(new int[]{400_123, 400_999}, 2);
+        assertEquals(400, bins.dirtyFrom());
+        assertEquals(401, bins.dirtyTo());
+        assertEquals(2, bins.count(400));
+
+        bins.remove(new int[]{400_999, 12_345_678}, 2);
+        assertEquals(400, bins.dirtyFrom());
+        assertEquals(401, bins.dirtyTo());
+        assertEquals(1, bins.count(400));
+        assertFalse(bins.contains(400_999));
+        assertTrue(bins.contains(400_123));
+    }
+
+    @Test
+    public void duplicatesAndUnknownPositions_changeNothing() {
+        MarkerBins bins = new MarkerBins();
+        bins.resize(BINS, ITEMS);
+        bins.add(new int[]{5, 5, 6}, 3);
+        assertEquals(2, bins.size());
+
+        bins.add(new int[]{6, 5}, 2);
+        assertEquals(bins.dirtyFrom(), bins.dirtyTo());
+        bins.remove(new int[]{7}, 1);
+        assertEquals(bins.dirtyFrom(), bins.dirtyTo());
+        assertEquals(2, bins.size());
+    }
+
+    @Test
+    public void set_dirtiesOldAndNewBins() {
+        MarkerBins bins = new MarkerBins();
+        bins.resize(BINS, ITEMS);
+        bins.add(new int[]{100_000}, 1);
+
+        bins.set(new int[]{300_000}, 1);
+        assertEquals(100, bins.dirtyFrom());
+        assertEquals(301, bins.dirtyTo());
+        assertEquals(0, bins.count(100));
+        assertEquals(1, bins.count(300));
+
+        bins.clear();
+        assertEquals(0, bins.size());
+        assertEquals(0, bins.count(300));
+    }
+
+    @Test
+    public void resize_rebinsEverything() {
+        MarkerBins bins = new MarkerBins();
+        bins.add(new int[]{10, 20}, 2); // before any geometry: kept, not binned
+        bins.resize(BINS, ITEMS);
+        assertEquals(0, bins.dirtyFrom());
+        assertEquals(BINS, bins.dirtyTo());
+        assertEquals(2, bins.count(0));
+
+        bins.resize(10, 100);
+        assertEquals(1, bins.count(1));
+        assertEquals(1, bins.count(2));
+    }
+
+    @Test
+    public void maxIntPositions_doNotOverflow() {
+        MarkerBins bins = new MarkerBins();
+        bins.resize(BINS, Integer.MAX_VALUE);
+        bins.add(new int[]{Integer.MAX_VALUE - 1}, 1);
+        assertEquals(1, bins.count(BINS - 1));
+    }
+}
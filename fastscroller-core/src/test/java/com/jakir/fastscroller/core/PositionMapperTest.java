@@ -0,0 +1,174 @@
+package com.jakir.fastscroller.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Exact thumb -> row mapping at 10, 10k, 10M and 2^31-1 items, and continuous sub-row offsets.
+ */
+public class PositionMapperTest {
+
+    private static final int CONTAINER = 1920;
+    private static final int THUMB = 180;
+    private static final int TRAVEL = CONTAINER - THUMB;
+    private static final int VISIBLE = 4;
+    private static final int ROW = 480;
+
+    @Test
+    public void tenItems_exact() {
+        assertExactAtEveryPixel(10);
+    }
+
+    @Test
+    public void tenThousandItems_exact() {
+        assertExactAtEveryPixel(10_000);
+    }
+
+    @Test
+    public void tenMillionItems_exact() {
+        assertExactAtEveryPixel(10_000_000);
+    }
+
+    @Test
+    public void intMaxItems_exact() {
+        assertExactAtEveryPixel(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void intMaxItems_everySubPixelStepMovesForward() {
+        PositionMapper mapper = new PositionMapper();
+        long range = Integer.MAX_VALUE - VISIBLE;
+        long previous = -1;
+        // 1/16 px steps near the end of the track, where a float ratio has the fewest bits left
+        for (int i = 0; i < 16 * 16; i++) {
+            double thumbStart = TRAVEL - 16 + i / 16d;
+            mapper.map(thumbStart, TRAVEL, range, ROW);
+            long expected = (long) Math.floor(thumbStart * 16) * range / (16L * TRAVEL);
+            assertEquals(expected, mapper.row());
+            assertTrue(mapper.row() > previous);
+            previous = mapper.row();
+        }
+    }
+
+    @Test
+    public void floatRatio_wouldSkipRows() {
+        long range = 10_000_000 - VISIBLE;
+        // what a float ratio reaches one pixel before the end, vs the exact row
+        float ratio = (float) (TRAVEL - 1) / TRAVEL;
+        long floatRow = (long) (ratio * range);
+        PositionMapper mapper = new PositionMapper();
+        mapper.map(TRAVEL - 1, TRAVEL, range, ROW);
+        assertEquals((TRAVEL - 1) * range / TRAVEL, mapper.row());
+        assertTrue(floatRow != mapper.row());
+    }
+
+    @Test
+    public void smallList_offsetFollowsTheFinger() {
+        PositionMapper mapper = new PositionMapper();
+        long range = 10 - VISIBLE;
+        long previous = -1;
+        for (int px = 0; px <= TRAVEL; px++) {
+            mapper.map(px, TRAVEL, range, ROW);
+            assertTrue(mapper.offset() >= 0 && mapper.offset() < ROW);
+            // content position in px: never goes back, never more than one thumb pixel worth of rows per step
+            long content = mapper.row() * ROW + mapper.offset();
+            if (previous >= 0) {
+                assertTrue(content >= previous);
+                assertTrue(content - previous <= range * ROW / TRAVEL + 1);
+            }
+            previous = content;
+        }
+        assertEquals(range, mapper.row());
+        assertEquals(0, mapper.offset());
+    }
+
+    @Test
+    public void thumbStart_roundTrips() {
+        PositionMapper mapper = new PositionMapper();
+        for (long items : new long[]{10, 10_000, 10_000_000, Integer.MAX_VALUE}) {
+            long range = items - VISIBLE;
+            double slack = (double) TRAVEL / range / ROW + 1e-6;   // one px of content, in thumb px
+            for (double px = 0; px <= TRAVEL; px += 0.37) {
+                mapper.map(px, TRAVEL, range, ROW);
+                double back = PositionMapper.thumbStart(mapper.row(), mapper.offset(), ROW, range, TRAVEL);
+                assertEquals("items " + items + " px " + px, px, back, slack);
+            }
+        }
+    }
+
+    @Test
+    public void clampsOutsideTheTrack() {
+        PositionMapper mapper = new PositionMapper();
+        mapper.map(-5, TRAVEL, 100, ROW);
+        assertEquals(0, mapper.row());
+        assertEquals(0, mapper.offset());
+        mapper.map(TRAVEL + 5, TRAVEL, 100, ROW);
+        assertEquals(100, mapper.row());
+        assertEquals(0, mapper.offset());
+        mapper.map(50, TRAVEL, 0, ROW);
+        assertEquals(0, mapper.row());
+        assertEquals(0d, PositionMapper.thumbStart(5, 0, ROW, 0, TRAVEL), 0d);
+    }
+
+    @Test
+    public void offsetForThumb_exactForLargeContent() {
+        long content = (long) Integer.MAX_VALUE * ROW;
+        long range = content - CONTAINER;
+        for (int px = 0; px <= TRAVEL; px++) {
+            assertEquals(px * range / TRAVEL, PositionMapper.offsetForThumb(px, TRAVEL, content, CONTAINER));
+        }
+    }
+
+    @Test
+    public void mapPixels_endOfTrackIsEndOfList() {
+        PositionMapper mapper = new PositionMapper();
+        for (long items : new long[]{10, 10_000, 10_000_000, Integer.MAX_VALUE}) {
+            long range = items * ROW - CONTAINER;
+            mapper.mapPixels(TRAVEL, TRAVEL, items, ROW, CONTAINER);
+            // last row's bottom edge on the container's bottom edge
+            assertEquals(range, mapper.row() * ROW + mapper.offset());
+            for (int px = 0; px < TRAVEL; px += 7) {
+                mapper.mapPixels(px, TRAVEL, items, ROW, CONTAINER);
+                assertEquals("items " + items + " px " + px, px * range / TRAVEL, mapper.row() * ROW + mapper.offset());
+                double back = PositionMapper.thumbStartPixels(mapper.row(), mapper.offset(), ROW, items, CONTAINER, TRAVEL);
+                assertEquals(px, back, (double) TRAVEL / range + 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void mapRows_pixelsWithARowLength_rowTopsWithout() {
+        PositionMapper mapper = new PositionMapper();
+        long items = 10_000;
+        for (int px = 0; px <= TRAVEL; px += 11) {
+            mapper.mapRows(px, TRAVEL, items, VISIBLE, ROW, CONTAINER);
+            long pixelRow = mapper.row();
+            int pixelOffset = mapper.offset();
+            mapper.mapPixels(px, TRAVEL, items, ROW, CONTAINER);
+            assertEquals(mapper.row(), pixelRow);
+            assertEquals(mapper.offset(), pixelOffset);
+            assertEquals(px, PositionMapper.rowThumbStart(pixelRow, pixelOffset, ROW, items, VISIBLE, CONTAINER, TRAVEL),
+                    (double) TRAVEL / (items * ROW - CONTAINER) + 1e-6);
+
+            mapper.mapRows(px, TRAVEL, items, VISIBLE, 0, CONTAINER);
+            assertEquals(px * (items - VISIBLE) / TRAVEL, mapper.row());
+            assertEquals(0, mapper.offset());
+        }
+    }
+
+    // every whole thumb pixel lands on floor(px * range / travel), computed in exact long arithmetic
+    private static void assertExactAtEveryPixel(int items) {
+        PositionMapper mapper = new PositionMapper();
+        long range = Math.max(0, items - VISIBLE);
+        for (int px = 0; px <= TRAVEL; px++) {
+            mapper.map(px, TRAVEL, range, ROW);
+            assertEquals("px " + px, px * range / TRAVEL, mapper.row());
+            long remainder = px * range % TRAVEL;
+            assertEquals("px " + px, remainder * ROW / TRAVEL, mapper.offset(), 1);
+        }
+        mapper.map(TRAVEL, TRAVEL, range, ROW);
+        assertEquals(range, mapper.row());
+    }
+}
@@ -0,0 +1,85 @@
+package com.jakir.fastscroller.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * The thumb spring must not depend on the refresh rate, must not overshoot and must report settled.
+ */
+public class ThumbSpringTest {
+
+    @Test
+    public void sameMotionAt60And90And120Hz() {
+        float at60 = valueAfter(60, 0.1f);
+        float at90 = valueAfter(90, 0.1f);
+        float at120 = valueAfter(120, 0.1f);
+        float oneStep = valueAfter(1 / 0.1f, 0.1f);
+
+        assertEquals(at60, at90, 0.01f);
+        assertEquals(at60, at120, 0.01f);
+        assertEquals(at60, oneStep, 0.01f);
+        assertTrue(at60 > 0f && at60 < 1000f);
+    }
+
+    @Test
+    public void approachesWithoutOvershoot() {
+        ThumbSpring spring = new ThumbSpring(ThumbSpring.POSITION_OMEGA);
+        spring.setTarget(1000f);
+        float previous = 0f;
+        while (spring.step(1 / 120f)) {
+            assertTrue(spring.getValue() >= previous);
+            assertTrue(spring.getValue() <= 1000f);
+            previous = spring.getValue();
+        }
+        assertEquals(1000f, spring.getValue(), 0f);
+    }
+
+    @Test
+    public void settlesWithinAFewHundredMillis() {
+        ThumbSpring spring = new ThumbSpring(ThumbSpring.LENGTH_OMEGA);
+        spring.setTarget(2000f);
+        int frames = 0;
+        while (spring.step(1 / 60f)) frames++;
+
+        assertTrue("frames: " + frames, frames < 30);
+        assertTrue(spring.isSettled());
+        assertFalse(spring.step(1 / 60f));
+    }
+
+    @Test
+    public void retargetKeepsVelocityContinuous() {
+        ThumbSpring spring = new ThumbSpring(ThumbSpring.POSITION_OMEGA);
+        spring.setTarget(1000f);
+        spring.step(0.02f);
+        float before = spring.getValue();
+        spring.setTarget(0f);
+        spring.step(0.001f);
+
+        // still heading towards the old target for a moment: no jump on retarget
+        assertTrue(spring.getValue() >= before);
+        assertEquals(before, spring.getValue(), 20f);
+    }
+
+    @Test
+    public void snapToStopsImmediately() {
+        ThumbSpring spring = new ThumbSpring(ThumbSpring.POSITION_OMEGA);
+        spring.setTarget(500f);
+        spring.step(0.01f);
+        spring.snapTo(42f);
+
+        assertTrue(spring.isSettled());
+        assertEquals(42f, spring.getValue(), 0f);
+        assertEquals(42f, spring.getTarget(), 0f);
+    }
+
+    private static float valueAfter(float hz, float seconds) {
+        ThumbSpring spring = new ThumbSpring(ThumbSpring.POSITION_OMEGA);
+        spring.setTarget(1000f);
+        int frames = Math.round(seconds * hz);
+        for (int i = 0; i < frames; i++) spring.step(1f / hz);
+        return spring.getValue();
+    }
+}
@@ -0,0 +1,154 @@
+package com.jakir.fastscroller.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Round-trips traces through writer / reader and checks the replay is deterministic.
+ */
+public class TraceReplayerTest {
+
+    private static final int CONTAINER = 2000;
+    private static final int MIN_THUMB = 140;
+    private static final int ROW = 160;
+
+    @Test
+    public void readerReturnsWhatWasWritten() {
+        TraceWriter writer = new TraceWriter();
+        writer.container(CONTAINER, MIN_THUMB);
+        writer.scrolled(1_000L, 0, 12, 5, 10, 100_000, 100_000, ROW, 12);
+        writer.scrolled(1_016L, 0, -30, 3, 11, 100_000, 100_000, ROW, -18);
+        writer.touch(1_020L, TraceWriter.ACTION_DOWN, 512.5f);
+        writer.touch(1_030L, TraceWriter.ACTION_MOVE, -3f);
+        writer.scrolled(5_000_000_000L, 1, 2, Integer.MAX_VALUE - 10, 10, Integer.MAX_VALUE, Integer.MAX_VALUE, 0, 0);
+
+        List<String> records = new ArrayList<>();
+        TraceReader.read(writer.toByteArray(), new TraceReader.Visitor() {
+            @Override
+            public void onContainer(int containerLength, int minThumbLength) {
+                records.add("C " + containerLength + " " + minThumbLength);
+            }
+
+            @Override
+            public void onScrolled(long timeMs, int dx, int dy, int firstRow, int visibleRows, int totalRows, int itemCount,
+                                   int firstRowLength, int firstRowScrolled) {
+                records.add("S " + timeMs + " " + dx + " " + dy + " " + firstRow + " " + visibleRows + " " + totalRows + " " + itemCount
+                        + " " + firstRowLength + " " + firstRowScrolled);
+            }
+
+            @Override
+            public void onTouch(long timeMs, int action, float position) {
+                records.add("T " + timeMs + " " + action + " " + position);
+            }
+        });
+
+        assertArrayEquals(new String[]{
+                "C 2000 140",
+                "S 1000 0 12 5 10 100000 100000 160 12",
+                "S 1016 0 -30 3 11 100000 100000 160 -18",
+                "T 1020 0 512.5",
+                "T 1030 2 -3.0",
+                "S 5000000000 1 2 2147483637 10 2147483647 2147483647 0 0",
+        }, records.toArray(new String[0]));
+    }
+
+    @Test
+    public void scrollEventsAreCompact() {
+        TraceWriter writer = new TraceWriter();
+        writer.container(CONTAINER, MIN_THUMB);
+        int before = writer.size();
+        for (int i = 0; i < 1000; i++) writer.scrolled(8L * i, 0, 40, i, 12, 1_000_000, 1_000_000, ROW, i % ROW);
+        assertTrue("bytes per scroll event: " + (writer.size() - before) / 1000f, writer.size() - before <= 1000 * 16);
+    }
+
+    @Test
+    public void replayIsDeterministic() {
+        byte[] trace = session();
+        TraceReplayer.Result a = new TraceReplayer(7, 14).replay(trace);
+        TraceReplayer.Result b = new TraceReplayer(7, 14).replay(trace);
+
+        assertEquals(a.scrollEvents, b.scrollEvents);
+        assertEquals(a.layoutRequests, b.layoutRequests);
+        assertEquals(a.dragScrolls, b.dragScrolls);
+        assertEquals(a.thumbStart, b.thumbStart, 0f);
+        assertEquals(a.thumbLength, b.thumbLength, 0f);
+        assertEquals(a.lastTargetRow, b.lastTargetRow);
+    }
+
+    @Test
+    public void dragIsCoalescedPerFrameAndLandsAtTheEnd() {
+        TraceReplayer.Result r = new TraceReplayer(7, 14).replay(session());
+
+        assertEquals(1, r.drags);
+        // 240 Hz touch samples over ~1 s: at most one list scroll per 16 ms frame
+        assertTrue("dragScrolls " + r.dragScrolls, r.dragScrolls <= 1000 / 16 + 2);
+        assertTrue("dragScrolls " + r.dragScrolls, r.dragScrolls > 10);
+        // the finger was pulled past the end: thumb clamped, the last row's end on the container's end
+        assertEquals(CONTAINER - r.thumbLength, r.thumbStart, 0.01f);
+        assertEquals((1_000_000L * ROW - CONTAINER) / ROW, r.lastTargetRow);
+        assertEquals((1_000_000L * ROW - CONTAINER) % ROW, r.lastTargetOffset);
+    }
+
+    @Test
+    public void rejectsForeignData() {
+        try {
+            TraceReader.read(new byte[]{1, 2, 3, 4}, null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        byte[] truncated = session();
+        try {
+            TraceReader.read(Arrays.copyOf(truncated, truncated.length - 2), new CountingVisitor());
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /** Fling to the middle of a 1M row list, then drag the thumb to the bottom and beyond. */
+    private static byte[] session() {
+        TraceWriter writer = new TraceWriter();
+        writer.container(CONTAINER, MIN_THUMB);
+        long t = 0;
+        long scrolled = 0;
+        for (int i = 0; i < 120; i++, t += 8) {
+            int dy = 4000 - i * 30;
+            scrolled += dy;
+            writer.scrolled(t, 0, dy, (int) (scrolled / ROW), 12, 1_000_000, 1_000_000, ROW, (int) (scrolled % ROW));
+        }
+        writer.touch(t, TraceWriter.ACTION_DOWN, 300f);
+        for (int i = 1; i <= 240; i++) {
+            t += 4;
+            writer.touch(t, TraceWriter.ACTION_MOVE, 300f + i * 10f);
+        }
+        writer.touch(t, TraceWriter.ACTION_UP, 2700f);
+        return writer.toByteArray();
+    }
+
+    private static final class CountingVisitor implements TraceReader.Visitor {
+        int count;
+
+        @Override
+        public void onContainer(int containerLength, int minThumbLength) {
+            count++;
+        }
+
+        @Override
+        public void onScrolled(long timeMs, int dx, int dy, int firstRow, int visibleRows, int totalRows, int itemCount,
+                               int firstRowLength, int firstRowScrolled) {
+            count++;
+        }
+
+        @Override
+        public void onTouch(long timeMs, int action, float position) {
+            count++;
+        }
+    }
+}